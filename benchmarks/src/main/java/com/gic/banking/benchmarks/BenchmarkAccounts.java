@@ -0,0 +1,24 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.repository.AccountRepository;
+
+import java.util.List;
+
+/**
+ * Loads generated transaction lines into a repository for the read-side benchmarks.
+ */
+final class BenchmarkAccounts {
+
+    private BenchmarkAccounts() {
+    }
+
+    static AccountRepository load(AccountRepository accountRepository, List<String> lines) {
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            if (!accountRepository.addAccount(parts[1]).addTransaction(parts[0], parts[2], Double.parseDouble(parts[3]))) {
+                throw new IllegalStateException("Generated transaction rejected: " + line);
+            }
+        }
+        return accountRepository;
+    }
+}
@@ -0,0 +1,61 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.util.InputValidations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of dates, periods and amounts taken from a synthetic feed, with one input in ten invalid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputValidationsBenchmark {
+    private static final int INPUTS = 1024; // Power of two, so the next input is picked with a mask
+
+    private final String[] dates = new String[INPUTS];
+    private final String[] periods = new String[INPUTS];
+    private final String[] amounts = new String[INPUTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> lines = new SyntheticData(42).transactionLines(INPUTS, 1, 12);
+        for (int i = 0; i < INPUTS; i++) {
+            String[] parts = lines.get(i).split(" ");
+            boolean invalid = i % 10 == 0;
+            dates[i] = invalid ? parts[0].substring(0, 6) + "32" : parts[0];
+            periods[i] = invalid ? parts[0].substring(0, 4) + "13" : parts[0].substring(0, 6);
+            amounts[i] = invalid ? "-" + parts[3] : parts[3];
+        }
+    }
+
+    @Benchmark
+    public boolean isValidDate() {
+        return InputValidations.isValidDate(dates[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public boolean isValidPeriod() {
+        return InputValidations.isValidPeriod(periods[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public boolean isValidAmount() {
+        return InputValidations.isValidAmount(amounts[next++ & (INPUTS - 1)]);
+    }
+}
@@ -0,0 +1,70 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interest of one account for the last month of its history, from the indexed rules and from the rule set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterestBenchmark {
+
+    @Param({"100", "10000"})
+    private int transactionsPerAccount;
+
+    @Param({"5", "100"})
+    private int ruleCount;
+
+    @Param({"12", "120"})
+    private int historyMonths;
+
+    private BankAccount account;
+    private Set<InterestRule> interestRules;
+    private NavigableMap<LocalDate, InterestRule> rulesByDate;
+    private final LocalDate startDate = SyntheticData.END_DATE.withDayOfMonth(1);
+    private final LocalDate endDate = SyntheticData.END_DATE;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        account = BenchmarkAccounts.load(new AccountRepository(),
+                data.transactionLines(1, transactionsPerAccount, historyMonths)).findById(SyntheticData.accountId(0));
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        data.interestRules(ruleCount, historyMonths).forEach(interestRulesRepository::addInterestRule);
+        interestRules = interestRulesRepository.getInterestRules();
+        rulesByDate = interestRulesRepository.getRulesByDate();
+    }
+
+    @Benchmark
+    public long calculateInterestCents() {
+        return account.calculateInterestCents(startDate, endDate, rulesByDate);
+    }
+
+    @Benchmark
+    public double calculateInterest() {
+        return account.calculateInterest(startDate, endDate, interestRules);
+    }
+}
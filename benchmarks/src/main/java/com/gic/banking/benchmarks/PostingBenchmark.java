@@ -0,0 +1,101 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.model.PostingBatch;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to post a whole synthetic feed into an empty repository, directly on the accounts, in pre-parsed
+ * batches per account and through the transaction handler validations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostingBenchmark {
+
+    @Param({"100", "10000"})
+    private int accounts;
+
+    @Param({"10", "100"})
+    private int transactionsPerAccount;
+
+    @Param({"12"})
+    private int historyMonths;
+
+    private String[][] inputs;
+    private String[] dates;
+    private String[] accountIds;
+    private String[] types;
+    private double[] amounts;
+    private Map<String, PostingBatch> batchesByAccount; // The same postings, pre-parsed and grouped by account
+
+    @Setup
+    public void setUp() {
+        List<String> lines = new SyntheticData(42).transactionLines(accounts, transactionsPerAccount, historyMonths);
+        inputs = new String[lines.size()][];
+        dates = new String[lines.size()];
+        accountIds = new String[lines.size()];
+        types = new String[lines.size()];
+        amounts = new double[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            String[] parts = lines.get(i).split(" ");
+            inputs[i] = parts;
+            dates[i] = parts[0];
+            accountIds[i] = parts[1];
+            types[i] = parts[2];
+            amounts[i] = Double.parseDouble(parts[3]);
+        }
+        batchesByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            batchesByAccount.computeIfAbsent(accountIds[i], accountId -> new PostingBatch(transactionsPerAccount))
+                    .add(Dates.parse(dates[i]), types[i], Money.toCents(amounts[i]));
+        }
+    }
+
+    @Benchmark
+    public AccountRepository addTransaction() {
+        AccountRepository accountRepository = new AccountRepository();
+        for (int i = 0; i < dates.length; i++) {
+            accountRepository.addAccount(accountIds[i]).addTransaction(dates[i], types[i], amounts[i]);
+        }
+        return accountRepository;
+    }
+
+    @Benchmark
+    public AccountRepository postTransaction() {
+        AccountRepository accountRepository = new AccountRepository();
+        TransactionHandler transactionHandler = new TransactionHandler(accountRepository);
+        for (String[] input : inputs) {
+            transactionHandler.postTransaction(input);
+        }
+        return accountRepository;
+    }
+
+    @Benchmark
+    public AccountRepository addTransactions() {
+        AccountRepository accountRepository = new AccountRepository();
+        batchesByAccount.forEach((accountId, batch) -> accountRepository.addAccount(accountId).addTransactions(batch));
+        return accountRepository;
+    }
+}
@@ -0,0 +1,64 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.ops.StatementCache;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replacing one interest rule among many, with a statement cache listening for the change as in the server.
+ * Every upsert changes the rate of an existing date, so each one publishes a new version of the rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleUpsertBenchmark {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2000, 1, 1);
+
+    @Param({"100", "10000", "100000"})
+    private int ruleCount;
+
+    private InterestRulesRepository interestRulesRepository;
+    private final Random random = new Random(42);
+    private long upserts;
+
+    @Setup
+    public void setUp() {
+        interestRulesRepository = new InterestRulesRepository();
+        new StatementCache(new AccountRepository(), interestRulesRepository, 1000);
+        List<InterestRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(rule(i, 1.0));
+        }
+        interestRulesRepository.applyBatch(List.of(), rules);
+    }
+
+    @Benchmark
+    public boolean upsertRule() {
+        return interestRulesRepository.addInterestRule(rule(random.nextInt(ruleCount), 2.0 + (upserts++ & 1)));
+    }
+
+    private static InterestRule rule(int day, double rate) {
+        return new InterestRule(FIRST_DATE.plusDays(day), String.format("RULE%06d", day), rate);
+    }
+}
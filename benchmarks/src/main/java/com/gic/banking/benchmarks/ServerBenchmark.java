@@ -0,0 +1,91 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.BankingServer;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of the HTTP service on loopback, with every benchmark thread acting as one client. The
+ * threads share one HTTP client, which keeps a connection open per concurrent request. Use {@code -t} to raise
+ * the number of concurrent clients, e.g. {@code -t 2000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(256)
+@Fork(1)
+public class ServerBenchmark {
+
+    @Param({"10000"})
+    private int accounts;
+
+    @Param({"12"})
+    private int historyMonths;
+
+    private BankingServer server;
+    private HttpClient httpClient;
+    private final String period = SyntheticData.END_DATE.format(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticData data = new SyntheticData(42);
+        AccountRepository accountRepository = BenchmarkAccounts.load(new AccountRepository(),
+                data.transactionLines(accounts, 10, historyMonths));
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        data.interestRules(5, historyMonths).forEach(interestRulesRepository::addInterestRule);
+        server = new BankingServer(0, 64, accountRepository, interestRulesRepository);
+        server.start();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int postTransaction() throws Exception {
+        String line = SyntheticData.END_DATE.format(DateTimeFormatter.BASIC_ISO_DATE) + " "
+                + SyntheticData.accountId(ThreadLocalRandom.current().nextInt(accounts)) + " D 10.00";
+        return send(HttpRequest.newBuilder(uri("/transactions"))
+                .POST(HttpRequest.BodyPublishers.ofString(line)).build());
+    }
+
+    @Benchmark
+    public int getStatement() throws Exception {
+        String accountId = SyntheticData.accountId(ThreadLocalRandom.current().nextInt(accounts));
+        return send(HttpRequest.newBuilder(uri("/statements/" + accountId + "/" + period)).GET().build());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,79 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.NavigableMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of monthly and full statements. Standard output is discarded while the benchmark runs, so the
+ * formatting is measured rather than the console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+
+    @Param({"100", "10000"})
+    private int transactionsPerAccount;
+
+    @Param({"5", "100"})
+    private int ruleCount;
+
+    @Param({"12"})
+    private int historyMonths;
+
+    private BankAccount account;
+    private NavigableMap<LocalDate, InterestRule> rulesByDate;
+    private final String period = SyntheticData.END_DATE.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    private PrintStream standardOut;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        account = BenchmarkAccounts.load(new AccountRepository(),
+                data.transactionLines(1, transactionsPerAccount, historyMonths)).findById(SyntheticData.accountId(0));
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        data.interestRules(ruleCount, historyMonths).forEach(interestRulesRepository::addInterestRule);
+        rulesByDate = interestRulesRepository.getRulesByDate();
+        standardOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(standardOut);
+    }
+
+    @Benchmark
+    public void printMonthlyStatement() {
+        account.printMonthlyStatement(period, rulesByDate);
+    }
+
+    @Benchmark
+    public void printStatement() {
+        account.printStatement();
+    }
+}
@@ -0,0 +1,107 @@
+package com.gic.banking.benchmarks;
+
+import com.gic.banking.model.InterestRule;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded generator of realistic accounts, transactions and interest rules for the benchmarks.
+ * <p>
+ * Each account starts with a deposit and then alternates salary-sized deposits with smaller withdrawals
+ * that never overdraw it, spread over the history span and ending on {@link #END_DATE}. Transactions of
+ * all accounts are returned in date order, the way a daily feed would deliver them.
+ */
+public final class SyntheticData {
+    public static final LocalDate END_DATE = LocalDate.of(2023, 12, 31);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final Random random;
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns the first day of a history span ending on {@link #END_DATE}.
+     *
+     * @param historyMonths The number of months of history.
+     * @return The first day of the span.
+     */
+    public static LocalDate startDate(int historyMonths) {
+        return END_DATE.minusMonths(historyMonths).plusDays(1);
+    }
+
+    public static String accountId(int index) {
+        return String.format("AC%06d", index);
+    }
+
+    /**
+     * Generates transactions in the {@code <Date> <Account> <Type> <Amount>} input format.
+     *
+     * @param accounts               The number of accounts.
+     * @param transactionsPerAccount The number of transactions of each account.
+     * @param historyMonths          The number of months the transactions are spread over.
+     * @return The transaction lines in date order.
+     */
+    public List<String> transactionLines(int accounts, int transactionsPerAccount, int historyMonths) {
+        LocalDate startDate = startDate(historyMonths);
+        int spanDays = (int) (END_DATE.toEpochDay() - startDate.toEpochDay()) + 1;
+        List<String> lines = new ArrayList<>(accounts * transactionsPerAccount);
+        int[] days = new int[transactionsPerAccount];
+        for (int account = 0; account < accounts; account++) {
+            String accountId = accountId(account);
+            for (int i = 0; i < days.length; i++) days[i] = random.nextInt(spanDays);
+            Arrays.sort(days);
+
+            long balance = 0;
+            for (int day : days) {
+                String date = startDate.plusDays(day).format(DATE_FORMATTER);
+                long withdrawal = 500 + random.nextInt(50_000); // 5.00 to 505.00
+                String type;
+                long amount;
+                if (balance >= withdrawal && random.nextInt(10) < 6) {
+                    type = "W";
+                    amount = withdrawal;
+                    balance -= amount;
+                } else {
+                    type = "D";
+                    amount = 100_000 + random.nextInt(400_000); // 1000.00 to 5000.00
+                    balance += amount;
+                }
+                lines.add(date + " " + accountId + " " + type + " " + amount / 100 + "."
+                        + String.format("%02d", amount % 100));
+            }
+        }
+        // Stable sort, so the transactions of an account stay in the order they were generated
+        lines.sort(Comparator.comparing(line -> line.substring(0, 8)));
+        return lines;
+    }
+
+    /**
+     * Generates interest rules on distinct dates spread over the history span, with rates from 1% to 5%.
+     * The first rule is on the first day of the span, so every transaction has an effective rate.
+     *
+     * @param ruleCount     The number of rules.
+     * @param historyMonths The number of months the rules are spread over.
+     * @return The rules in the order they should be added.
+     */
+    public Set<InterestRule> interestRules(int ruleCount, int historyMonths) {
+        LocalDate startDate = startDate(historyMonths);
+        int spanDays = (int) (END_DATE.toEpochDay() - startDate.toEpochDay()) + 1;
+        Set<InterestRule> rules = new LinkedHashSet<>();
+        for (int i = 0; i < ruleCount; i++) {
+            LocalDate date = startDate.plusDays((long) i * spanDays / ruleCount);
+            double rate = (100 + random.nextInt(400)) / 100.0;
+            rules.add(new InterestRule(date, String.format("RULE%04d", i), rate));
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,343 @@
+package com.gic.banking;
+
+import com.gic.banking.handler.InterestRuleHandler;
+import com.gic.banking.handler.StatementHandler;
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.journal.Journal;
+import com.gic.banking.metrics.LatencyHistogram;
+import com.gic.banking.metrics.Metrics;
+import com.gic.banking.ops.StatementCache;
+import com.gic.banking.ops.StatementWriter;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+/**
+ * Local HTTP front-end of the banking system, so that other processes can post transactions, upsert interest
+ * rules and fetch statements concurrently. Requests are validated by the same handlers as the interactive menu
+ * and their bodies use the same line formats:
+ * <ul>
+ *     <li>{@code POST /transactions}: one {@code <Date> <Account> <Type> <Amount>} transaction per line.</li>
+ *     <li>{@code PUT /rules}: one {@code <Date> <RuleId> <Rate in %>} rule per line; {@code GET /rules} lists
+ *     the rules.</li>
+ *     <li>{@code GET /statements/<Account>/<Year><Month>}: the monthly statement of an account.</li>
+ *     <li>{@code GET /metrics}: the counters and latencies in the Prometheus text format.</li>
+ * </ul>
+ * Posting and rule responses hold one line per input line, "OK" or the error message, with status 200 when every
+ * line was accepted and 400 otherwise. The server only listens on the loopback interface.
+ */
+public class BankingServer implements Closeable {
+    private static final String PORT_OPTION = "--port";
+    private static final String THREADS_OPTION = "--threads";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 4096; // Pending connections, so bursts of clients are queued, not refused
+    private static final int MAX_IDLE_CONNECTIONS = 10_000;
+    private static final int STATEMENT_CACHE_CAPACITY = 10_000;
+    private static final int MAX_BODY_BYTES = 1 << 20; // Larger request bodies are refused with 413
+    private static final int MAX_DRAIN_BYTES = 4 * MAX_BODY_BYTES; // Unread body skipped to keep a connection
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+    private static final String METRICS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final LatencyHistogram TRANSACTIONS_LATENCY = Metrics.global().latency("server_post_transactions");
+    private static final LatencyHistogram RULES_LATENCY = Metrics.global().latency("server_rules");
+    private static final LatencyHistogram STATEMENTS_LATENCY = Metrics.global().latency("server_get_statement");
+    private static final LongAdder OK_RESPONSES = responseCounter(200);
+    private static final LongAdder BAD_REQUEST_RESPONSES = responseCounter(400);
+    private static final LongAdder NOT_FOUND_RESPONSES = responseCounter(404);
+    private static final LongAdder METHOD_NOT_ALLOWED_RESPONSES = responseCounter(405);
+    private static final LongAdder PAYLOAD_TOO_LARGE_RESPONSES = responseCounter(413);
+
+    static {
+        // The response headers and body are written separately: without TCP_NODELAY, every response on a
+        // kept-alive connection waits for the client's delayed acknowledgement of the headers
+        setDefaultProperty("sun.net.httpserver.nodelay", "true");
+        // Keep the connections of thousands of clients alive instead of the default 200
+        setDefaultProperty("sun.net.httpserver.maxIdleConnections", Integer.toString(MAX_IDLE_CONNECTIONS));
+        // Skip the unread rest of a refused body, rather than the default 64 KiB, so a client still sending it
+        // reads the 413 instead of a reset connection; a larger rest closes the connection
+        setDefaultProperty("sun.net.httpserver.drainAmount", Integer.toString(MAX_DRAIN_BYTES));
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final InterestRulesRepository interestRulesRepository;
+    private final Journal journal; // Forced to disk before postings are acknowledged, null if not journaled
+    private final TransactionHandler transactionHandler;
+    private final InterestRuleHandler interestRuleHandler;
+    private final StatementHandler statementHandler;
+
+    /**
+     * Creates a server on the loopback interface. Requests are not served until the server is started.
+     *
+     * @param port                    The port to listen on, or 0 for any free port.
+     * @param threads                 The number of request threads when virtual threads are not available.
+     * @param accountRepository       The accounts.
+     * @param interestRulesRepository The interest rules.
+     * @throws IOException if the port cannot be listened on.
+     */
+    public BankingServer(int port, int threads, AccountRepository accountRepository,
+                         InterestRulesRepository interestRulesRepository) throws IOException {
+        this(port, threads, accountRepository, interestRulesRepository, null);
+    }
+
+    /**
+     * Creates a server on the loopback interface whose postings and rule changes are only acknowledged once
+     * the journal has forced them to disk. Requests are not served until the server is started.
+     *
+     * @param port                    The port to listen on, or 0 for any free port.
+     * @param threads                 The number of request threads when virtual threads are not available.
+     * @param accountRepository       The accounts.
+     * @param interestRulesRepository The interest rules.
+     * @param journal                 The journal the repositories append to, or null if they are not journaled.
+     * @throws IOException if the port cannot be listened on.
+     */
+    public BankingServer(int port, int threads, AccountRepository accountRepository,
+                         InterestRulesRepository interestRulesRepository, Journal journal) throws IOException {
+        this.interestRulesRepository = interestRulesRepository;
+        this.journal = journal;
+        this.transactionHandler = new TransactionHandler(accountRepository);
+        this.interestRuleHandler = new InterestRuleHandler(interestRulesRepository);
+        this.statementHandler = new StatementHandler(accountRepository, interestRulesRepository,
+                new StatementCache(accountRepository, interestRulesRepository, STATEMENT_CACHE_CAPACITY));
+        this.executor = newExecutor(threads);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/transactions", this::transactions);
+        server.createContext("/rules", this::rules);
+        server.createContext("/statements/", this::statements);
+        server.createContext("/metrics", this::metrics);
+    }
+
+    /**
+     * Entry point for running the banking system as a local service until the process is stopped.
+     *
+     * @param args Command-line arguments: an optional --port option, 8080 by default, an optional --threads
+     *             option sizing the request thread pool, followed by the journal file used to persist and
+     *             recover the state, if any.
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        int index = 0;
+        for (; index < args.length - 1; index++) {
+            if (PORT_OPTION.equals(args[index]) && args[index + 1].matches("[0-9]{1,5}")) {
+                port = Integer.parseInt(args[++index]);
+            } else if (THREADS_OPTION.equals(args[index]) && args[index + 1].matches("[1-9][0-9]{0,3}")) {
+                threads = Integer.parseInt(args[++index]);
+            } else {
+                break;
+            }
+        }
+        if (index < args.length - 1 || (index == args.length - 1 && args[index].startsWith("--"))) {
+            System.out.println(SERVER_USAGE_MESSAGE);
+            return;
+        }
+        AccountRepository accountRepository = new AccountRepository();
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        try {
+            Journal journal = index < args.length
+                    ? Journal.open(Path.of(args[index]), accountRepository, interestRulesRepository)
+                    : null;
+            if (journal != null) journal.getRecovery().print();
+            BankingServer server = new BankingServer(port, threads, accountRepository, interestRulesRepository,
+                    journal);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                // Snapshot the state on exit so the next start only replays what is journaled after it
+                if (journal == null) return;
+                try (journal) {
+                    journal.checkpoint().print();
+                } catch (IOException e) {
+                    System.out.println("An unexpected error occurred: " + e.getMessage());
+                }
+            }));
+            server.start();
+            System.out.printf(SERVER_STARTED_MESSAGE, server.getPort());
+        } catch (Exception exception) {
+            System.out.println("An unexpected error occurred: " + exception.getMessage());
+            exception.printStackTrace();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, closes the connections and waits briefly for the requests in progress.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void transactions(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, TEXT_CONTENT_TYPE, "");
+            return;
+        }
+        String[] lines = readLines(exchange);
+        if (lines == null) {
+            respond(exchange, 413, TEXT_CONTENT_TYPE, REQUEST_TOO_LARGE_ERROR + "\n");
+            return;
+        }
+        StringBuilder results = new StringBuilder();
+        boolean accepted = true;
+        for (String line : lines) {
+            String error = transactionHandler.postTransaction(line.split(" "));
+            accepted &= error == null;
+            results.append(error == null ? "OK" : error).append('\n');
+        }
+        awaitDurable();
+        respond(exchange, accepted ? 200 : 400, TEXT_CONTENT_TYPE, results);
+        TRANSACTIONS_LATENCY.recordSince(startTime);
+    }
+
+    private void rules(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        if ("GET".equals(exchange.getRequestMethod())) {
+            StringBuilder rules = new StringBuilder();
+            StatementWriter writer = new StatementWriter(rules);
+            writer.writeInterestRules(interestRulesRepository.getInterestRules()).flush();
+            respond(exchange, 200, TEXT_CONTENT_TYPE, rules);
+        } else if ("PUT".equals(exchange.getRequestMethod())) {
+            String[] lines = readLines(exchange);
+            if (lines == null) {
+                respond(exchange, 413, TEXT_CONTENT_TYPE, REQUEST_TOO_LARGE_ERROR + "\n");
+                return;
+            }
+            StringBuilder results = new StringBuilder();
+            boolean accepted = true;
+            for (String line : lines) {
+                String error = interestRuleHandler.defineInterestRule(line.split(" "));
+                accepted &= error == null;
+                results.append(error == null ? "OK" : error).append('\n');
+            }
+            awaitDurable();
+            respond(exchange, accepted ? 200 : 400, TEXT_CONTENT_TYPE, results);
+        } else {
+            respond(exchange, 405, TEXT_CONTENT_TYPE, "");
+        }
+        RULES_LATENCY.recordSince(startTime);
+    }
+
+    private void statements(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, TEXT_CONTENT_TYPE, "");
+            return;
+        }
+        // /statements/<Account>/<Year><Month>
+        String[] inputParts = exchange.getRequestURI().getPath().substring("/statements/".length()).split("/");
+        StringBuilder statement = new StringBuilder();
+        String error = statementHandler.renderStatement(inputParts, statement);
+        if (error == null) {
+            respond(exchange, 200, TEXT_CONTENT_TYPE, statement);
+        } else {
+            respond(exchange, ACCOUNT_NOT_FOUND_ERROR.equals(error) ? 404 : 400, TEXT_CONTENT_TYPE, error + "\n");
+        }
+        STATEMENTS_LATENCY.recordSince(startTime);
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, TEXT_CONTENT_TYPE, "");
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        Metrics.global().writeText(text);
+        respond(exchange, 200, METRICS_CONTENT_TYPE, text);
+    }
+
+    /**
+     * Waits until the changes of the request are forced to disk, once per request so the postings of
+     * concurrent requests share each force. A journal failure fails the request without a response.
+     */
+    private void awaitDurable() throws IOException {
+        if (journal != null) journal.awaitDurable();
+    }
+
+    /**
+     * Reads the non-blank lines of a request body, trimmed. A body declared larger than MAX_BODY_BYTES is not
+     * read at all, and a chunked body is read no further than one byte past the limit.
+     *
+     * @return The lines, or null if the body is larger than MAX_BODY_BYTES.
+     */
+    private static String[] readLines(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        // The server has already parsed the header to frame the body, so it is a valid number
+        if (contentLength != null && Long.parseLong(contentLength) > MAX_BODY_BYTES) return null;
+        byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) return null;
+        String body = new String(bytes, StandardCharsets.UTF_8);
+        return body.lines().map(String::trim).filter(line -> !line.isEmpty()).toArray(String[]::new);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, CharSequence body)
+            throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        switch (status) {
+            case 200 -> OK_RESPONSES.increment();
+            case 400 -> BAD_REQUEST_RESPONSES.increment();
+            case 404 -> NOT_FOUND_RESPONSES.increment();
+            case 405 -> METHOD_NOT_ALLOWED_RESPONSES.increment();
+            case 413 -> PAYLOAD_TOO_LARGE_RESPONSES.increment();
+            default -> responseCounter(status).increment();
+        }
+    }
+
+    private static LongAdder responseCounter(int status) {
+        return Metrics.global().counter("http_responses_total", "status", Integer.toString(status));
+    }
+
+    /**
+     * Sets a property of the JDK HTTP server unless it is given on the command line. The server reads its
+     * properties once, so this must run before the first server is created.
+     */
+    private static void setDefaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) System.setProperty(name, value);
+    }
+
+    /**
+     * Creates a virtual thread per request when running on Java 21 or later, as the build targets Java 17,
+     * and a fixed pool of platform threads otherwise.
+     */
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+}
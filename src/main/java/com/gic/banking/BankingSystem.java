@@ -1,64 +1,142 @@
 package com.gic.banking;
 
 import com.gic.banking.handler.InterestRuleHandler;
+import com.gic.banking.handler.MonthEndHandler;
+import com.gic.banking.handler.StatementExportHandler;
 import com.gic.banking.handler.StatementHandler;
+import com.gic.banking.handler.SystemHandler;
 import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.journal.Journal;
+import com.gic.banking.metrics.Metrics;
+import com.gic.banking.ops.MonthEndInterestRun;
+import com.gic.banking.ops.StatementCache;
+import com.gic.banking.ops.StatementExport;
 import com.gic.banking.repository.AccountRepository;
 import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.CommandInput;
 
-import java.util.Scanner;
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.gic.banking.util.MessageConstants.*;
 
 public class BankingSystem {
+    private static final int STATEMENT_CACHE_CAPACITY = 10_000;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final String INPUT_OPTION = "--input";
+    private static final String PORT_OPTION = "--port";
     private final TransactionHandler transactionHandler;
     private final InterestRuleHandler interestRuleHandler;
     private final StatementHandler statementPrinter;
-    private final Scanner scanner = new Scanner(System.in); //Accepts user inputs into the application
+    private final MonthEndHandler monthEndHandler;
+    private final StatementExportHandler statementExportHandler;
+    private final CommandInput commandInput; // Accepts user inputs into the application, shared with the handlers
 
     public BankingSystem(TransactionHandler transactionHandler,
                          InterestRuleHandler interestRuleHandler,
-                         StatementHandler statementPrinter) {
+                         StatementHandler statementPrinter,
+                         MonthEndHandler monthEndHandler,
+                         StatementExportHandler statementExportHandler,
+                         CommandInput commandInput) {
         this.transactionHandler = transactionHandler;
         this.interestRuleHandler = interestRuleHandler;
         this.statementPrinter = statementPrinter;
+        this.monthEndHandler = monthEndHandler;
+        this.statementExportHandler = statementExportHandler;
+        this.commandInput = commandInput;
     }
 
     /**
      * Main entry point for the BankingSystem application.
      * Initializes the BankingSystem and starts the main loop.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: an optional --input option naming a file or pipe to read the commands
+     *             from, or an optional --port option to read them from the first connection on that port,
+     *             followed by the journal file used to persist and recover the state, if any. A snapshot of
+     *             the state is kept next to the journal to speed up the next start.
      */
     public static void main(String[] args) {
-        try {
-            AccountRepository accountRepository = new AccountRepository();
-            InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
-            TransactionHandler transactionHandler = new TransactionHandler(accountRepository);
-            InterestRuleHandler interestRuleHandler = new InterestRuleHandler(interestRulesRepository);
-            StatementHandler statementPrinter = new StatementHandler(accountRepository, interestRulesRepository);
+        Path inputFile = null;
+        int port = 0;
+        int index = 0;
+        for (; index < args.length - 1; index++) {
+            if (INPUT_OPTION.equals(args[index])) {
+                inputFile = Path.of(args[++index]);
+            } else if (PORT_OPTION.equals(args[index]) && args[index + 1].matches("[1-9][0-9]{0,4}")) {
+                port = Integer.parseInt(args[++index]);
+            } else {
+                break;
+            }
+        }
+        if (index < args.length - 1 || (index == args.length - 1 && args[index].startsWith("--"))) {
+            System.out.println(BANKING_USAGE_MESSAGE);
+            return;
+        }
+        AccountRepository accountRepository = new AccountRepository();
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        try (CommandInput commandInput = inputFile != null ? CommandInput.open(inputFile)
+                : port != 0 ? CommandInput.accept(port)
+                : new CommandInput(System.in, System.console() != null);
+             Journal journal = index < args.length
+                     ? Journal.open(Path.of(args[index]), accountRepository, interestRulesRepository)
+                     : null) {
+            if (!commandInput.isInteractive()) {
+                // Scripted commands: flush the output only when waiting for more input
+                System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                        OUTPUT_BUFFER_SIZE), false));
+            }
+            if (journal != null) journal.getRecovery().print();
+            TransactionHandler transactionHandler = new TransactionHandler(accountRepository, commandInput);
+            InterestRuleHandler interestRuleHandler = new InterestRuleHandler(interestRulesRepository, commandInput);
+            StatementCache statementCache = new StatementCache(accountRepository, interestRulesRepository,
+                    STATEMENT_CACHE_CAPACITY);
+            StatementHandler statementPrinter = new StatementHandler(accountRepository, interestRulesRepository,
+                    statementCache, commandInput);
+            MonthEndHandler monthEndHandler = new MonthEndHandler(
+                    new MonthEndInterestRun(accountRepository, interestRulesRepository, ForkJoinPool.commonPool(),
+                            statementCache), commandInput);
+            StatementExportHandler statementExportHandler = new StatementExportHandler(
+                    new StatementExport(accountRepository, interestRulesRepository, statementCache), commandInput);
 
-            BankingSystem bankingSystem = new BankingSystem(transactionHandler, interestRuleHandler, statementPrinter);
+            BankingSystem bankingSystem = new BankingSystem(transactionHandler, interestRuleHandler, statementPrinter,
+                    monthEndHandler, statementExportHandler, commandInput);
             bankingSystem.run();
+            // Snapshot the state on exit so the next start only replays what is journaled after it
+            if (journal != null) journal.checkpoint().print();
         } catch (Exception exception) {
             System.out.println("An unexpected error occurred: " + exception.getMessage());
             exception.printStackTrace();
+        } finally {
+            System.out.flush();
         }
     }
 
     /**
      * Main loop for the banking system. Displays a welcome prompt and processes user input.
-     * Continues running until the user chooses to quit.
+     * Continues running until the user chooses to quit or the input ends.
+     * <p>
+     * A choice followed by the input of its option, e.g. "T 20230626 AC001 W 100.00", is processed at once
+     * without entering the option's own prompt, so scripts can pipeline commands one per line.
      */
     private void run() {
         while (true) {
-            System.out.println(WELCOME_PROMPT);
-            String choice = scanner.nextLine().trim().toUpperCase();
+            commandInput.prompt(WELCOME_PROMPT);
+            String input = commandInput.readLine();
+            if (input == null) return; // The input ended, e.g. the end of a script.
+            String[] command = input.split(" ", 2);
+            String choice = command[0].toUpperCase();
 
             switch (choice) {
-                case "T" -> transactionHandler.handle(); // Handle transaction input.
-                case "I" -> interestRuleHandler.handle(); // Handle interest rule definition.
-                case "P" -> statementPrinter.handle(); // Handle printing account statements.
+                case "T" -> dispatch(transactionHandler, command); // Handle transaction input.
+                case "I" -> dispatch(interestRuleHandler, command); // Handle interest rule definition.
+                case "P" -> dispatch(statementPrinter, command); // Handle printing account statements.
+                case "M" -> dispatch(monthEndHandler, command); // Handle the month-end interest run.
+                case "E" -> dispatch(statementExportHandler, command); // Handle the statement export.
+                case "S" -> Metrics.global().print(); // Show the counters and latencies.
                 case "Q" -> {
                     System.out.println(THANK_YOU_MESSAGE); // Exit the application.
                     return;
@@ -68,4 +146,18 @@ public class BankingSystem {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Processes the inline input of a command, or lets the handler prompt for it.
+     *
+     * @param handler The handler of the chosen option.
+     * @param command The choice, optionally followed by its input.
+     */
+    private static void dispatch(SystemHandler handler, String[] command) {
+        if (command.length == 2) {
+            handler.process(command[1].trim());
+        } else {
+            handler.handle();
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.gic.banking;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.journal.Journal;
+import com.gic.banking.metrics.Metrics;
+import com.gic.banking.model.ColumnarTransactionStore;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+public class BatchIngestion {
+    private static final String COMPACT_OPTION = "--compact";
+    private static final String JOURNAL_OPTION = "--journal";
+    private static final String THREADS_OPTION = "--threads";
+    private static final String MAPPED_OPTION = "--mapped";
+    private static final String METRICS_OPTION = "--metrics";
+    private static final int PIPELINE_QUEUE_CAPACITY = 64; // Batches of lines per pipeline queue
+
+    private final TransactionHandler transactionHandler;
+    private final int threads;
+    private final boolean mapped;
+
+    public BatchIngestion(TransactionHandler transactionHandler) {
+        this(transactionHandler, 1);
+    }
+
+    public BatchIngestion(TransactionHandler transactionHandler, int threads) {
+        this(transactionHandler, threads, false);
+    }
+
+    /**
+     * Creates a batch ingestion that parses and posts on several threads when threads is greater than one.
+     *
+     * @param transactionHandler The handler validating and posting the transactions.
+     * @param threads            The number of parse threads and of posting threads.
+     * @param mapped             Whether to read ingestion files through a memory mapping; only on one thread.
+     * @throws IllegalArgumentException if mapped is requested with more than one thread.
+     */
+    public BatchIngestion(TransactionHandler transactionHandler, int threads, boolean mapped) {
+        if (mapped && threads > 1) {
+            throw new IllegalArgumentException("A mapped ingestion runs on one thread, not " + threads);
+        }
+        this.transactionHandler = transactionHandler;
+        this.threads = threads;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Entry point for loading a transaction file without the interactive menu.
+     * Each line uses the same <Date> <Account> <Type> <Amount> format as the [T] option.
+     *
+     * @param args Command-line arguments: an optional --compact flag to keep transactions in the columnar
+     *             store, an optional --mapped flag to tokenize the file straight from a memory mapping,
+     *             an optional --metrics flag to print the counters and latencies after the summary,
+     *             an optional --threads option, not combined with --mapped, to ingest through a pipeline of
+     *             that many parse and posting threads, an optional --journal option naming the journal to recover from and
+     *             append to, followed by the transactions file.
+     */
+    public static void main(String[] args) {
+        boolean compact = false;
+        boolean mapped = false;
+        boolean metrics = false;
+        int threads = 1;
+        Path journalFile = null;
+        int index = 0;
+        for (; index < args.length - 1; index++) {
+            if (COMPACT_OPTION.equals(args[index])) {
+                compact = true;
+            } else if (MAPPED_OPTION.equals(args[index])) {
+                mapped = true;
+            } else if (METRICS_OPTION.equals(args[index])) {
+                metrics = true;
+            } else if (THREADS_OPTION.equals(args[index]) && index < args.length - 2
+                    && args[index + 1].matches("[1-9][0-9]{0,2}")) {
+                threads = Integer.parseInt(args[++index]);
+            } else if (JOURNAL_OPTION.equals(args[index]) && index < args.length - 2) {
+                journalFile = Path.of(args[++index]);
+            } else {
+                break;
+            }
+        }
+        if (index != args.length - 1 || mapped && threads > 1) {
+            System.out.println(BATCH_USAGE_MESSAGE);
+            return;
+        }
+        AccountRepository accountRepository = compact
+                ? new AccountRepository(ColumnarTransactionStore::new)
+                : new AccountRepository();
+        try (Journal journal = journalFile == null
+                ? null
+                : Journal.open(journalFile, accountRepository, new InterestRulesRepository())) {
+            if (journal != null) journal.getRecovery().print();
+            BatchIngestion batchIngestion = new BatchIngestion(new TransactionHandler(accountRepository), threads,
+                    mapped);
+            batchIngestion.ingest(Path.of(args[index])).print();
+            if (metrics) Metrics.global().print();
+            if (journal != null) journal.checkpoint().print();
+        } catch (Exception exception) {
+            System.out.println("An unexpected error occurred: " + exception.getMessage());
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Streams a transaction file through the transaction validations and posting rules.
+     *
+     * @param file The transactions file to load.
+     * @return The summary of the accepted and rejected transactions.
+     * @throws IOException if the file cannot be read.
+     */
+    public Summary ingest(Path file) throws IOException {
+        if (mapped) return new MappedTransactionReader(file).ingest(transactionHandler);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return ingest(reader);
+        }
+    }
+
+    /**
+     * Reads transactions line by line and posts them without echoing the account statement.
+     * Blank lines are ignored.
+     *
+     * @param reader The source of the transaction lines.
+     * @return The summary of the accepted and rejected transactions.
+     * @throws IOException if the source cannot be read.
+     */
+    public Summary ingest(BufferedReader reader) throws IOException {
+        if (threads > 1) {
+            return new IngestionPipeline(transactionHandler, threads, threads, PIPELINE_QUEUE_CAPACITY)
+                    .ingest(reader);
+        }
+        long startTime = System.nanoTime();
+        long accepted = 0;
+        long rejected = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String input = line.trim();
+            if (input.isEmpty()) continue;
+
+            if (transactionHandler.postTransaction(input.split(" ")) == null) {
+                accepted++;
+            } else {
+                rejected++;
+            }
+        }
+        return new Summary(accepted, rejected, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Outcome of a batch ingestion run.
+     */
+    public static class Summary {
+        private final long accepted;
+        private final long rejected;
+        private final long elapsedNanos;
+
+        public Summary(long accepted, long rejected, long elapsedNanos) {
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getAccepted() {
+            return accepted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the number of processed lines per second.
+         *
+         * @return The throughput of the run.
+         */
+        public double getThroughput() {
+            if (elapsedNanos == 0) return 0;
+            return (accepted + rejected) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        /**
+         * Prints the summary of the run.
+         */
+        public void print() {
+            System.out.printf(BATCH_SUMMARY_MESSAGE,
+                    accepted, rejected, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getThroughput());
+        }
+    }
+}
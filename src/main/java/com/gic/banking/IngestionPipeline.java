@@ -0,0 +1,388 @@
+package com.gic.banking;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.handler.TransactionHandler.ParsedTransaction;
+import com.gic.banking.model.PostingBatch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+/**
+ * Ingests a transaction file in three overlapping stages connected by bounded queues:
+ * <ol>
+ *     <li>the calling thread reads lines into batches,</li>
+ *     <li>parse threads split and validate the batches in parallel,</li>
+ *     <li>posting threads, each owning the accounts whose id hashes to it, post the valid transactions.</li>
+ * </ol>
+ * Each posting thread applies the batches in file order, so the transactions of an account are posted in the
+ * same order as a sequential ingestion and produce the same balances. The number of batches between reading
+ * and posting is bounded, so a slow stage makes the reader wait instead of buffering the file.
+ */
+public class IngestionPipeline {
+    private static final int BATCH_SIZE = 512; // Lines per batch
+    private static final long WAIT_MILLIS = 100; // Interval at which blocked stages check for a failure
+
+    private final TransactionHandler transactionHandler;
+    private final int parseThreads;
+    private final int partitions;
+    private final int queueCapacity;
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param transactionHandler The handler posting the transactions.
+     * @param parseThreads       The number of threads parsing and validating lines.
+     * @param partitions         The number of threads posting transactions.
+     * @param queueCapacity      The number of batches each queue can hold.
+     */
+    public IngestionPipeline(TransactionHandler transactionHandler, int parseThreads, int partitions,
+                             int queueCapacity) {
+        this.transactionHandler = transactionHandler;
+        this.parseThreads = parseThreads;
+        this.partitions = partitions;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Reads transactions line by line and posts them without echoing the account statement.
+     * Blank lines are ignored.
+     *
+     * @param reader The source of the transaction lines.
+     * @return The summary of the accepted and rejected transactions and of each stage.
+     * @throws IOException if the source cannot be read or the ingestion is interrupted.
+     */
+    public Summary ingest(BufferedReader reader) throws IOException {
+        return new Run().execute(reader);
+    }
+
+    /**
+     * State of one ingestion.
+     */
+    private class Run {
+        private final BlockingQueue<Batch> parseQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final List<BlockingQueue<Chunk>> postingQueues = new ArrayList<>(partitions);
+        // Batches read but not yet posted by every partition
+        private final Semaphore inFlight = new Semaphore(queueCapacity + parseThreads);
+        private final Stage reading = new Stage("read");
+        private final Stage parsing = new Stage("parse");
+        private final Stage posting = new Stage("post");
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final ExecutorService executor = Executors.newFixedThreadPool(parseThreads + partitions);
+        private volatile Throwable failure;
+
+        private Run() {
+            for (int partition = 0; partition < partitions; partition++) {
+                postingQueues.add(new ArrayBlockingQueue<>(queueCapacity));
+            }
+        }
+
+        private Summary execute(BufferedReader reader) throws IOException {
+            long startTime = System.nanoTime();
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int thread = 0; thread < parseThreads; thread++) workers.add(start(this::parse));
+                for (int partition = 0; partition < partitions; partition++) {
+                    BlockingQueue<Chunk> queue = postingQueues.get(partition);
+                    workers.add(start(() -> post(queue)));
+                }
+                long batches = read(reader);
+                for (int thread = 0; thread < parseThreads; thread++) put(parseQueue, Batch.END);
+                for (BlockingQueue<Chunk> queue : postingQueues) put(queue, new Chunk(batches, null, null));
+                for (Future<?> worker : workers) worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Ingestion pipeline was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ingestion pipeline failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            return new Summary(accepted.sum(), rejected.sum(), System.nanoTime() - startTime,
+                    List.of(reading, parsing, posting));
+        }
+
+        /**
+         * Reads the lines into batches and hands them to the parse threads.
+         *
+         * @return The number of batches read.
+         */
+        private long read(BufferedReader reader) throws IOException, InterruptedException {
+            long sequence = 0;
+            List<String> lines = new ArrayList<>(BATCH_SIZE);
+            long busyStart = System.nanoTime();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() < BATCH_SIZE) continue;
+                reading.record(lines.size(), System.nanoTime() - busyStart);
+                submit(new Batch(sequence++, lines));
+                lines = new ArrayList<>(BATCH_SIZE);
+                busyStart = System.nanoTime();
+            }
+            if (!lines.isEmpty()) {
+                reading.record(lines.size(), System.nanoTime() - busyStart);
+                submit(new Batch(sequence++, lines));
+            }
+            return sequence;
+        }
+
+        private void submit(Batch batch) throws InterruptedException {
+            while (!inFlight.tryAcquire(WAIT_MILLIS, TimeUnit.MILLISECONDS)) checkFailure();
+            put(parseQueue, batch);
+            parsing.sampleQueue(parseQueue.size());
+        }
+
+        /**
+         * Parses batches and splits the valid transactions by posting partition, until the end of the input.
+         */
+        private void parse() throws InterruptedException {
+            while (true) {
+                Batch batch = parseQueue.take();
+                if (batch == Batch.END) return;
+                long startTime = System.nanoTime();
+                List<List<ParsedTransaction>> transactionsByPartition = new ArrayList<>(partitions);
+                for (int partition = 0; partition < partitions; partition++) {
+                    transactionsByPartition.add(new ArrayList<>());
+                }
+                for (String line : batch.lines) {
+                    String input = line.trim();
+                    if (input.isEmpty()) continue;
+
+                    ParsedTransaction transaction = TransactionHandler.parseTransaction(input.split(" "));
+                    if (transaction.getError() != null) {
+                        rejected.increment();
+                        continue;
+                    }
+                    transactionsByPartition.get(partitionOf(transaction.getAccountId())).add(transaction);
+                }
+                parsing.record(batch.lines.size(), System.nanoTime() - startTime);
+
+                // Every partition gets a chunk, possibly empty, so each can tell when it has seen a batch
+                AtomicInteger remaining = new AtomicInteger(partitions);
+                for (int partition = 0; partition < partitions; partition++) {
+                    BlockingQueue<Chunk> queue = postingQueues.get(partition);
+                    put(queue, new Chunk(batch.sequence, transactionsByPartition.get(partition), remaining));
+                    posting.sampleQueue(queue.size());
+                }
+            }
+        }
+
+        /**
+         * Posts the chunks of one partition in batch order, until every batch has been posted.
+         */
+        private void post(BlockingQueue<Chunk> queue) throws InterruptedException {
+            Map<Long, Chunk> pending = new HashMap<>(); // Chunks that arrived ahead of an earlier batch
+            PostingBatch batch = new PostingBatch(); // Reused for every run of postings
+            long next = 0;
+            long end = Long.MAX_VALUE;
+            while (next < end) {
+                Chunk chunk = queue.take();
+                if (chunk.transactions == null) {
+                    end = chunk.sequence; // The number of batches read
+                    continue;
+                }
+                pending.put(chunk.sequence, chunk);
+                for (Chunk ready = pending.remove(next); ready != null; ready = pending.remove(++next)) {
+                    long startTime = System.nanoTime();
+                    postRuns(ready.transactions, batch);
+                    posting.record(ready.transactions.size(), System.nanoTime() - startTime);
+                    if (ready.remaining.decrementAndGet() == 0) inFlight.release();
+                }
+            }
+        }
+
+        /**
+         * Posts consecutive transactions of the same account as one batch, in order.
+         */
+        private void postRuns(List<ParsedTransaction> transactions, PostingBatch batch) {
+            int runStart = 0;
+            while (runStart < transactions.size()) {
+                String accountId = transactions.get(runStart).getAccountId();
+                batch.clear();
+                int runEnd = runStart;
+                for (; runEnd < transactions.size(); runEnd++) {
+                    ParsedTransaction transaction = transactions.get(runEnd);
+                    if (!transaction.getAccountId().equals(accountId)) break;
+                    batch.add(transaction.getDate(), transaction.getType(), transaction.getAmount());
+                }
+                // Resolved once per run, the run is then posted by handle
+                int posted = transactionHandler.postTransactions(transactionHandler.accountHandle(accountId), batch);
+                accepted.add(posted);
+                rejected.add(batch.size() - posted);
+                runStart = runEnd;
+            }
+        }
+
+        private int partitionOf(String accountId) {
+            return Math.floorMod(accountId.hashCode(), partitions);
+        }
+
+        private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+            while (!queue.offer(item, WAIT_MILLIS, TimeUnit.MILLISECONDS)) checkFailure();
+        }
+
+        private void checkFailure() {
+            if (failure != null) throw new IllegalStateException("Ingestion pipeline failed", failure);
+        }
+
+        private Future<?> start(Task task) {
+            return executor.submit(() -> {
+                try {
+                    task.run();
+                } catch (InterruptedException e) {
+                    return null; // Stopped because another stage failed
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                    executor.shutdownNow(); // Stop the other stages rather than leave them blocked
+                    throw e;
+                }
+                return null;
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Lines read from the input, numbered in file order.
+     */
+    private static class Batch {
+        private static final Batch END = new Batch(-1, List.of());
+
+        private final long sequence;
+        private final List<String> lines;
+
+        private Batch(long sequence, List<String> lines) {
+            this.sequence = sequence;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Valid transactions of a batch for one posting partition. A chunk without transactions marks the end of
+     * the input, its sequence being the number of batches.
+     */
+    private static class Chunk {
+        private final long sequence;
+        private final List<ParsedTransaction> transactions;
+        private final AtomicInteger remaining; // Partitions that have not posted the batch yet
+
+        private Chunk(long sequence, List<ParsedTransaction> transactions, AtomicInteger remaining) {
+            this.sequence = sequence;
+            this.transactions = transactions;
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * Throughput and input queue depth of a pipeline stage.
+     */
+    public static class Stage {
+        private final String name;
+        private final LongAdder items = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder queueDepthSum = new LongAdder();
+        private final LongAdder queueSamples = new LongAdder();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        public Stage(String name) {
+            this.name = name;
+        }
+
+        void record(long count, long nanos) {
+            items.add(count);
+            busyNanos.add(nanos);
+        }
+
+        void sampleQueue(int depth) {
+            queueDepthSum.add(depth);
+            queueSamples.increment();
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getItems() {
+            return items.sum();
+        }
+
+        public long getBusyNanos() {
+            return busyNanos.sum();
+        }
+
+        /**
+         * Returns the number of items processed per second of work, summed over the threads of the stage.
+         *
+         * @return The throughput of the stage.
+         */
+        public double getThroughput() {
+            long nanos = getBusyNanos();
+            if (nanos == 0) return 0;
+            return getItems() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+
+        public double getAverageQueueDepth() {
+            long samples = queueSamples.sum();
+            return samples == 0 ? 0 : queueDepthSum.sum() / (double) samples;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        /**
+         * Prints the metrics of the stage.
+         */
+        public void print() {
+            System.out.printf(PIPELINE_STAGE_MESSAGE, name, getItems(), getThroughput(),
+                    getAverageQueueDepth(), getMaxQueueDepth());
+        }
+    }
+
+    /**
+     * Outcome of a pipelined ingestion run.
+     */
+    public static class Summary extends BatchIngestion.Summary {
+        private final List<Stage> stages;
+
+        public Summary(long accepted, long rejected, long elapsedNanos, List<Stage> stages) {
+            super(accepted, rejected, elapsedNanos);
+            this.stages = stages;
+        }
+
+        public List<Stage> getStages() {
+            return stages;
+        }
+
+        /**
+         * Prints the summary of the run followed by the metrics of each stage.
+         */
+        @Override
+        public void print() {
+            super.print();
+            stages.forEach(Stage::print);
+        }
+    }
+}
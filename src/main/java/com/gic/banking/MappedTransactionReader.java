@@ -0,0 +1,265 @@
+package com.gic.banking;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.handler.TransactionHandler.ParsedTransaction;
+import com.gic.banking.model.PostingBatch;
+import com.gic.banking.util.AccountIdInterner;
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.InputValidations;
+import com.gic.banking.util.Money;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reads a transaction file by memory-mapping it and tokenizing each {@code <Date> <Account> <Type> <Amount>}
+ * line straight from the mapped bytes.
+ * <p>
+ * A valid line costs no String: the date and amount are parsed through a reusable view of the bytes, the
+ * type is one of two constants, and account ids are interned by their raw bytes. Lines that do not pass
+ * this fast path are decoded and handed to {@link TransactionHandler#parseTransaction(String[])}, so they
+ * are accepted or rejected exactly as in the interactive mode. Lines end with "\n" or "\r\n".
+ */
+public class MappedTransactionReader {
+    private static final long WINDOW_SIZE = 1L << 30; // Bytes mapped at a time
+    private static final int NO_ACCOUNT = -1; // Account ordinal of a line parsed by the handler
+
+    private final Path file;
+    private final AccountIdInterner accountIds = new AccountIdInterner();
+    private final ByteSequence token = new ByteSequence();
+    private long lastDateBytes = -1; // The 8 bytes of the last date parsed
+    private LocalDate lastDate;
+    private int lineAccount = NO_ACCOUNT; // Interned ordinal of the account of the line parsed last
+
+    public MappedTransactionReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Posts every transaction of the file without echoing the account statement. Blank lines are ignored.
+     * Consecutive transactions of the same account are posted as one batch.
+     *
+     * @param transactionHandler The handler posting the transactions.
+     * @return The summary of the accepted and rejected transactions.
+     * @throws IOException if the file cannot be read.
+     */
+    public BatchIngestion.Summary ingest(TransactionHandler transactionHandler) throws IOException {
+        long startTime = System.nanoTime();
+        Ingestion ingestion = new Ingestion(transactionHandler);
+        forEach(ingestion);
+        ingestion.postBatch();
+        return new BatchIngestion.Summary(ingestion.accepted, ingestion.rejected, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Parses every non-blank line of the file, in file order.
+     *
+     * @param visitor The visitor of each parsed transaction, including the rejected ones.
+     * @throws IOException if the file cannot be read.
+     */
+    public void forEach(Consumer<ParsedTransaction> visitor) throws IOException {
+        forEach((transaction, account) -> visitor.accept(transaction));
+    }
+
+    private void forEach(LineVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(WINDOW_SIZE, size - position);
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+                int lineStart = 0;
+                for (int index = 0; index < length; index++) {
+                    if (buffer.get(index) != '\n') continue;
+                    parseLine(buffer, lineStart, index, visitor);
+                    lineStart = index + 1;
+                }
+                if (lastWindow || lineStart == 0) {
+                    // The end of the file, or a line longer than a window
+                    if (lineStart < length) parseLine(buffer, lineStart, length, visitor);
+                    position += length;
+                } else {
+                    position += lineStart; // Map the partial last line again with the next window
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct account ids read so far.
+     *
+     * @return The number of account ids.
+     */
+    public int getAccountCount() {
+        return accountIds.size();
+    }
+
+    private void parseLine(ByteBuffer buffer, int start, int end, LineVisitor visitor) {
+        // Trim like String.trim()
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') end--;
+        if (start == end) return;
+
+        lineAccount = NO_ACCOUNT;
+        ParsedTransaction transaction = parseFields(buffer, start, end);
+        if (transaction == null) {
+            // Let the handler decide, and explain, anything the fast path does not accept
+            byte[] line = new byte[end - start];
+            buffer.get(start, line);
+            transaction = TransactionHandler.parseTransaction(new String(line, StandardCharsets.UTF_8).split(" "));
+        }
+        visitor.visit(transaction, lineAccount);
+    }
+
+    /**
+     * Parses the four space separated fields of a trimmed line.
+     *
+     * @return The transaction, or null if the line is not a valid transaction.
+     */
+    private ParsedTransaction parseFields(ByteBuffer buffer, int start, int end) {
+        int dateEnd = indexOfSpace(buffer, start, end);
+        int accountEnd = indexOfSpace(buffer, dateEnd + 1, end);
+        int typeEnd = indexOfSpace(buffer, accountEnd + 1, end);
+        if (typeEnd == end || indexOfSpace(buffer, typeEnd + 1, end) != end) return null;
+
+        LocalDate date = parseDate(buffer, start, dateEnd);
+        if (date == null || accountEnd == dateEnd + 1 || typeEnd != accountEnd + 2) return null;
+        if (accountEnd - dateEnd - 1 > InputValidations.MAX_ID_LENGTH) return null;
+        String type = switch (buffer.get(accountEnd + 1)) {
+            case 'D' -> "D";
+            case 'W' -> "W";
+            default -> null;
+        };
+        if (type == null) return null;
+        long amount = Money.parseCents(token.wrap(buffer, typeEnd + 1, end));
+        if (amount == Money.INVALID_AMOUNT || amount == 0) return null;
+
+        lineAccount = accountIds.intern(buffer, dateEnd + 1, accountEnd - dateEnd - 1);
+        return ParsedTransaction.of(date, accountIds.get(lineAccount), type, amount);
+    }
+
+    /**
+     * Parses a "yyyyMMdd" date, reusing the previous date when the bytes are the same.
+     */
+    private LocalDate parseDate(ByteBuffer buffer, int start, int end) {
+        if (end - start != 8) return null;
+        long dateBytes = buffer.getLong(start);
+        if (dateBytes != lastDateBytes) {
+            lastDate = Dates.parse(token.wrap(buffer, start, end));
+            lastDateBytes = lastDate == null ? -1 : dateBytes;
+        }
+        return lastDate;
+    }
+
+    private static int indexOfSpace(ByteBuffer buffer, int start, int end) {
+        for (int index = start; index < end; index++) {
+            if (buffer.get(index) == ' ') return index;
+        }
+        return end;
+    }
+
+    /**
+     * Reusable ASCII view of a range of a buffer.
+     */
+    private static final class ByteSequence implements CharSequence {
+        private ByteBuffer buffer;
+        private int start;
+        private int length;
+
+        private ByteSequence wrap(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.length = end - start;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new ByteSequence().wrap(buffer, this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * Visitor of each parsed line.
+     */
+    private interface LineVisitor {
+        /**
+         * @param transaction The parsed transaction, including a rejected one.
+         * @param account     The interned ordinal of the account id, or NO_ACCOUNT if the line was parsed by the
+         *                    handler.
+         */
+        void visit(ParsedTransaction transaction, int account);
+    }
+
+    /**
+     * Posts the visited transactions, consecutive transactions of the same account as one batch. Each account
+     * id of the file is resolved to its account handle once, the first time it is posted.
+     */
+    private static final class Ingestion implements LineVisitor {
+        private final TransactionHandler transactionHandler;
+        private final PostingBatch batch = new PostingBatch();
+        private int batchHandle = -1;
+        private int[] handles = new int[1024]; // Account handle + 1 by interned ordinal, 0 until resolved
+        private long accepted;
+        private long rejected;
+
+        private Ingestion(TransactionHandler transactionHandler) {
+            this.transactionHandler = transactionHandler;
+        }
+
+        @Override
+        public void visit(ParsedTransaction transaction, int account) {
+            if (transaction.getError() != null) {
+                rejected++;
+                return;
+            }
+            int handle = account == NO_ACCOUNT
+                    ? transactionHandler.accountHandle(transaction.getAccountId())
+                    : handleOf(account, transaction.getAccountId());
+            if (handle != batchHandle) {
+                postBatch();
+                batchHandle = handle;
+            }
+            batch.add(transaction.getDate(), transaction.getType(), transaction.getAmount());
+        }
+
+        private int handleOf(int account, String accountId) {
+            if (account >= handles.length) handles = Arrays.copyOf(handles, 2 * (account + 1));
+            if (handles[account] == 0) handles[account] = transactionHandler.accountHandle(accountId) + 1;
+            return handles[account] - 1;
+        }
+
+        private void postBatch() {
+            if (batch.size() == 0) return;
+            int posted = transactionHandler.postTransactions(batchHandle, batch);
+            accepted += posted;
+            rejected += batch.size() - posted;
+            batch.clear();
+        }
+    }
+}
@@ -1,25 +1,39 @@
 package com.gic.banking.handler;
 
+import com.gic.banking.metrics.LatencyHistogram;
+import com.gic.banking.metrics.Metrics;
 import com.gic.banking.model.InterestRule;
+import com.gic.banking.ops.StatementWriter;
 import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.CommandInput;
+import com.gic.banking.util.Dates;
 import com.gic.banking.util.InputValidations;
+import com.gic.banking.util.ValidationError;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Scanner;
 
 import static com.gic.banking.util.MessageConstants.*;
 
 public class InterestRuleHandler implements SystemHandler {
+    private static final LatencyHistogram DEFINE_LATENCY = Metrics.global().latency("interest_rule_handler_define");
 
     private final InterestRulesRepository interestRulesRepository;
-    private final Scanner scanner = new Scanner(System.in);
-    // Formatter for parsing and formatting dates
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private final CommandInput commandInput;
 
 
     public InterestRuleHandler(InterestRulesRepository interestRulesRepository) {
+        this(interestRulesRepository, CommandInput.systemIn());
+    }
+
+    /**
+     * Creates a handler reading its rules from a shared input.
+     *
+     * @param interestRulesRepository The interest rules.
+     * @param commandInput            The input shared with the main menu.
+     */
+    public InterestRuleHandler(InterestRulesRepository interestRulesRepository, CommandInput commandInput) {
         this.interestRulesRepository = interestRulesRepository;
+        this.commandInput = commandInput;
     }
 
     /**
@@ -28,101 +42,68 @@ public class InterestRuleHandler implements SystemHandler {
      */
     @Override
     public void handle() {
-        System.out.println(DEFINE_RULE_PROMPT);
-        System.out.println(GO_BACK_PROMPT);
+        commandInput.prompt(DEFINE_RULE_PROMPT);
+        commandInput.prompt(GO_BACK_PROMPT);
         while (true) {
-            System.out.print("> ");
-            String input = scanner.nextLine().trim();
-            if (input.isEmpty()) return; // Go back to the main menu if input is empty.
-
-            String[] inputParts = input.split(" ");
-
-            if (!validateInterestRuleInputFormat(inputParts)) continue; // Validate input format.
-
-            String date = inputParts[0];
-            String ruleId = inputParts[1];
-            String rateStr = inputParts[2];
-
-            if (!validateDate(date) || !validateInterestRuleRateFormat(rateStr))
-                continue; // Validate date and rate format.
-
-            double rate = Double.parseDouble(rateStr);
-            if (!validateInterestRuleRate(rate)) continue; // Validate rate value.
-
-            InterestRule rule = new InterestRule(LocalDate.parse(date, dateFormatter), ruleId, rate);
-            interestRulesRepository.removeInterestRule(rule); // Remove existing rule with the same date and ID.
-            interestRulesRepository.addInterestRule(rule); // Add the new rule.
-            printInterestRules(); // Print the updated list of interest rules.
-        }
-    }
-
-    /**
-     * Validates the input format for interest rules.
-     *
-     * @param inputParts The input parts to validate.
-     * @return True if the input format is valid, otherwise false.
-     */
-    public static boolean validateInterestRuleInputFormat(String[] inputParts) {
-        if (inputParts.length != 3) {
-            System.out.println(INVALID_INPUT_FORMAT_ERROR);
-            return false;
+            String input = commandInput.readLine("> ");
+            if (input == null || input.isEmpty()) return; // Go back to the main menu if input is empty.
+            process(input);
         }
-        return true;
     }
 
     /**
-     * Validates the date format for transactions and interest rules.
+     * Defines one interest rule and prints the updated rules, or the reason it was rejected.
      *
-     * @param date The date to validate.
-     * @return True if the date is valid, otherwise false.
+     * @param input The rule in <Date> <RuleId> <Rate in %> format.
      */
-    private boolean validateDate(String date) {
-        if (!InputValidations.isValidDate(date)) {
-            System.out.println(INVALID_TXN_DATE_FORMAT_ERROR);
-            return false;
+    @Override
+    public void process(String input) {
+        long startTime = System.nanoTime();
+        String error = defineInterestRule(input.split(" "));
+        if (error != null) {
+            System.out.println(error); // Report the reason the rule was rejected.
+        } else {
+            printInterestRules(); // Print the updated list of interest rules.
         }
-        return true;
+        DEFINE_LATENCY.recordSince(startTime);
     }
 
     /**
-     * Validates the interest rate format.
+     * Validates an interest rule and adds it, replacing the rule of the same date.
+     * Does not print anything, so it can be shared by the interactive mode and the service.
      *
-     * @param rate The rate to validate.
-     * @return True if the rate format is valid, otherwise false.
+     * @param inputParts The rule fields in <Date> <RuleId> <Rate in %> order.
+     * @return null if the rule is added, otherwise the error message explaining the rejection.
      */
-    private boolean validateInterestRuleRateFormat(String rate) {
+    public String defineInterestRule(String[] inputParts) {
+        if (inputParts.length != 3) return INVALID_INPUT_FORMAT_ERROR;
+
+        String date = inputParts[0];
+        String ruleId = inputParts[1];
+        String rateStr = inputParts[2];
+
+        ValidationError dateError = InputValidations.validateDate(date);
+        if (dateError != null) return ValidationMessages.of(dateError);
+        ValidationError idError = InputValidations.validateId(ruleId);
+        if (idError != null) return ValidationMessages.of(idError);
+        double rate;
         try {
-            Double.parseDouble(rate);
+            rate = Double.parseDouble(rateStr);
         } catch (NumberFormatException e) {
-            System.out.println(INVALID_RATE_FORMAT_ERROR);
-            return false;
+            return INVALID_RATE_FORMAT_ERROR;
         }
-        return true;
-    }
+        if (rate <= 0 || rate >= 100) return INVALID_RATE_ERROR;
 
-    /**
-     * Validates the interest rate value (must be between 0 and 100).
-     *
-     * @param rate The rate to validate.
-     * @return True if the rate is valid, otherwise false.
-     */
-    public static boolean validateInterestRuleRate(double rate) {
-        if (rate <= 0 || rate >= 100) {
-            System.out.println(INVALID_RATE_ERROR);
-            return false;
-        }
-        return true;
+        InterestRule rule = new InterestRule(LocalDate.parse(date, Dates.DATE_FORMATTER), ruleId, rate);
+        interestRulesRepository.addInterestRule(rule); // Add the new rule, replacing the rule of the same date.
+        return null;
     }
 
-
     /**
      * Prints the current list of interest rules in a tabular format.
      */
     private void printInterestRules() {
-        System.out.println("Interest rules:");
-        System.out.println("| Date\t | RuleId\t | Rate (%)\t |");
-        interestRulesRepository.getInterestRules().forEach(rule -> System.out.printf("| %s\t | %s\t | %6.2f\t |%n",
-                rule.getDate().format(dateFormatter), rule.getRuleId(), rule.getRate()));
+        StatementWriter.toStandardOutput().writeInterestRules(interestRulesRepository.getInterestRules()).flush();
     }
 
 
@@ -0,0 +1,58 @@
+package com.gic.banking.handler;
+
+import com.gic.banking.ops.MonthEndInterestRun;
+import com.gic.banking.util.CommandInput;
+
+import java.io.IOException;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+public class MonthEndHandler implements SystemHandler {
+    private final MonthEndInterestRun monthEndInterestRun;
+    private final CommandInput commandInput;
+
+    public MonthEndHandler(MonthEndInterestRun monthEndInterestRun) {
+        this(monthEndInterestRun, CommandInput.systemIn());
+    }
+
+    /**
+     * Creates a handler reading its requests from a shared input.
+     *
+     * @param monthEndInterestRun The interest run.
+     * @param commandInput         The input shared with the main menu.
+     */
+    public MonthEndHandler(MonthEndInterestRun monthEndInterestRun, CommandInput commandInput) {
+        this.monthEndInterestRun = monthEndInterestRun;
+        this.commandInput = commandInput;
+    }
+
+    /**
+     * Handles the month-end interest run. Prompts the user for the period and the output file.
+     * Allows the user to go back to the main menu by entering an empty input.
+     */
+    @Override
+    public void handle() {
+        commandInput.prompt(MONTH_END_PROMPT);
+        commandInput.prompt(GO_BACK_PROMPT);
+        String input = commandInput.readLine("> ");
+        if (input == null || input.isEmpty()) return; // Go back to the main menu if input is empty.
+        process(input);
+    }
+
+    /**
+     * Runs the month-end interest of one period, or prints the reason it cannot be run.
+     *
+     * @param input The period and output file in <Year><Month> <File> format.
+     */
+    @Override
+    public void process(String input) {
+        PeriodFileRequest request = PeriodFileRequest.parse(input);
+        if (request == null) return;
+
+        try {
+            monthEndInterestRun.run(request.getPeriod(), request.getFile()).print();
+        } catch (IOException e) {
+            System.out.println(OUTPUT_FILE_ERROR + " " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.gic.banking.handler;
+
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.InputValidations;
+import com.gic.banking.util.ValidationError;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+
+import static com.gic.banking.util.MessageConstants.INVALID_INPUT_FORMAT_ERROR;
+
+/**
+ * A request for a month written to a file, in <Year><Month> <File> format, shared by the month-end interest
+ * run and the statement export.
+ */
+final class PeriodFileRequest {
+    private final YearMonth period;
+    private final Path file;
+
+    private PeriodFileRequest(YearMonth period, Path file) {
+        this.period = period;
+        this.file = file;
+    }
+
+    /**
+     * Parses a request, or prints the reason it is rejected.
+     *
+     * @param input The period and output file in <Year><Month> <File> format.
+     * @return The request, or null if it is rejected.
+     */
+    static PeriodFileRequest parse(String input) {
+        String[] inputParts = input.split(" ");
+        if (inputParts.length != 2) {
+            System.out.println(INVALID_INPUT_FORMAT_ERROR);
+            return null;
+        }
+
+        String period = inputParts[0];
+        ValidationError periodError = InputValidations.validatePeriod(period);
+        if (periodError != null) {
+            System.out.println(ValidationMessages.of(periodError));
+            return null;
+        }
+
+        try {
+            return new PeriodFileRequest(YearMonth.parse(period, Dates.PERIOD_FORMATTER), Path.of(inputParts[1]));
+        } catch (InvalidPathException e) {
+            System.out.println(ValidationMessages.of(ValidationError.INVALID_PATH));
+            return null;
+        }
+    }
+
+    YearMonth getPeriod() {
+        return period;
+    }
+
+    Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,59 @@
+package com.gic.banking.handler;
+
+import com.gic.banking.ops.StatementExport;
+import com.gic.banking.util.CommandInput;
+
+import java.io.IOException;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+public class StatementExportHandler implements SystemHandler {
+    private final StatementExport statementExport;
+    private final CommandInput commandInput;
+
+    public StatementExportHandler(StatementExport statementExport) {
+        this(statementExport, CommandInput.systemIn());
+    }
+
+    /**
+     * Creates a handler reading its requests from a shared input.
+     *
+     * @param statementExport The statement export.
+     * @param commandInput     The input shared with the main menu.
+     */
+    public StatementExportHandler(StatementExport statementExport, CommandInput commandInput) {
+        this.statementExport = statementExport;
+        this.commandInput = commandInput;
+    }
+
+    /**
+     * Handles the export of the statements of every account. Prompts the user for the period and the output file.
+     * Allows the user to go back to the main menu by entering an empty input.
+     */
+    @Override
+    public void handle() {
+        commandInput.prompt(EXPORT_PROMPT);
+        commandInput.prompt(GO_BACK_PROMPT);
+        String input = commandInput.readLine("> ");
+        if (input == null || input.isEmpty()) return; // Go back to the main menu if input is empty.
+        process(input);
+    }
+
+    /**
+     * Exports the statements of one period, or prints the reason it cannot be run.
+     *
+     * @param input The period and output file in <Year><Month> <File> format.
+     */
+    @Override
+    public void process(String input) {
+        PeriodFileRequest request = PeriodFileRequest.parse(input);
+        if (request == null) return;
+
+        try {
+            statementExport.export(request.getPeriod(), request.getFile(),
+                    StatementExport.ProgressListener.PRINT).print();
+        } catch (IOException e) {
+            System.out.println(OUTPUT_FILE_ERROR + " " + e.getMessage());
+        }
+    }
+}
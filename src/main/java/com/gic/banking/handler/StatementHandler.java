@@ -1,78 +1,116 @@
 package com.gic.banking.handler;
 
+import com.gic.banking.metrics.LatencyHistogram;
+import com.gic.banking.metrics.Metrics;
 import com.gic.banking.model.BankAccount;
+import com.gic.banking.ops.StatementCache;
+import com.gic.banking.ops.StatementWriter;
 import com.gic.banking.repository.AccountRepository;
 import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.CommandInput;
 import com.gic.banking.util.InputValidations;
-
-import java.util.Scanner;
+import com.gic.banking.util.ValidationError;
 
 import static com.gic.banking.util.MessageConstants.*;
 
 public class StatementHandler implements SystemHandler {
-    private final Scanner scanner = new Scanner(System.in);
+    private static final LatencyHistogram PRINT_LATENCY = Metrics.global().latency("statement_handler_print");
     private final AccountRepository accountRepository;
     private final InterestRulesRepository interestRulesRepository;
+    private final StatementCache statementCache;
+    private final CommandInput commandInput;
 
     public StatementHandler(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository) {
+        this(accountRepository, interestRulesRepository, null);
+    }
+
+    /**
+     * Creates a handler that serves repeated statements from a cache.
+     *
+     * @param accountRepository       The accounts.
+     * @param interestRulesRepository The interest rules.
+     * @param statementCache          The cache of rendered statements, or null to render every statement.
+     */
+    public StatementHandler(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository,
+                            StatementCache statementCache) {
+        this(accountRepository, interestRulesRepository, statementCache, CommandInput.systemIn());
+    }
+
+    /**
+     * Creates a handler reading its requests from a shared input.
+     *
+     * @param accountRepository       The accounts.
+     * @param interestRulesRepository The interest rules.
+     * @param statementCache          The cache of rendered statements, or null to render every statement.
+     * @param commandInput            The input shared with the main menu.
+     */
+    public StatementHandler(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository,
+                            StatementCache statementCache, CommandInput commandInput) {
         this.accountRepository = accountRepository;
         this.interestRulesRepository = interestRulesRepository;
+        this.statementCache = statementCache;
+        this.commandInput = commandInput;
     }
 
     /**
      * Handles the printing of account statements. Prompts the user for account details and the period.
      * Allows the user to go back to the main menu by entering an empty input.
      */
+    @Override
     public void handle() {
-        System.out.println(PRINT_STATEMENT_PROMPT);
-        System.out.println(GO_BACK_PROMPT);
-        System.out.print("> ");
-        String input = scanner.nextLine().trim();
-        if (input.isEmpty()) return; // Go back to the main menu if input is empty.
-
-        String[] inputParts = input.split(" ");
-        if (!validatePrintStatementPeriodInputFormat(inputParts)) return; // Validate input format.
-
-        String accountId = inputParts[0];
-        String period = inputParts[1];
-
-        if (!validatePeriod(period)) return; // Validate the period format.
-
-        BankAccount account = accountRepository.findById(accountId);
-        if (account == null) {
-            System.out.println(ACCOUNT_NOT_FOUND_ERROR); // Handle account not found.
-            return;
-        }
-        // Print the monthly statement.
-        account.printMonthlyStatement(period, interestRulesRepository.getInterestRules());
+        commandInput.prompt(PRINT_STATEMENT_PROMPT);
+        commandInput.prompt(GO_BACK_PROMPT);
+        String input = commandInput.readLine("> ");
+        if (input == null || input.isEmpty()) return; // Go back to the main menu if input is empty.
+        process(input);
     }
 
     /**
-     * Validates the input format for printing statements.
+     * Prints the statement of one account and month, or the reason it cannot be printed.
      *
-     * @param inputParts The input parts to validate.
-     * @return True if the input format is valid, otherwise false.
+     * @param input The account and period in <Account> <Year><Month> format.
      */
-    public static boolean validatePrintStatementPeriodInputFormat(String[] inputParts) {
-        if (inputParts.length != 2) {
-            System.out.println(INVALID_INPUT_FORMAT_ERROR);
-            return false;
+    @Override
+    public void process(String input) {
+        long startTime = System.nanoTime();
+        StringBuilder statement = new StringBuilder();
+        String error = renderStatement(input.split(" "), statement);
+        if (error != null) {
+            System.out.println(error); // Report the reason the statement cannot be printed.
+            return;
         }
-        return true;
+        System.out.print(statement); // Print the monthly statement.
+        PRINT_LATENCY.recordSince(startTime);
     }
 
     /**
-     * Validates the period format for printing statements.
+     * Renders the statement of one account and month. Does not print anything, so it can be shared by the
+     * interactive mode and the service.
      *
-     * @param date The period to validate.
-     * @return True if the period is valid, otherwise false.
+     * @param inputParts The statement fields in <Account> <Year><Month> order.
+     * @param statement  The builder the statement is appended to.
+     * @return null if the statement is rendered, otherwise the error message explaining why it cannot be.
      */
-    private boolean validatePeriod(String date) {
-        if (!InputValidations.isValidPeriod(date)) {
-            System.out.println(INVALID_PERIOD_FORMAT_ERROR);
-            return false;
+    public String renderStatement(String[] inputParts, StringBuilder statement) {
+        if (inputParts.length != 2) return INVALID_INPUT_FORMAT_ERROR;
+
+        String accountId = inputParts[0];
+        String period = inputParts[1];
+
+        ValidationError periodError = InputValidations.validatePeriod(period);
+        if (periodError != null) return ValidationMessages.of(periodError);
+
+        BankAccount account = accountRepository.findById(accountId);
+        if (account == null) return ACCOUNT_NOT_FOUND_ERROR;
+
+        if (statementCache == null) {
+            StatementWriter writer = new StatementWriter(statement);
+            account.printMonthlyStatement(period, interestRulesRepository.getRulesByDate(), writer);
+            writer.flush();
+        } else {
+            statement.append(statementCache.getStatement(account, period));
         }
-        return true;
+        return null;
     }
 
 }
@@ -2,4 +2,11 @@ package com.gic.banking.handler;
 
 public interface SystemHandler {
     void handle();
+
+    /**
+     * Processes one line as if it had been entered at the prompt of the handler, without prompting.
+     *
+     * @param input The trimmed, non-empty line.
+     */
+    void process(String input);
 }
@@ -1,21 +1,51 @@
 package com.gic.banking.handler;
 
+import com.gic.banking.metrics.LatencyHistogram;
+import com.gic.banking.metrics.Metrics;
 import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.PostingBatch;
 import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.util.CommandInput;
+import com.gic.banking.util.Dates;
 import com.gic.banking.util.InputValidations;
+import com.gic.banking.util.Money;
+import com.gic.banking.util.ValidationError;
 
-import java.util.Scanner;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.gic.banking.util.MessageConstants.*;
 
 public class TransactionHandler implements SystemHandler {
+    private static final LatencyHistogram POST_LATENCY = Metrics.global().latency("transaction_handler_post");
+    private static final LongAdder INVALID_INPUT_FORMAT_REJECTIONS = rejectionCounter("invalid_input_format");
+    private static final LongAdder INVALID_TRANSACTION_TYPE_REJECTIONS = rejectionCounter("invalid_transaction_type");
+    // Rejection counter of each validation error, indexed by ordinal
+    private static final LongAdder[] VALIDATION_REJECTIONS = new LongAdder[ValidationError.values().length];
 
-    private final AccountRepository accountRepository;
-    private final Scanner scanner = new Scanner(System.in);
+    static {
+        for (ValidationError error : ValidationError.values()) {
+            VALIDATION_REJECTIONS[error.ordinal()] = rejectionCounter(error.name().toLowerCase(Locale.ROOT));
+        }
+    }
 
+    private final AccountRepository accountRepository;
+    private final CommandInput commandInput;
 
     public TransactionHandler(AccountRepository accountRepository) {
+        this(accountRepository, CommandInput.systemIn());
+    }
+
+    /**
+     * Creates a handler reading its transactions from a shared input.
+     *
+     * @param accountRepository The accounts.
+     * @param commandInput      The input shared with the main menu.
+     */
+    public TransactionHandler(AccountRepository accountRepository, CommandInput commandInput) {
         this.accountRepository = accountRepository;
+        this.commandInput = commandInput;
     }
 
     /**
@@ -24,71 +54,147 @@ public class TransactionHandler implements SystemHandler {
      */
     @Override
     public void handle() {
-        System.out.println(INPUT_TRANSACTIONS_PROMPT);
-        System.out.println(GO_BACK_PROMPT);
+        commandInput.prompt(INPUT_TRANSACTIONS_PROMPT);
+        commandInput.prompt(GO_BACK_PROMPT);
         while (true) {
-            System.out.print("> ");
-            String input = scanner.nextLine().trim();
-            if (input.isEmpty()) return; // Go back to the main menu if input is empty.
-
-            String[] inputParts = input.split(" ");
+            String input = commandInput.readLine("> ");
+            if (input == null || input.isEmpty()) return; // Go back to the main menu if input is empty.
+            process(input);
+        }
+    }
 
-            if (!validateTransactionInputFormat(inputParts)) continue; // Validate input format.
+    /**
+     * Posts one transaction and prints the updated account statement, or the reason it was rejected.
+     *
+     * @param input The transaction in <Date> <Account> <Type> <Amount> format.
+     */
+    @Override
+    public void process(String input) {
+        String[] inputParts = input.split(" ");
 
-            String date = inputParts[0];
-            String accountId = inputParts[1];
-            String type = inputParts[2];
-            String amountStr = inputParts[3];
+        String error = postTransaction(inputParts);
+        if (error != null) {
+            System.out.println(error); // Report the reason the transaction was rejected.
+            return;
+        }
+        // Print the updated account statement.
+        accountRepository.findById(inputParts[1]).printStatement();
+    }
 
-            if (!validateInput(date, type, amountStr)) continue; // Validate date, type, and amount.
+    /**
+     * Validates a transaction and posts it to the account, creating the account if required.
+     * Does not print anything, so it can be shared by the interactive and batch modes.
+     *
+     * @param inputParts The transaction fields in <Date> <Account> <Type> <Amount> order.
+     * @return null if the transaction is posted, otherwise the error message explaining the rejection.
+     */
+    public String postTransaction(String[] inputParts) {
+        long startTime = System.nanoTime();
+        try {
+            ParsedTransaction transaction = parseTransaction(inputParts);
+            if (transaction.getError() != null) return transaction.getError();
+            return postTransaction(transaction);
+        } finally {
+            POST_LATENCY.recordSince(startTime);
+        }
+    }
 
-            double amount = Double.parseDouble(amountStr);
-            // Add new Account.
-            BankAccount account = accountRepository.addAccount(accountId);
+    /**
+     * Posts a parsed transaction to the account, creating the account if required.
+     *
+     * @param transaction A valid transaction returned by {@link #parseTransaction(String[])}.
+     * @return null if the transaction is posted, otherwise the error message explaining the rejection.
+     */
+    public String postTransaction(ParsedTransaction transaction) {
+        // Add new Account.
+        BankAccount account = accountRepository.get(accountRepository.handleOf(transaction.getAccountId()));
 
-            if (!account.addTransaction(date, type, amount)) {
-                System.out.println(INSUFFICIENT_BALANCE_ERROR); // Handle insufficient balance.
-            } else {
-                account.printStatement(); // Print the updated account statement.
-            }
+        if (!account.addTransactionCents(transaction.getDate(), transaction.getType(), transaction.getAmount())) {
+            return INSUFFICIENT_BALANCE_ERROR; // Handle insufficient balance.
         }
+        return null;
     }
 
     /**
-     * Validates the input format for transactions.
+     * Returns the handle of an account, creating the account if required, so that a caller posting many
+     * transactions to it resolves its id once.
      *
-     * @param inputParts The input parts to validate.
-     * @return True if the input format is valid, otherwise false.
+     * @param accountId The account id.
+     * @return The handle to post to.
      */
-    public static boolean validateTransactionInputFormat(String[] inputParts) {
-        if (inputParts.length != 4) {
-            System.out.println(INVALID_INPUT_FORMAT_ERROR);
-            return false;
+    public int accountHandle(String accountId) {
+        return accountRepository.handleOf(accountId);
+    }
+
+    /**
+     * Posts a block of valid transactions of one account.
+     *
+     * @param accountHandle The handle of the account of every transaction of the batch, from
+     *                      {@link #accountHandle(String)}.
+     * @param batch         The transactions; each one is marked accepted, or rejected for insufficient balance.
+     * @return The number of transactions accepted.
+     */
+    public int postTransactions(int accountHandle, PostingBatch batch) {
+        return accountRepository.get(accountHandle).addTransactions(batch);
+    }
+
+    /**
+     * Validates and parses the fields of a transaction without touching any account, so it can run on any thread.
+     *
+     * @param inputParts The transaction fields in <Date> <Account> <Type> <Amount> order.
+     * @return The parsed transaction, or a transaction holding the error message explaining the rejection.
+     */
+    public static ParsedTransaction parseTransaction(String[] inputParts) {
+        if (inputParts.length != 4) return reject(INVALID_INPUT_FORMAT_REJECTIONS, INVALID_INPUT_FORMAT_ERROR);
+
+        String date = inputParts[0];
+        String accountId = inputParts[1];
+        String type = inputParts[2];
+        String amountStr = inputParts[3];
+
+        ValidationError dateError = InputValidations.validateDate(date);
+        if (dateError != null) return reject(dateError);
+        ValidationError idError = InputValidations.validateId(accountId);
+        if (idError != null) return reject(idError);
+        if (!isValidTransactionType(type)) {
+            return reject(INVALID_TRANSACTION_TYPE_REJECTIONS, INVALID_TRANSACTION_TYPE_ERROR);
         }
-        return true;
+
+        long amount = Money.parseCents(amountStr);
+        if (amount == Money.INVALID_AMOUNT) return reject(ValidationError.INVALID_AMOUNT_FORMAT);
+        if (amount == 0) return reject(ValidationError.NON_POSITIVE_AMOUNT);
+        return new ParsedTransaction(Dates.parse(date), accountId, type, amount);
+    }
+
+    private static ParsedTransaction reject(ValidationError error) {
+        return reject(VALIDATION_REJECTIONS[error.ordinal()], ValidationMessages.of(error));
     }
 
     /**
-     * Validates the input for a transaction, including date, type, and amount.
+     * Counts a rejected transaction by reason and returns the rejection.
      *
-     * @param date      The transaction date.
-     * @param type      The transaction type ("D" for deposit, "W" for withdrawal).
-     * @param amountStr The transaction amount as a string.
-     * @return True if the input is valid, otherwise false.
+     * @param rejections The rejection counter of the reason.
+     * @param error      The error message.
+     * @return The rejected transaction.
      */
-    private boolean validateInput(String date, String type, String amountStr) {
-        return validateDate(date) && validateTransactionType(type) && validateAmount(amountStr);
+    private static ParsedTransaction reject(LongAdder rejections, String error) {
+        rejections.increment();
+        return new ParsedTransaction(error);
+    }
+
+    private static LongAdder rejectionCounter(String reason) {
+        return Metrics.global().counter("transactions_rejected_total", "reason", reason);
     }
 
     /**
-     * Validates the date format for transactions and interest rules.
+     * Validates the input format for transactions.
      *
-     * @param date The date to validate.
-     * @return True if the date is valid, otherwise false.
+     * @param inputParts The input parts to validate.
+     * @return True if the input format is valid, otherwise false.
      */
-    private boolean validateDate(String date) {
-        if (!InputValidations.isValidDate(date)) {
-            System.out.println(INVALID_TXN_DATE_FORMAT_ERROR);
+    public static boolean validateTransactionInputFormat(String[] inputParts) {
+        if (inputParts.length != 4) {
+            System.out.println(INVALID_INPUT_FORMAT_ERROR);
             return false;
         }
         return true;
@@ -100,26 +206,72 @@ public class TransactionHandler implements SystemHandler {
      * @param type The transaction type to validate.
      * @return True if the type is valid, otherwise false.
      */
-    private boolean validateTransactionType(String type) {
-        if (!type.equals("D") && !type.equals("W")) {
-            System.out.println(INVALID_TRANSACTION_TYPE_ERROR);
-            return false;
-        }
-        return true;
+    private static boolean isValidTransactionType(String type) {
+        return type.equals("D") || type.equals("W");
     }
 
     /**
-     * Validates the transaction amount format.
-     *
-     * @param amount The amount to validate.
-     * @return True if the amount is valid, otherwise false.
+     * Transaction fields parsed from an input line, or the reason the line was rejected.
      */
-    private boolean validateAmount(String amount) {
-        if (!InputValidations.isValidAmount(amount)) {
-            System.out.println(INVALID_AMOUNT_FORMAT_ERROR);
-            return false;
+    public static final class ParsedTransaction {
+        private final LocalDate date;
+        private final String accountId;
+        private final String type;
+        private final long amount; // Amount in cents
+        private final String error;
+
+        private ParsedTransaction(LocalDate date, String accountId, String type, long amount) {
+            this.date = date;
+            this.accountId = accountId;
+            this.type = type;
+            this.amount = amount;
+            this.error = null;
+        }
+
+        /**
+         * Creates a transaction whose fields have already been validated, e.g. by a reader parsing raw bytes.
+         *
+         * @param date      The transaction date.
+         * @param accountId The account id.
+         * @param type      The transaction type ("D" for deposit, "W" for withdrawal).
+         * @param amount    The positive amount in cents.
+         * @return The transaction.
+         */
+        public static ParsedTransaction of(LocalDate date, String accountId, String type, long amount) {
+            return new ParsedTransaction(date, accountId, type, amount);
+        }
+
+        private ParsedTransaction(String error) {
+            this.date = null;
+            this.accountId = null;
+            this.type = null;
+            this.amount = 0;
+            this.error = error;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+
+        /**
+         * Returns the reason the transaction was rejected.
+         *
+         * @return The error message, or null if the transaction is valid.
+         */
+        public String getError() {
+            return error;
         }
-        return true;
     }
 }
-
@@ -0,0 +1,30 @@
+package com.gic.banking.handler;
+
+import com.gic.banking.util.ValidationError;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+/**
+ * Maps the reasons an input field is rejected to the messages shown to the user.
+ */
+final class ValidationMessages {
+
+    private ValidationMessages() {
+    }
+
+    /**
+     * Returns the message for a rejected input field.
+     *
+     * @param error The reason the field is rejected.
+     * @return The message to show.
+     */
+    static String of(ValidationError error) {
+        return switch (error) {
+            case INVALID_DATE_FORMAT, INVALID_DATE -> INVALID_TXN_DATE_FORMAT_ERROR;
+            case INVALID_PERIOD_FORMAT, INVALID_PERIOD -> INVALID_PERIOD_FORMAT_ERROR;
+            case INVALID_AMOUNT_FORMAT, NON_POSITIVE_AMOUNT -> INVALID_AMOUNT_FORMAT_ERROR;
+            case ID_TOO_LONG -> ID_TOO_LONG_ERROR;
+            case INVALID_PATH -> INVALID_PATH_ERROR;
+        };
+    }
+}
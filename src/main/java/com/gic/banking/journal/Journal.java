@@ -0,0 +1,556 @@
+package com.gic.banking.journal;
+
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.model.PostingBatch;
+import com.gic.banking.model.TransactionListener;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRuleListener;
+import com.gic.banking.repository.InterestRulesRepository;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static com.gic.banking.util.MessageConstants.JOURNAL_RECOVERY_MESSAGE;
+
+/**
+ * Append-only binary journal of accepted transactions and interest rule changes.
+ * <p>
+ * Records are framed as {@code <length> <payload> <crc32>} after a magic number, so a torn record at the
+ * end of the file is detected and dropped on recovery. Appends only copy the record into an in-memory
+ * buffer; a single flusher thread writes everything appended since its last write and forces it to disk
+ * with one {@link FileChannel#force} call, so concurrent postings share the cost of each force (group commit).
+ * Callers that need a durability barrier use {@link #awaitDurable()}.
+ * <p>
+ * Records are numbered in file order. A {@link Snapshot} taken with {@link #checkpoint()} remembers the
+ * journal position it reflects, so a later {@link #open} restores the snapshot and only replays the tail.
+ */
+public class Journal implements TransactionListener, InterestRuleListener, Closeable {
+    private static final int MAGIC = 0x47494A31; // "GIJ1"
+    private static final byte TRANSACTION_RECORD = 1;
+    // Single rule changes, only replayed from journals written before rule changes were recorded as batches
+    private static final byte RULE_ADDED_RECORD = 2;
+    private static final byte RULE_REMOVED_RECORD = 3;
+    private static final byte RULE_BATCH_RECORD = 4;
+    private static final int MAX_RECORD_LENGTH = 1 << 16;
+    // Ids are framed with a two-byte length and must leave room for the other fields of their record
+    private static final int MAX_ID_BYTES = Short.MAX_VALUE;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Appends wait for the flusher once this much data is waiting to be written
+    private static final int MAX_PENDING_BYTES = 8 << 20;
+
+    private final FileChannel channel;
+    private final Path file;
+    private final AccountRepository accountRepository;
+    private final InterestRulesRepository interestRulesRepository;
+    private final Recovery recovery;
+    private final Thread flusher;
+    private final Object lock = new Object();
+    private final CRC32 checksum = new CRC32();
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_LENGTH);
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE); // Records not yet handed to the flusher
+    private ByteBuffer writing = ByteBuffer.allocate(BUFFER_SIZE); // Records being written by the flusher
+    private long appendedRecords; // Number of records in the journal, including those not yet written
+    private long appendedLength;  // Length of the journal, including records not yet written
+    private long durableRecords;
+    private long forces;
+    private boolean closed;
+    private IOException failure;
+
+    private Journal(FileChannel channel, Path file, AccountRepository accountRepository,
+                    InterestRulesRepository interestRulesRepository, Recovery recovery) {
+        this.channel = channel;
+        this.file = file;
+        this.accountRepository = accountRepository;
+        this.interestRulesRepository = interestRulesRepository;
+        this.recovery = recovery;
+        this.appendedRecords = recovery.records;
+        this.durableRecords = recovery.records;
+        this.appendedLength = recovery.validLength;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens a journal, replays its records into the repositories and starts recording their changes.
+     * If a snapshot of the journal exists, it is restored first and only the records after it are replayed.
+     * A torn record at the end of the file is truncated.
+     *
+     * @param file                    The journal file, created if it does not exist.
+     * @param accountRepository       The repository to rebuild and record transactions of.
+     * @param interestRulesRepository The repository to rebuild and record rule changes of.
+     * @return The opened journal.
+     * @throws IOException if the file cannot be read or is not a journal.
+     */
+    public static Journal open(Path file, AccountRepository accountRepository,
+                               InterestRulesRepository interestRulesRepository) throws IOException {
+        Path snapshotFile = Snapshot.pathFor(file);
+        Snapshot snapshot = Files.exists(snapshotFile) ? Snapshot.open(snapshotFile) : null;
+        if (snapshot != null) snapshot.restore(accountRepository, interestRulesRepository);
+
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Recovery recovery = replay(file, channel, accountRepository, interestRulesRepository, snapshot);
+            channel.truncate(recovery.validLength);
+            channel.position(recovery.validLength);
+            if (recovery.validLength == 0) {
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip();
+                while (header.hasRemaining()) channel.write(header);
+                channel.force(false);
+                recovery.validLength = Integer.BYTES;
+            }
+            Journal journal = new Journal(channel, file, accountRepository, interestRulesRepository, recovery);
+            accountRepository.addTransactionListener(journal);
+            interestRulesRepository.addInterestRuleListener(journal);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void transactionAdded(String accountId, LocalDate date, String type, long amount) {
+        byte[] id = encodeId(accountId);
+        synchronized (lock) {
+            record.clear();
+            record.put(TRANSACTION_RECORD).putInt((int) date.toEpochDay()).put((byte) type.charAt(0))
+                    .putLong(amount).putShort((short) id.length).put(id);
+            append();
+        }
+    }
+
+    /**
+     * Appends the accepted postings of a batch under one hold of the journal lock, encoding the account id once.
+     */
+    @Override
+    public void transactionsAdded(String accountId, PostingBatch batch) {
+        byte[] id = encodeId(accountId);
+        synchronized (lock) {
+            for (int index = 0; index < batch.size(); index++) {
+                if (!batch.isAccepted(index)) continue;
+                record.clear();
+                record.put(TRANSACTION_RECORD).putInt((int) batch.getDate(index).toEpochDay())
+                        .put((byte) (batch.isWithdrawal(index) ? 'W' : 'D'))
+                        .putLong(batch.getAmount(index)).putShort((short) id.length).put(id);
+                append();
+            }
+        }
+    }
+
+    @Override
+    public void ruleAdded(InterestRule rule) {
+        // Recorded with its change set by rulesChanging
+    }
+
+    @Override
+    public void ruleRemoved(InterestRule rule) {
+        // Recorded with its change set by rulesChanging
+    }
+
+    /**
+     * Appends a change set of rules as one record, so it is replayed either as a whole or not at all.
+     *
+     * @throws IllegalArgumentException if the change set does not fit in a record.
+     */
+    @Override
+    public void rulesChanging(List<InterestRule> removed, List<InterestRule> added) {
+        List<byte[]> ids = new ArrayList<>(removed.size() + added.size());
+        int length = 1 + 2 * Integer.BYTES;
+        for (List<InterestRule> rules : List.of(removed, added)) {
+            for (InterestRule rule : rules) {
+                byte[] id = encodeId(rule.getRuleId());
+                ids.add(id);
+                length += Integer.BYTES + Double.BYTES + Short.BYTES + id.length;
+            }
+        }
+        if (length > MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("Rule changes too large for the journal: " + length + " bytes");
+        }
+        synchronized (lock) {
+            record.clear();
+            record.put(RULE_BATCH_RECORD).putInt(removed.size()).putInt(added.size());
+            int index = 0;
+            for (List<InterestRule> rules : List.of(removed, added)) {
+                for (InterestRule rule : rules) {
+                    putRule(rule, ids.get(index++));
+                }
+            }
+            append();
+        }
+    }
+
+    /**
+     * Waits until every record appended before this call has been forced to disk.
+     *
+     * @throws IOException if the journal could not be written.
+     */
+    public void awaitDurable() throws IOException {
+        synchronized (lock) {
+            long target = appendedRecords;
+            while (durableRecords < target && failure == null) {
+                waitForFlusher();
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the repositories next to the journal, so the next {@link #open} only replays
+     * the records appended after it. Postings continue while the snapshot is written; each account is
+     * only locked while its transactions are copied.
+     *
+     * @return The outcome of writing the snapshot.
+     * @throws IOException if the snapshot could not be written.
+     */
+    public Snapshot.Capture checkpoint() throws IOException {
+        Snapshot.Capture capture = Snapshot.write(Snapshot.pathFor(file), accountRepository,
+                interestRulesRepository, this);
+        // Every account has been loaded to write the snapshot, so the previous one is no longer needed
+        accountRepository.setAccountLoader(null);
+        return capture;
+    }
+
+    /**
+     * Returns the number of records in the journal, including those not yet written.
+     * Records appended from a thread holding an account's lock for that account are numbered below the
+     * returned value when it is read while holding the same lock.
+     *
+     * @return The number of the next record.
+     */
+    public long getRecordCount() {
+        synchronized (lock) {
+            return appendedRecords;
+        }
+    }
+
+    /**
+     * Returns the length of the journal, including records not yet written.
+     *
+     * @return The offset of the next record.
+     */
+    public long getLength() {
+        synchronized (lock) {
+            return appendedLength;
+        }
+    }
+
+    /**
+     * Returns the number and offset of the next record, read together.
+     *
+     * @return The record number and the offset, in that order.
+     */
+    long[] getPosition() {
+        synchronized (lock) {
+            return new long[]{appendedRecords, appendedLength};
+        }
+    }
+
+    /**
+     * Stops recording changes, writes and forces the remaining records and closes the file.
+     *
+     * @throws IOException if the journal could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        accountRepository.removeTransactionListener(this);
+        interestRulesRepository.removeInterestRuleListener(this);
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw failure;
+    }
+
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    /**
+     * Returns the number of times the journal has been forced to disk since it was opened.
+     *
+     * @return The number of forces.
+     */
+    public long getForces() {
+        synchronized (lock) {
+            return forces;
+        }
+    }
+
+    private void putRule(InterestRule rule, byte[] id) {
+        record.putInt((int) rule.getDate().toEpochDay()).putDouble(rule.getRate()).putShort((short) id.length)
+                .put(id);
+    }
+
+    private static byte[] encodeId(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Id too long for the journal: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Frames the encoded record and hands it to the flusher. Must be called holding the lock.
+     */
+    private void append() {
+        if (closed) throw new IllegalStateException("Journal is closed");
+        while (pending.position() >= MAX_PENDING_BYTES && failure == null) {
+            waitForFlusher(); // Back-pressure when the disk cannot keep up
+        }
+        if (failure != null) throw new UncheckedIOException(failure);
+
+        record.flip();
+        checksum.reset();
+        checksum.update(record.array(), 0, record.limit());
+        int length = record.limit();
+        if (pending.remaining() < length + 2 * Integer.BYTES) {
+            int capacity = Math.max(pending.capacity() * 2, pending.position() + length + 2 * Integer.BYTES);
+            pending = ByteBuffer.allocate(capacity).put(pending.flip());
+        }
+        pending.putInt(length).put(record).putInt((int) checksum.getValue());
+        appendedRecords++;
+        appendedLength += length + 2 * Integer.BYTES;
+        lock.notifyAll();
+    }
+
+    private void waitForFlusher() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0) return; // Closed and nothing left to write
+                // Swap the buffers so appends can continue while this batch is written
+                ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                target = appendedRecords;
+                lock.notifyAll();
+            }
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) channel.write(writing);
+                channel.force(false);
+                writing.clear();
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            synchronized (lock) {
+                durableRecords = target;
+                forces++;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static Recovery replay(Path file, FileChannel channel, AccountRepository accountRepository,
+                                   InterestRulesRepository interestRulesRepository,
+                                   Snapshot snapshot) throws IOException {
+        long startTime = System.nanoTime();
+        long transactions = 0;
+        long ruleChanges = 0;
+        long startOffset = snapshot == null ? 0 : snapshot.getJournalLength();
+        long record = snapshot == null ? 0 : snapshot.getJournalRecords();
+        if (channel.size() == 0) {
+            if (startOffset > 0) throw new IOException("Journal is older than its snapshot: " + file);
+            return new Recovery(snapshot, 0, 0, 0, 0, System.nanoTime() - startTime);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) break;
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a journal file: " + file);
+        }
+        if (snapshot != null && (startOffset < Integer.BYTES || startOffset > channel.size())) {
+            throw new IOException("Snapshot does not match the journal: " + file);
+        }
+        long validLength = Math.max(startOffset, Integer.BYTES);
+        // The stream is not closed as that would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(validLength)), BUFFER_SIZE));
+        CRC32 checksum = new CRC32();
+        byte[] payload = new byte[MAX_RECORD_LENGTH];
+        while (true) {
+            int length;
+            int expectedChecksum;
+            try {
+                length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_LENGTH) break;
+                in.readFully(payload, 0, length);
+                expectedChecksum = in.readInt();
+            } catch (EOFException e) {
+                break; // Torn record at the end of the journal
+            }
+            checksum.reset();
+            checksum.update(payload, 0, length);
+            if ((int) checksum.getValue() != expectedChecksum) break;
+
+            ByteBuffer buffer = ByteBuffer.wrap(payload, 0, length);
+            byte recordType = buffer.get();
+            if (recordType == RULE_BATCH_RECORD) {
+                int removedCount = buffer.getInt();
+                int addedCount = buffer.getInt();
+                List<InterestRule> removed = readRules(buffer, removedCount);
+                List<InterestRule> added = readRules(buffer, addedCount);
+                if (snapshot == null || record >= snapshot.getRulesJournalRecords()) {
+                    interestRulesRepository.applyBatch(removed, added);
+                    ruleChanges += removed.size() + added.size();
+                }
+                validLength += 2 * Integer.BYTES + length;
+                record++;
+                continue;
+            }
+            LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+            if (recordType == TRANSACTION_RECORD) {
+                String type = buffer.get() == 'D' ? "D" : "W";
+                long amount = buffer.getLong();
+                String accountId = readString(buffer);
+                // Skip transactions the snapshot already holds for the account
+                if (snapshot == null || record >= snapshot.getJournalRecords(accountId)) {
+                    if (!accountRepository.addAccount(accountId).addTransactionCents(date, type, amount)) {
+                        throw new IOException("Journal transaction rejected on replay for account " + accountId);
+                    }
+                    transactions++;
+                }
+            } else {
+                double rate = buffer.getDouble();
+                InterestRule rule = new InterestRule(date, readString(buffer), rate);
+                if (snapshot == null || record >= snapshot.getRulesJournalRecords()) {
+                    if (recordType == RULE_ADDED_RECORD) {
+                        interestRulesRepository.addInterestRule(rule);
+                    } else {
+                        interestRulesRepository.removeInterestRule(rule);
+                    }
+                    ruleChanges++;
+                }
+            }
+            validLength += 2 * Integer.BYTES + length;
+            record++;
+        }
+        return new Recovery(snapshot, transactions, ruleChanges, record, validLength,
+                System.nanoTime() - startTime);
+    }
+
+    private static List<InterestRule> readRules(ByteBuffer buffer, int count) {
+        List<InterestRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+            double rate = buffer.getDouble();
+            rules.add(new InterestRule(date, readString(buffer), rate));
+        }
+        return rules;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Outcome of replaying a journal.
+     */
+    public static class Recovery {
+        private final Snapshot snapshot;
+        private final long transactions;
+        private final long ruleChanges;
+        private final long records;
+        private long validLength;
+        private final long elapsedNanos;
+
+        private Recovery(Snapshot snapshot, long transactions, long ruleChanges, long records, long validLength,
+                         long elapsedNanos) {
+            this.snapshot = snapshot;
+            this.transactions = transactions;
+            this.ruleChanges = ruleChanges;
+            this.records = records;
+            this.validLength = validLength;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the snapshot restored before replaying the journal.
+         *
+         * @return The snapshot, or null if the journal was replayed from the start.
+         */
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public long getTransactions() {
+            return transactions;
+        }
+
+        public long getRuleChanges() {
+            return ruleChanges;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the number of replayed records per second.
+         *
+         * @return The recovery speed.
+         */
+        public double getRecordsPerSecond() {
+            if (elapsedNanos == 0) return 0;
+            return (transactions + ruleChanges) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        /**
+         * Prints the summary of the recovery.
+         */
+        public void print() {
+            if (snapshot != null) snapshot.print();
+            System.out.printf(JOURNAL_RECOVERY_MESSAGE, transactions, ruleChanges,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getRecordsPerSecond());
+        }
+    }
+}
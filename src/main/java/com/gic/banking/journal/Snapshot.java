@@ -0,0 +1,394 @@
+package com.gic.banking.journal;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.model.TransactionView;
+import com.gic.banking.repository.AccountLoader;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.gic.banking.util.MessageConstants.SNAPSHOT_RESTORE_MESSAGE;
+import static com.gic.banking.util.MessageConstants.SNAPSHOT_WRITE_MESSAGE;
+
+/**
+ * Point-in-time image of the accounts and interest rules, used to restart without replaying the whole journal.
+ * <p>
+ * The file holds a header with the journal position the snapshot was started at, the interest rules, one block
+ * of fixed-size transaction rows per account, and an index of the account blocks at the end:
+ * <pre>
+ * header:  magic, journal length, journal records, rules journal records
+ * rules:   count, then (epoch day, rate, id) per rule in the order they were added
+ * account: count, then (epoch day, sequence, type, amount, balance) per transaction
+ * index:   count, then (id, block offset, journal records) per account
+ * trailer: index offset, magic
+ * </pre>
+ * Opening a snapshot maps the file and only reads the header, the rules and the index; an account's block is
+ * read the first time the account is looked up. Each account is captured under its own lock together with the
+ * number of journal records at that moment, so postings are only paused per account while the snapshot is
+ * written, and the journal replay skips the records an account already holds.
+ */
+public class Snapshot implements AccountLoader {
+    private static final int MAGIC = 0x47495331; // "GIS1"
+    private static final int HEADER_LENGTH = Integer.BYTES + 3 * Long.BYTES;
+    private static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES;
+    private static final int ROW_LENGTH = 2 * Integer.BYTES + 1 + 2 * Long.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final MappedByteBuffer buffer;
+    private final long journalLength;
+    private final long journalRecords;
+    private final long rulesJournalRecords;
+    private final List<InterestRule> interestRules;
+    private final Map<String, Entry> index;
+    private final long elapsedNanos;
+
+    private Snapshot(MappedByteBuffer buffer, long journalLength, long journalRecords, long rulesJournalRecords,
+                     List<InterestRule> interestRules, Map<String, Entry> index, long elapsedNanos) {
+        this.buffer = buffer;
+        this.journalLength = journalLength;
+        this.journalRecords = journalRecords;
+        this.rulesJournalRecords = rulesJournalRecords;
+        this.interestRules = interestRules;
+        this.index = index;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the snapshot file kept next to a journal.
+     *
+     * @param journalFile The journal file.
+     * @return The snapshot file of the journal.
+     */
+    public static Path pathFor(Path journalFile) {
+        return journalFile.resolveSibling(journalFile.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Maps a snapshot file and reads its rules and account index.
+     *
+     * @param file The snapshot file.
+     * @return The opened snapshot.
+     * @throws IOException if the file cannot be read or is not a complete snapshot.
+     */
+    public static Snapshot open(Path file) throws IOException {
+        long startTime = System.nanoTime();
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Snapshot is too large to map: " + file);
+            if (size < HEADER_LENGTH + TRAILER_LENGTH) throw new IOException("Not a snapshot file: " + file);
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int size = buffer.capacity();
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(size - Integer.BYTES) != MAGIC) {
+            throw new IOException("Not a snapshot file: " + file);
+        }
+        ByteBuffer in = buffer.duplicate();
+        in.position(Integer.BYTES);
+        long journalLength = in.getLong();
+        long journalRecords = in.getLong();
+        long rulesJournalRecords = in.getLong();
+
+        int ruleCount = in.getInt();
+        List<InterestRule> interestRules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            LocalDate date = LocalDate.ofEpochDay(in.getInt());
+            double rate = in.getDouble();
+            interestRules.add(new InterestRule(date, readString(in), rate));
+        }
+
+        in.position((int) buffer.getLong(size - TRAILER_LENGTH));
+        int accountCount = in.getInt();
+        Map<String, Entry> index = new HashMap<>(accountCount * 4 / 3 + 1);
+        for (int i = 0; i < accountCount; i++) {
+            String accountId = readString(in);
+            index.put(accountId, new Entry((int) in.getLong(), in.getLong()));
+        }
+        return new Snapshot(buffer, journalLength, journalRecords, rulesJournalRecords,
+                Collections.unmodifiableList(interestRules), index, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Writes a snapshot of the repositories. The snapshot is written to a temporary file and moved into place
+     * once complete, so a crash never leaves a partial snapshot behind.
+     *
+     * @param file                    The snapshot file.
+     * @param accountRepository       The accounts to capture.
+     * @param interestRulesRepository The interest rules to capture.
+     * @param journal                 The journal recording the repositories, or null if they are not journaled.
+     * @return The outcome of writing the snapshot.
+     * @throws IOException if the snapshot could not be written.
+     */
+    public static Capture write(Path file, AccountRepository accountRepository,
+                                InterestRulesRepository interestRulesRepository, Journal journal) throws IOException {
+        long startTime = System.nanoTime();
+        long[] position = journal == null ? new long[2] : journal.getPosition();
+        long rulesJournalRecords = journal == null ? 0 : journal.getRecordCount();
+        List<InterestRule> interestRules = new ArrayList<>(interestRulesRepository.getInterestRules());
+
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Encoder encoder = new Encoder();
+        ByteBuffer index = ByteBuffer.allocate(BUFFER_SIZE);
+        int accounts = 0;
+        long transactions = 0;
+        long maxPauseNanos = 0;
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = encoder.reset(HEADER_LENGTH + Integer.BYTES);
+            out.putInt(MAGIC).putLong(position[1]).putLong(position[0]).putLong(rulesJournalRecords);
+            out.putInt(interestRules.size());
+            for (InterestRule rule : interestRules) {
+                byte[] id = rule.getRuleId().getBytes(StandardCharsets.UTF_8);
+                encoder.ensureRemaining(Integer.BYTES + Double.BYTES + Short.BYTES + id.length)
+                        .putInt((int) rule.getDate().toEpochDay()).putDouble(rule.getRate())
+                        .putShort((short) id.length).put(id);
+            }
+            writeFully(channel, encoder.buffer);
+
+            for (BankAccount account : accountRepository.getAccounts()) {
+                long offset = channel.position();
+                long accountJournalRecords;
+                long pauseStart = System.nanoTime();
+                synchronized (account) {
+                    // Postings to this account wait only while its rows are copied
+                    accountJournalRecords = journal == null ? 0 : journal.getRecordCount();
+                    int count = account.getTransactionCount();
+                    encoder.reset(Integer.BYTES + count * ROW_LENGTH).putInt(count);
+                    account.forEachTransaction(encoder);
+                    transactions += count;
+                }
+                maxPauseNanos = Math.max(maxPauseNanos, System.nanoTime() - pauseStart);
+                writeFully(channel, encoder.buffer);
+
+                byte[] id = account.getAccountId().getBytes(StandardCharsets.UTF_8);
+                if (index.remaining() < Short.BYTES + id.length + 2 * Long.BYTES) {
+                    index = ByteBuffer.allocate(index.capacity() * 2).put(index.flip());
+                }
+                index.putShort((short) id.length).put(id).putLong(offset).putLong(accountJournalRecords);
+                accounts++;
+            }
+
+            long indexOffset = channel.position();
+            encoder.reset(Integer.BYTES).putInt(accounts);
+            writeFully(channel, encoder.buffer);
+            writeFully(channel, index);
+            encoder.reset(TRAILER_LENGTH).putLong(indexOffset).putInt(MAGIC);
+            writeFully(channel, encoder.buffer);
+            if (channel.position() > Integer.MAX_VALUE) throw new IOException("Snapshot is too large to map: " + file);
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        // The journal must hold every record the snapshot refers to before the snapshot replaces the previous one
+        if (journal != null) journal.awaitDurable();
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Capture(accounts, transactions, System.nanoTime() - startTime, maxPauseNanos);
+    }
+
+    /**
+     * Adds the snapshot rules to the rules repository and makes the snapshot the loader of the accounts
+     * that are not in the account repository yet.
+     *
+     * @param accountRepository       The repository to load accounts into on first use.
+     * @param interestRulesRepository The repository to add the rules to.
+     */
+    public void restore(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository) {
+        interestRulesRepository.applyBatch(Collections.emptyList(), interestRules);
+        accountRepository.setAccountLoader(this);
+    }
+
+    @Override
+    public boolean load(BankAccount account) {
+        Entry entry = index.get(account.getAccountId());
+        if (entry == null) return false;
+
+        // Absolute reads only, so accounts can be loaded concurrently from the shared mapping
+        int offset = entry.offset;
+        int count = buffer.getInt(offset);
+        offset += Integer.BYTES;
+        for (int i = 0; i < count; i++, offset += ROW_LENGTH) {
+            LocalDate date = LocalDate.ofEpochDay(buffer.getInt(offset));
+            int sequence = buffer.getInt(offset + Integer.BYTES);
+            String type = buffer.get(offset + 2 * Integer.BYTES) == 'D' ? "D" : "W";
+            long amount = buffer.getLong(offset + 2 * Integer.BYTES + 1);
+            long balance = buffer.getLong(offset + 2 * Integer.BYTES + 1 + Long.BYTES);
+            account.restoreTransaction(date, sequence, type, amount, balance);
+        }
+        return true;
+    }
+
+    @Override
+    public Collection<String> getAccountIds() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public List<InterestRule> getInterestRules() {
+        return interestRules;
+    }
+
+    /**
+     * Returns the length of the journal when the snapshot was started; records before it are all reflected
+     * in the snapshot.
+     *
+     * @return The journal offset to replay from.
+     */
+    public long getJournalLength() {
+        return journalLength;
+    }
+
+    /**
+     * Returns the number of journal records when the snapshot was started.
+     *
+     * @return The number of the first record to replay.
+     */
+    public long getJournalRecords() {
+        return journalRecords;
+    }
+
+    /**
+     * Returns the number of journal records the snapshot holds the transactions of for an account.
+     *
+     * @param accountId The account id.
+     * @return The number of the first record not reflected in the account.
+     */
+    public long getJournalRecords(String accountId) {
+        Entry entry = index.get(accountId);
+        return entry == null ? journalRecords : entry.journalRecords;
+    }
+
+    /**
+     * Returns the number of journal records when the rules were captured.
+     *
+     * @return The number of the first rule change not reflected in the rules.
+     */
+    public long getRulesJournalRecords() {
+        return rulesJournalRecords;
+    }
+
+    /**
+     * Prints the summary of opening the snapshot.
+     */
+    public void print() {
+        System.out.printf(SNAPSHOT_RESTORE_MESSAGE, index.size(), interestRules.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Location of an account block and the journal records it reflects.
+     */
+    private static final class Entry {
+        private final int offset;
+        private final long journalRecords;
+
+        private Entry(int offset, long journalRecords) {
+            this.offset = offset;
+            this.journalRecords = journalRecords;
+        }
+    }
+
+    /**
+     * Reusable buffer that encodes the rows of an account.
+     */
+    private static final class Encoder implements Consumer<TransactionView> {
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private ByteBuffer reset(int length) {
+            buffer.clear();
+            return ensureRemaining(length);
+        }
+
+        private ByteBuffer ensureRemaining(int length) {
+            if (buffer.remaining() < length) {
+                buffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length))
+                        .put(buffer.flip());
+            }
+            return buffer;
+        }
+
+        @Override
+        public void accept(TransactionView transaction) {
+            buffer.putInt((int) transaction.getEpochDay()).putInt(transaction.getSequence())
+                    .put((byte) transaction.getType().charAt(0))
+                    .putLong(transaction.getAmountCents()).putLong(transaction.getBalanceCents());
+        }
+    }
+
+    /**
+     * Outcome of writing a snapshot.
+     */
+    public static class Capture {
+        private final int accounts;
+        private final long transactions;
+        private final long elapsedNanos;
+        private final long maxPauseNanos;
+
+        private Capture(int accounts, long transactions, long elapsedNanos, long maxPauseNanos) {
+            this.accounts = accounts;
+            this.transactions = transactions;
+            this.elapsedNanos = elapsedNanos;
+            this.maxPauseNanos = maxPauseNanos;
+        }
+
+        public int getAccounts() {
+            return accounts;
+        }
+
+        public long getTransactions() {
+            return transactions;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the longest time an account was locked while the snapshot was written.
+         *
+         * @return The longest pause in nanoseconds.
+         */
+        public long getMaxPauseNanos() {
+            return maxPauseNanos;
+        }
+
+        /**
+         * Prints the summary of writing the snapshot.
+         */
+        public void print() {
+            System.out.printf(SNAPSHOT_WRITE_MESSAGE, accounts, transactions,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), TimeUnit.NANOSECONDS.toMicros(maxPauseNanos));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.gic.banking.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of the counters and latency histograms of the application.
+ * <p>
+ * Instruments are created once, typically into static fields, and then updated without locking. The current
+ * values can be written at any time in the Prometheus text exposition format.
+ */
+public final class Metrics {
+    private static final Metrics GLOBAL = new Metrics();
+    private static final String PREFIX = "gic_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    // Counters keyed by metric name, then by label set
+    private final Map<String, Map<String, LongAdder>> counters = new ConcurrentSkipListMap<>();
+    // Latencies keyed by operation
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the registry shared by the whole application.
+     *
+     * @return The registry.
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns a counter, creating it on first use.
+     *
+     * @param name The metric name, without the application prefix, e.g. "transactions_accepted_total".
+     * @return The counter.
+     */
+    public LongAdder counter(String name) {
+        return counter(name, "");
+    }
+
+    /**
+     * Returns a counter of one label value, creating it on first use.
+     *
+     * @param name       The metric name, without the application prefix.
+     * @param labelName  The label name, e.g. "reason".
+     * @param labelValue The label value, e.g. "insufficient_balance".
+     * @return The counter.
+     */
+    public LongAdder counter(String name, String labelName, String labelValue) {
+        return counter(name, "{" + labelName + "=\"" + labelValue + "\"}");
+    }
+
+    /**
+     * Returns the latency histogram of an operation, creating it on first use.
+     *
+     * @param operation The operation, e.g. "bank_account_add_transaction".
+     * @return The histogram.
+     */
+    public LatencyHistogram latency(String operation) {
+        return latencies.computeIfAbsent(operation, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Writes every counter and latency summary in the Prometheus text exposition format, latencies in seconds.
+     *
+     * @param out The destination.
+     * @throws UncheckedIOException if the output cannot be written.
+     */
+    public void writeText(Appendable out) {
+        try {
+            for (Map.Entry<String, Map<String, LongAdder>> counter : counters.entrySet()) {
+                String name = PREFIX + counter.getKey();
+                out.append("# TYPE ").append(name).append(" counter\n");
+                for (Map.Entry<String, LongAdder> series : counter.getValue().entrySet()) {
+                    out.append(name).append(series.getKey()).append(' ')
+                            .append(Long.toString(series.getValue().sum())).append('\n');
+                }
+            }
+            if (latencies.isEmpty()) return;
+            String name = PREFIX + "operation_latency_seconds";
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (Map.Entry<String, LatencyHistogram> latency : latencies.entrySet()) {
+                String labels = "operation=\"" + latency.getKey() + "\"";
+                LatencyHistogram histogram = latency.getValue();
+                for (double quantile : QUANTILES) {
+                    out.append(name).append('{').append(labels).append(",quantile=\"")
+                            .append(Double.toString(quantile)).append("\"} ")
+                            .append(seconds(histogram.getValueAtQuantile(quantile))).append('\n');
+                }
+                out.append(name).append("_count{").append(labels).append("} ")
+                        .append(Long.toString(histogram.getCount())).append('\n');
+                out.append(name).append("_sum{").append(labels).append("} ")
+                        .append(seconds(histogram.getSumNanos())).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints the current values to the standard output.
+     */
+    public void print() {
+        StringBuilder text = new StringBuilder();
+        writeText(text);
+        System.out.print(text);
+    }
+
+    private LongAdder counter(String name, String labels) {
+        return counters.computeIfAbsent(name, key -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(labels, key -> new LongAdder());
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+}
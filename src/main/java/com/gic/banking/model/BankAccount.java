@@ -1,29 +1,66 @@
 package com.gic.banking.model;
 
+import com.gic.banking.metrics.LatencyHistogram;
+import com.gic.banking.metrics.Metrics;
 import com.gic.banking.ops.InterestCalculator;
 import com.gic.banking.ops.StatementPrinter;
+import com.gic.banking.ops.StatementWriter;
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.Money;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A bank account and its transaction history.
+ * All state is guarded by the account's own monitor, so postings to different accounts can run in parallel
+ * while postings to the same account are applied one at a time, in order.
+ */
 public class BankAccount implements StatementPrinter, InterestCalculator {
+    private static final LatencyHistogram ADD_TRANSACTION_LATENCY =
+            Metrics.global().latency("bank_account_add_transaction");
+    private static final LatencyHistogram ADD_TRANSACTIONS_LATENCY =
+            Metrics.global().latency("bank_account_add_transactions");
+    private static final LatencyHistogram CALCULATE_INTEREST_LATENCY =
+            Metrics.global().latency("bank_account_calculate_interest");
+    private static final LongAdder ACCEPTED_TRANSACTIONS = Metrics.global().counter("transactions_accepted_total");
+    private static final LongAdder INSUFFICIENT_BALANCE_REJECTIONS =
+            Metrics.global().counter("transactions_rejected_total", "reason", "insufficient_balance");
+
     private final String accountId; // Unique identifier for the bank account
-    private double balance; // Current balance of the account
-    private final List<Transaction> transactions; // List to store all transactions
-    private final Map<String, Integer> transactionCountMap; // Map to track transaction counts per date
-    private final DateTimeFormatter dateFormatter; // Formatter for parsing and formatting dates
+    private long balance; // Current balance of the account in cents
+    private final TransactionStore transactions; // Store holding all transactions
+    private final Map<LocalDate, Integer> transactionCountMap; // Map to track transaction counts per date
+    // Transaction count of the latest date posted, written to transactionCountMap only when another date is posted
+    private long sequenceDay = Long.MIN_VALUE;
+    private int sequenceCount;
+    private final TransactionListener transactionListener; // Notified of every accepted transaction
+    private long lastDay = Long.MIN_VALUE; // Epoch-day of the latest transaction date
+    // Built on the first posting dated before the latest transaction; until then the transactions are in date
+    // order and their stored balances are exact
+    private DailyBalances dailyBalances;
+    // Running interest of the latest calendar month with transactions and of the month before it
+    private InterestAccrual currentAccrual;
+    private InterestAccrual previousAccrual;
+    private NavigableMap<LocalDate, InterestRule> latestRules; // Rules of the latest monthly interest calculation
 
     public BankAccount(String accountId) {
+        this(accountId, new ListTransactionStore());
+    }
+
+    public BankAccount(String accountId, TransactionStore transactions) {
+        this(accountId, transactions, TransactionListener.NONE);
+    }
+
+    public BankAccount(String accountId, TransactionStore transactions, TransactionListener transactionListener) {
         this.accountId = accountId;
         this.balance = 0;
-        this.transactions = new ArrayList<>();
+        this.transactions = transactions;
         this.transactionCountMap = new HashMap<>();
-        this.dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+        this.transactionListener = transactionListener;
     }
 
     /**
@@ -35,35 +72,326 @@ public class BankAccount implements StatementPrinter, InterestCalculator {
      * @return true if the transaction is added successfully, false if there's insufficient balance for withdrawal.
      */
     public boolean addTransaction(String date, String type, double amount) {
+        return addTransactionCents(date, type, Money.toCents(amount));
+    }
+
+    /**
+     * Adds a transaction to the account.
+     *
+     * @param date   The date of the transaction in "yyyyMMdd" format.
+     * @param type   The type of transaction ("D" for deposit, "W" for withdrawal).
+     * @param amount The amount of the transaction in cents.
+     * @return true if the transaction is added successfully, false if there's insufficient balance for withdrawal.
+     */
+    public boolean addTransactionCents(String date, String type, long amount) {
+        LocalDate transactionDate = Dates.parse(date);
+        if (transactionDate == null) throw new IllegalArgumentException("Invalid date format: " + date);
+        return addTransactionCents(transactionDate, type, amount);
+    }
+
+    /**
+     * Adds a transaction to the account.
+     *
+     * @param date   The date of the transaction.
+     * @param type   The type of transaction ("D" for deposit, "W" for withdrawal).
+     * @param amount The amount of the transaction in cents.
+     * @return true if the transaction is added successfully, false if there's insufficient balance for withdrawal.
+     */
+    public synchronized boolean addTransactionCents(LocalDate date, String type, long amount) {
+        long startTime = System.nanoTime();
+        try {
+            return post(date, type, amount);
+        } finally {
+            ADD_TRANSACTION_LATENCY.recordSince(startTime);
+        }
+    }
+
+    private boolean post(LocalDate date, String type, long amount) {
         // Check for insufficient balance in case of withdrawal
-        if (!checkInsufficientBalance(type, amount)) return false;
+        if (!checkInsufficientBalance(date.toEpochDay(), type, amount)) {
+            INSUFFICIENT_BALANCE_REJECTIONS.increment();
+            return false;
+        }
 
-        // Increment transaction count for the given date
-        int transactionCount = transactionCountMap.getOrDefault(date, 0) + 1;
-        transactionCountMap.put(date, transactionCount);
+        apply(date, type, amount);
+        ACCEPTED_TRANSACTIONS.increment();
 
-        // Generate a unique transaction ID
-        String transactionId = date + "-" + transactionCount;
-        LocalDate transactionDate = LocalDate.parse(date, dateFormatter);
+        return true;
+    }
+
+    /**
+     * Applies an accepted transaction. The listener is notified first, so a transaction it fails to record,
+     * e.g. in a closed journal, is not applied either. A transaction dated before the latest one takes its
+     * place in date order: the balance after every later transaction moves by its amount, which only updates
+     * the daily balances in O(log n), and the kept accruals from its date on are dropped.
+     *
+     * @param date   The date of the transaction.
+     * @param type   The type of transaction ("D" for deposit, "W" for withdrawal).
+     * @param amount The amount of the transaction in cents.
+     */
+    private void apply(LocalDate date, String type, long amount) {
+        long day = date.toEpochDay();
+        long signedAmount = type.equals("D") ? amount : -amount;
+        boolean backDated = day < lastDay;
+        transactionListener.transactionAdded(accountId, date, type, amount);
+        // Increment transaction count for the given date
+        int transactionCount = nextSequence(date);
 
         // Update balance based on transaction type
-        balance += (type.equals("D") ? amount : -amount);
-        // Add the transaction to the list
-        transactions.add(new Transaction(transactionId, transactionDate, type, amount, balance));
+        balance += signedAmount;
+        addToDailyBalances(day, signedAmount);
+        // Add the transaction to the store, its id is derived from the date and count
+        transactions.add(date, transactionCount, type, amount,
+                backDated ? dailyBalances.balanceThrough(day) : balance);
+        if (backDated) {
+            dropAccrualsFrom(day);
+        } else {
+            postToAccruals(day);
+        }
+        if (backDated) transactionListener.balancesChanged(accountId, date);
+    }
+
+    /**
+     * Adds a block of transactions to the account in order, under a single lock. When no posting of the batch
+     * is dated before the one preceding it, the whole batch is validated in one pass over a running balance,
+     * the listener is notified of the accepted postings once, and they are stored in a second pass that
+     * updates the daily balances and kept accruals once per date. Otherwise the postings are applied one by
+     * one as by {@link #addTransactionCents(LocalDate, String, long)}.
+     *
+     * @param batch The transactions; each one is marked accepted, or rejected for insufficient balance.
+     * @return The number of transactions accepted.
+     */
+    public synchronized int addTransactions(PostingBatch batch) {
+        long startTime = System.nanoTime();
+        int accepted = isInDateOrder(batch) ? postInDateOrder(batch) : postEach(batch);
+        ACCEPTED_TRANSACTIONS.add(accepted);
+        INSUFFICIENT_BALANCE_REJECTIONS.add(batch.size() - accepted);
+        ADD_TRANSACTIONS_LATENCY.recordSince(startTime);
+        return accepted;
+    }
 
+    private boolean isInDateOrder(PostingBatch batch) {
+        long previousDay = lastDay;
+        for (int index = 0; index < batch.size(); index++) {
+            long day = batch.getDate(index).toEpochDay();
+            if (day < previousDay) return false;
+            previousDay = day;
+        }
         return true;
     }
 
+    private int postInDateOrder(PostingBatch batch) {
+        // Validate the whole batch first; in date order each withdrawal only needs the running balance
+        int accepted = 0;
+        long runningBalance = balance;
+        for (int index = 0; index < batch.size(); index++) {
+            long amount = batch.getAmount(index);
+            boolean withdrawal = batch.isWithdrawal(index);
+            boolean sufficient = !withdrawal || runningBalance - amount >= 0;
+            batch.setAccepted(index, sufficient);
+            if (!sufficient) continue;
+            runningBalance += withdrawal ? -amount : amount;
+            accepted++;
+        }
+        if (accepted == 0) return 0;
+        transactionListener.transactionsAdded(accountId, batch);
+
+        long day = Long.MIN_VALUE;
+        long dayAmount = 0;
+        for (int index = 0; index < batch.size(); index++) {
+            if (!batch.isAccepted(index)) continue;
+            LocalDate date = batch.getDate(index);
+            long postingDay = date.toEpochDay();
+            if (postingDay != day) {
+                if (day != Long.MIN_VALUE) closeDay(day, dayAmount);
+                day = postingDay;
+                dayAmount = 0;
+            }
+            long amount = batch.getAmount(index);
+            boolean withdrawal = batch.isWithdrawal(index);
+            balance += withdrawal ? -amount : amount;
+            dayAmount += withdrawal ? -amount : amount;
+            transactions.add(date, nextSequence(date), withdrawal ? "W" : "D", amount, balance);
+        }
+        closeDay(day, dayAmount);
+        return accepted;
+    }
+
+    /**
+     * Records the postings of a day stored by {@link #postInDateOrder(PostingBatch)}, once the last of them
+     * is stored.
+     *
+     * @param day       The epoch-day of the postings.
+     * @param dayAmount The sum of their amounts in cents, negative for withdrawals.
+     */
+    private void closeDay(long day, long dayAmount) {
+        addToDailyBalances(day, dayAmount);
+        postToAccruals(day);
+    }
+
+    private int postEach(PostingBatch batch) {
+        int accepted = 0;
+        for (int index = 0; index < batch.size(); index++) {
+            long amount = batch.getAmount(index);
+            LocalDate date = batch.getDate(index);
+            String type = batch.isWithdrawal(index) ? "W" : "D";
+            if (!checkInsufficientBalance(date.toEpochDay(), type, amount)) {
+                batch.setAccepted(index, false); // Insufficient balance for withdrawal
+                continue;
+            }
+            apply(date, type, amount);
+            batch.setAccepted(index, true);
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Returns the next transaction number of a date. Consecutive postings on one date only touch two fields.
+     *
+     * @param date The transaction date.
+     * @return The number of the transaction within its date, from 1.
+     */
+    private int nextSequence(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day != sequenceDay) switchSequenceDay(day, date);
+        return ++sequenceCount;
+    }
+
+    private void switchSequenceDay(long day, LocalDate date) {
+        if (sequenceDay != Long.MIN_VALUE) transactionCountMap.put(LocalDate.ofEpochDay(sequenceDay), sequenceCount);
+        sequenceDay = day;
+        sequenceCount = transactionCountMap.getOrDefault(date, 0);
+    }
+
+    /**
+     * Restores a previously accepted transaction, e.g. from a snapshot, without checking the balance or
+     * notifying the transaction listener. The account balance becomes the balance after the transaction.
+     *
+     * @param date     The transaction date.
+     * @param sequence The number of the transaction within its date.
+     * @param type     The type of transaction ("D" for deposit, "W" for withdrawal).
+     * @param amount   The amount in cents.
+     * @param balance  The balance after the transaction in cents.
+     */
+    public synchronized void restoreTransaction(LocalDate date, int sequence, String type, long amount, long balance) {
+        long day = date.toEpochDay();
+        if (day != sequenceDay) switchSequenceDay(day, date);
+        sequenceCount = Math.max(sequenceCount, sequence);
+        this.balance = balance;
+        addToDailyBalances(day, type.equals("D") ? amount : -amount);
+        transactions.add(date, sequence, type, amount, balance);
+        clearAccruals();
+    }
+
+    /**
+     * Records the amount of a transaction about to be stored on its day. The daily balances are only kept once a
+     * transaction is dated before the latest one.
+     *
+     * @param day          The epoch-day of the transaction.
+     * @param signedAmount The amount in cents, negative for a withdrawal.
+     */
+    private void addToDailyBalances(long day, long signedAmount) {
+        if (day < lastDay) {
+            dailyBalances().add(day, signedAmount);
+        } else {
+            if (dailyBalances != null) dailyBalances.add(day, signedAmount);
+            lastDay = day;
+        }
+    }
+
+    /**
+     * Returns the daily balances, building them from the transactions stored so far on first use. Until then
+     * no transaction has been back-dated, so the stored transactions are in date order.
+     *
+     * @return The daily balances.
+     */
+    private DailyBalances dailyBalances() {
+        if (dailyBalances == null) {
+            DailyBalances balances = new DailyBalances();
+            transactions.forEach(txn -> balances.add(txn.getEpochDay(),
+                    txn.getType().equals("D") ? txn.getAmountCents() : -txn.getAmountCents()));
+            dailyBalances = balances;
+        }
+        return dailyBalances;
+    }
+
+    /**
+     * Visits the transactions of a date range in date order. Once transactions have been back-dated, the
+     * balances they were stored with miss the transactions posted after them, so the balances are re-rolled
+     * from the balance at the start of the range.
+     *
+     * @param startDate The start date of the range.
+     * @param endDate   The end date of the range.
+     * @param visitor   The visitor of each transaction.
+     */
+    private void visitInRange(LocalDate startDate, LocalDate endDate, Consumer<TransactionView> visitor) {
+        if (dailyBalances == null) {
+            transactions.forEachInRange(startDate, endDate, visitor);
+            return;
+        }
+        long openingBalance = dailyBalances.balanceThrough(startDate.toEpochDay() - 1);
+        transactions.forEachInRange(startDate, endDate, new RolledBalanceView(visitor, openingBalance));
+    }
+
+    private void visitAll(Consumer<TransactionView> visitor) {
+        if (dailyBalances == null) {
+            transactions.forEach(visitor);
+        } else {
+            visitInRange(LocalDate.MIN, LocalDate.MAX, visitor);
+        }
+    }
+
+    /**
+     * Visits all transactions in date order, while holding the account lock. Transactions on the same date are
+     * visited in the order they were added.
+     *
+     * @param visitor The visitor of each transaction; it must not keep a reference to the visited view.
+     */
+    public synchronized void forEachTransaction(Consumer<TransactionView> visitor) {
+        visitAll(visitor);
+    }
+
+    /**
+     * Visits the transactions of a date range in date order, while holding the account lock.
+     *
+     * @param startDate The start date of the range.
+     * @param endDate   The end date of the range.
+     * @param visitor   The visitor of each transaction; it must not keep a reference to the visited view.
+     */
+    public synchronized void forEachTransactionInRange(LocalDate startDate, LocalDate endDate,
+                                                       Consumer<TransactionView> visitor) {
+        visitInRange(startDate, endDate, visitor);
+    }
+
+    /**
+     * Returns the number of transactions in the account.
+     *
+     * @return The number of transactions.
+     */
+    public synchronized int getTransactionCount() {
+        return transactions.size();
+    }
+
     /**
      * Prints a statement of all transactions in the account.
      */
     @Override
     public void printStatement() {
-        System.out.println("Bank Account: " + accountId);
-        System.out.println("| Date\t | Txn Id\t | Type\t | Amount\t | Balance\t |");
-        // Print each transaction in a formatted manner
-        transactions.forEach(txn -> System.out.printf("| %s\t | %s\t | %s\t | %6.2f\t | %6.2f\t |%n",
-                txn.getDate().format(dateFormatter), txn.getId(), txn.getType(), txn.getAmount(), txn.getBalance()));
+        StatementWriter writer = StatementWriter.toStandardOutput();
+        printStatement(writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes a statement of all transactions in the account.
+     *
+     * @param writer The writer to render the statement with; it is not flushed.
+     */
+    public synchronized void printStatement(StatementWriter writer) {
+        writer.writeStatementHeader("Bank Account: ", accountId);
+        // Write each transaction in a formatted manner
+        visitAll(writer::writeTransaction);
     }
 
     /**
@@ -74,43 +402,64 @@ public class BankAccount implements StatementPrinter, InterestCalculator {
      */
     @Override
     public void printMonthlyStatement(String period, Set<InterestRule> interestRules) {
-        System.out.println("Account: " + accountId);
-        System.out.println("| Date\t | Txn Id\t | Type\t | Amount\t | Balance\t |");
+        printMonthlyStatement(period, indexRulesByDate(interestRules));
+    }
+
+    /**
+     * Prints a monthly statement for a given period, including interest calculations.
+     *
+     * @param period      The period in "yyyyMM" format.
+     * @param rulesByDate The interest rules indexed by their effective date.
+     */
+    @Override
+    public void printMonthlyStatement(String period, NavigableMap<LocalDate, InterestRule> rulesByDate) {
+        StatementWriter writer = StatementWriter.toStandardOutput();
+        printMonthlyStatement(period, rulesByDate, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes a monthly statement for a given period, including interest calculations.
+     *
+     * @param period      The period in "yyyyMM" format.
+     * @param rulesByDate The interest rules indexed by their effective date.
+     * @param writer      The writer to render the statement with; it is not flushed.
+     */
+    public synchronized void printMonthlyStatement(String period, NavigableMap<LocalDate, InterestRule> rulesByDate,
+                                                   StatementWriter writer) {
+        writer.writeStatementHeader("Account: ", accountId);
 
         // Parse start and end dates for the given period
         LocalDate startDate = parseDate(period + "01");
         LocalDate endDate = parseDate(period + "31");
 
         // Print transactions for the period and get the last transaction balance
-        double lastTransactionBalance = printTransactionsForPeriod(period);
+        long lastTransactionBalance = printTransactionsForPeriod(startDate, endDate, writer);
         // Calculate interest for the period
-        double interest = calculateInterest(startDate, endDate, interestRules);
+        long interest = calculateInterestCents(startDate, endDate, rulesByDate);
         // Calculate month-end balance including interest
-        double monthEndBalance = lastTransactionBalance + interest;
+        long monthEndBalance = lastTransactionBalance + interest;
 
         // Print the interest and month-end balance
-        System.out.printf("| %s\t | %s\t | %s\t | %6.2f\t | %6.2f\t |%n",
-                endDate.format(dateFormatter), "\t", "I", interest, monthEndBalance);
+        writer.writeInterest(endDate, interest, monthEndBalance);
     }
 
     /**
      * Prints transactions for a specific period and returns the last transaction balance.
      *
-     * @param period The period in "yyyyMM" format.
-     * @return The balance after the last transaction in the period.
-     */
-    private double printTransactionsForPeriod(String period) {
-        double lastBalance = 0;
-        // Iterate through transactions and print those within the period
-        for (Transaction txn : transactions) {
-            if (txn.getDate().format(dateFormatter).startsWith(period)) {
-                System.out.printf("| %s\t | %s\t | %s\t | %6.2f\t | %6.2f\t |%n",
-                        txn.getDate().format(dateFormatter),
-                        txn.getId(), txn.getType(), txn.getAmount(), txn.getBalance());
-                lastBalance = txn.getBalance(); // Update last balance
-            }
-        }
-        return lastBalance;
+     * @param startDate The start date of the period.
+     * @param endDate   The end date of the period.
+     * @param writer    The writer to render the transactions with.
+     * @return The balance after the last transaction in the period in cents.
+     */
+    private long printTransactionsForPeriod(LocalDate startDate, LocalDate endDate, StatementWriter writer) {
+        long[] lastBalance = {0};
+        // Iterate through the transactions of the period only
+        visitInRange(startDate, endDate, txn -> {
+            writer.writeTransaction(txn);
+            lastBalance[0] = txn.getBalanceCents(); // Update last balance
+        });
+        return lastBalance[0];
     }
 
     /**
@@ -123,122 +472,149 @@ public class BankAccount implements StatementPrinter, InterestCalculator {
      */
     @Override
     public double calculateInterest(LocalDate startDate, LocalDate endDate, Set<InterestRule> interestRules) {
-        List<InterestRule> sortedInterestRules = new ArrayList<>(interestRules);
-        // Merge transactions and interest rules into a single sorted list
-        List<AccountActivity> mergedTransactions = getMergedTransactionsAndRules(startDate, endDate, sortedInterestRules);
-
-        if (mergedTransactions.isEmpty()) return 0.00; // if no transactions, no interest
-
-        double endOfDayBalance = 0.0;
-        double totalInterest = 0.0;
-        Iterator<AccountActivity> iterator = mergedTransactions.iterator();
-        AccountActivity currentActivity = iterator.next();
-
-        // Iterate through merged transactions and calculate daily interest
-        while (iterator.hasNext()) {
-            AccountActivity nextActivity = iterator.next();
-
-            if (!"R".equals(currentActivity.getType())) {
-                endOfDayBalance = currentActivity.getBalance(); // Update balance for non-rule transactions
-            }
-
-            LocalDate currentDate = currentActivity.getDate();
-            LocalDate nextDate = nextActivity.getDate().minusDays(1);
-
-            // Calculate days between current and next transaction
-            int daysBetween = (iterator.hasNext())
-                    ? (int) ChronoUnit.DAYS.between(currentDate, nextDate) + 1
-                    : (int) ChronoUnit.DAYS.between(currentDate, nextActivity.getDate().plusDays(1));
+        return calculateInterest(startDate, endDate, indexRulesByDate(interestRules));
+    }
 
-            if (!iterator.hasNext()) {
-                nextDate = nextActivity.getDate();
-            }
+    /**
+     * Calculates the interest for a given period based on interest rules.
+     *
+     * @param startDate   The start date of the period.
+     * @param endDate     The end date of the period.
+     * @param rulesByDate The interest rules indexed by their effective date.
+     * @return The calculated interest for the period.
+     */
+    @Override
+    public double calculateInterest(LocalDate startDate, LocalDate endDate,
+                                    NavigableMap<LocalDate, InterestRule> rulesByDate) {
+        return Money.toAmount(calculateInterestCents(startDate, endDate, rulesByDate));
+    }
 
-            // Calculate daily interest and add to total interest
-            double dailyInterest = endOfDayBalance * findEffectiveRate(sortedInterestRules, nextDate)
-                    / 100 * daysBetween;
-            totalInterest += dailyInterest;
-            currentActivity = nextActivity;
+    /**
+     * Calculates the interest for a given period based on interest rules, in cents.
+     * Transactions and rule changes within the period split it into segments with a constant
+     * end-of-day balance and rate. The transactions are visited in date order and merged with the
+     * rule changes in a single pass, and the rate of each segment is looked up from the date index.
+     * <p>
+     * The accruals of the latest two calendar months are kept and updated on each posting, so asking
+     * again for one of those months only checks that its rules have not changed.
+     *
+     * @param startDate   The start date of the period.
+     * @param endDate     The end date of the period.
+     * @param rulesByDate The interest rules indexed by their effective date.
+     * @return The calculated interest for the period in cents.
+     */
+    @Override
+    public synchronized long calculateInterestCents(LocalDate startDate, LocalDate endDate,
+                                                    NavigableMap<LocalDate, InterestRule> rulesByDate) {
+        long startTime = System.nanoTime();
+        try {
+            return interestCents(startDate, endDate, rulesByDate);
+        } finally {
+            CALCULATE_INTEREST_LATENCY.recordSince(startTime);
         }
+    }
 
-        // Round the total interest to 2 decimal places
-        return Math.round(totalInterest / 365 * 100.0) / 100.0;
+    private long interestCents(LocalDate startDate, LocalDate endDate,
+                               NavigableMap<LocalDate, InterestRule> rulesByDate) {
+        if (startDate.getDayOfMonth() != 1 || !endDate.equals(startDate.withDayOfMonth(startDate.lengthOfMonth()))) {
+            return accrue(RuleWindow.of(rulesByDate, startDate, endDate)).interestCents();
+        }
+        latestRules = rulesByDate;
+        InterestAccrual accrual = findAccrual(startDate.toEpochDay());
+        if (accrual == null || !accrual.getRules().matches(rulesByDate)) {
+            accrual = accrue(RuleWindow.of(rulesByDate, startDate, endDate));
+            keepAccrual(accrual);
+        }
+        return accrual.interestCents();
     }
 
     /**
-     * Merges transactions and interest rules into a single AccountActivity list sorted by date .
+     * Accrues the interest of a period from its transactions.
      *
-     * @param startDate     The start date of the period.
-     * @param endDate       The end date of the period.
-     * @param interestRules A list of interest rules applicable for the period.
-     * @return A sorted list of merged transactions and rules.
+     * @param rules The rules affecting the period.
+     * @return The accrual of the period.
      */
-    private List<AccountActivity> getMergedTransactionsAndRules
-    (LocalDate startDate, LocalDate endDate, List<InterestRule> interestRules) {
-        // Filter transactions within the period
-        List<AccountActivity> transactionsInPeriod = filterAndMapTransactionsToActivities(startDate, endDate);
-        // Map interest rules to transactions
-        List<AccountActivity> ruleDates = mapRulesToActivities(interestRules, startDate, endDate);
+    private InterestAccrual accrue(RuleWindow rules) {
+        InterestAccrual accrual = new InterestAccrual(rules);
+        // Transactions on the end date are covered by the closing segment of the period
+        visitInRange(LocalDate.ofEpochDay(rules.getStartDay()),
+                LocalDate.ofEpochDay(rules.getEndDay() - 1), accrual);
+        return accrual;
+    }
 
-        // Add a dummy transaction for the end date
-        transactionsInPeriod.add(new AccountActivity("", endDate, "R", 0.00, 0.00));
+    private InterestAccrual findAccrual(long startDay) {
+        if (currentAccrual != null && currentAccrual.getStartDay() == startDay) return currentAccrual;
+        if (previousAccrual != null && previousAccrual.getStartDay() == startDay) return previousAccrual;
+        return null;
+    }
 
-        // Merge and sort transactions and rules by date
-        return Stream.concat(ruleDates.stream(), transactionsInPeriod.stream())
-                .collect(Collectors.toMap(
-                        AccountActivity::getDate,
-                        accountActivity -> accountActivity,
-                        (existing, replacement) -> replacement
-                ))
-                .values()
-                .stream()
-                .sorted(Comparator.comparing(AccountActivity::getDate))
-                .collect(Collectors.toList());
+    /**
+     * Keeps a monthly accrual if it is for one of the latest two months accrued.
+     *
+     * @param accrual The accrual to keep.
+     */
+    private void keepAccrual(InterestAccrual accrual) {
+        if (currentAccrual == null || accrual.getStartDay() >= currentAccrual.getStartDay()) {
+            if (currentAccrual != null && accrual.getStartDay() > currentAccrual.getStartDay()) {
+                previousAccrual = currentAccrual;
+            }
+            currentAccrual = accrual;
+        } else if (previousAccrual == null || accrual.getStartDay() >= previousAccrual.getStartDay()) {
+            previousAccrual = accrual;
+        }
     }
 
     /**
-     * Filters transactions within a specified date range.
+     * Applies a new transaction to the kept accruals. The first posting after the current month starts the
+     * accrual of its own month; a back-dated posting drops the accruals it changes, to be rebuilt on demand.
      *
-     * @param startDate The start date of the range.
-     * @param endDate   The end date of the range.
-     * @return A list of transactions within the range mapped as a list of AccountActivity.
+     * @param day The epoch-day of the transaction.
      */
-    private List<AccountActivity> filterAndMapTransactionsToActivities(LocalDate startDate, LocalDate endDate) {
-        return transactions.stream()
-                .filter(txn -> !txn.getDate().isBefore(startDate) && !txn.getDate().isAfter(endDate))
-                .map(txn -> new AccountActivity(txn.getId(), txn.getDate(), txn.getType(), txn.getAmount(), txn.getBalance()))
-                .collect(Collectors.toList());
+    private void postToAccruals(long day) {
+        if (currentAccrual != null && day > currentAccrual.getEndDay() && latestRules != null) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            LocalDate startDate = date.withDayOfMonth(1);
+            previousAccrual = currentAccrual;
+            currentAccrual = accrue(RuleWindow.of(latestRules, startDate, date.withDayOfMonth(date.lengthOfMonth())));
+            return;
+        }
+        currentAccrual = postToAccrual(currentAccrual, day);
+        previousAccrual = postToAccrual(previousAccrual, day);
+    }
+
+    private InterestAccrual postToAccrual(InterestAccrual accrual, long day) {
+        if (accrual == null || day >= accrual.getEndDay()) return accrual;
+        if (!accrual.canPost(day)) return null;
+        accrual.post(day, balance);
+        return accrual;
     }
 
     /**
-     * Maps interest rules to transactions for a specified date range.
+     * Drops the kept accruals whose balances a back-dated posting changes.
      *
-     * @param interestRules A list of interest rules.
-     * @param startDate     The start date of the range.
-     * @param endDate       The end date of the range.
-     * @return A list of transactions representing interest rules.
+     * @param day The epoch-day of the posting.
      */
-    private List<AccountActivity> mapRulesToActivities
-    (List<InterestRule> interestRules, LocalDate startDate, LocalDate endDate) {
-        return interestRules.stream()
-                .filter(rule -> !rule.getDate().isBefore(startDate) && !rule.getDate().isAfter(endDate))
-                .map(rule -> new AccountActivity(rule.getRuleId(), rule.getDate(), "R", rule.getRate(), 0.00))
-                .collect(Collectors.toList());
+    private void dropAccrualsFrom(long day) {
+        if (currentAccrual != null && day < currentAccrual.getEndDay()) currentAccrual = null;
+        if (previousAccrual != null && day < previousAccrual.getEndDay()) previousAccrual = null;
+    }
+
+    private void clearAccruals() {
+        currentAccrual = null;
+        previousAccrual = null;
     }
 
     /**
-     * Finds the effective interest rate for a given date.
+     * Indexes interest rules by their effective date.
+     * When several rules share a date, the first one in iteration order is used.
      *
-     * @param interestRules A list of interest rules.
-     * @param date          The date for which to find the effective rate.
-     * @return The effective interest rate for the date.
+     * @param interestRules The interest rules to index.
+     * @return The interest rules indexed by their effective date.
      */
-    private double findEffectiveRate(List<InterestRule> interestRules, LocalDate date) {
-        return interestRules.stream()
-                .filter(rule -> !rule.getDate().isAfter(date))
-                .max(Comparator.comparing(InterestRule::getDate))
-                .map(InterestRule::getRate)
-                .orElse(0.0); // Default to 0.0 if no rule is found
+    private static NavigableMap<LocalDate, InterestRule> indexRulesByDate(Set<InterestRule> interestRules) {
+        NavigableMap<LocalDate, InterestRule> rulesByDate = new TreeMap<>();
+        interestRules.forEach(rule -> rulesByDate.putIfAbsent(rule.getDate(), rule));
+        return rulesByDate;
     }
 
     /**
@@ -250,21 +626,25 @@ public class BankAccount implements StatementPrinter, InterestCalculator {
      */
     private LocalDate parseDate(String dateStr) {
         try {
-            return LocalDate.parse(dateStr, dateFormatter);
+            return LocalDate.parse(dateStr, Dates.DATE_FORMATTER);
         } catch (DateTimeParseException e) {
             throw new IllegalArgumentException("Invalid date format: " + dateStr, e);
         }
     }
 
     /**
-     * Validates the available balance is sufficient for withdrawal.
+     * Validates the available balance is sufficient for withdrawal. A withdrawal dated before the latest
+     * transaction lowers the balance after every later transaction too, so none of them may become negative.
      *
+     * @param day    The epoch-day of the transaction.
      * @param type   The transaction type ("D" for deposit, "W" for withdrawal).
-     * @param amount The withdrawal amount.
-     * @return True if current account balance is sufficient for withdrawal.
+     * @param amount The withdrawal amount in cents.
+     * @return True if the account balances are sufficient for withdrawal.
      */
-    private boolean checkInsufficientBalance(String type, double amount) {
-        if (type.equals("W") && (balance - amount < 0)) {
+    private boolean checkInsufficientBalance(long day, String type, long amount) {
+        if (!type.equals("W")) return true;
+        long lowestBalance = day >= lastDay ? balance : dailyBalances().lowestBalanceFrom(day);
+        if (lowestBalance - amount < 0) {
             return false; // Insufficient balance for withdrawal
         }
         return true;
@@ -275,9 +655,16 @@ public class BankAccount implements StatementPrinter, InterestCalculator {
      *
      * @param transactions The list of transactions to set.
      */
-    public void setTransactions(List<Transaction> transactions) {
+    public synchronized void setTransactions(List<Transaction> transactions) {
         this.transactions.clear();
-        this.transactions.addAll(transactions);
+        lastDay = Long.MIN_VALUE;
+        dailyBalances = null;
+        for (Transaction transaction : transactions) {
+            addToDailyBalances(transaction.getEpochDay(), transaction.getType().equals("D")
+                    ? transaction.getAmountCents() : -transaction.getAmountCents());
+            this.transactions.add(transaction);
+        }
+        clearAccruals();
     }
 
     /**
@@ -285,17 +672,30 @@ public class BankAccount implements StatementPrinter, InterestCalculator {
      *
      * @return The current balance.
      */
-    public double getBalance() {
+    public synchronized double getBalance() {
+        return Money.toAmount(balance);
+    }
+
+    /**
+     * Returns the current balance of the account in cents.
+     *
+     * @return The current balance in cents.
+     */
+    public synchronized long getBalanceCents() {
         return balance;
     }
 
     /**
-     * Returns the list of transactions for the account.
+     * Returns the list of transactions for the account, in date order.
      *
-     * @return The list of transactions.
+     * @return A read-only snapshot of the transactions.
      */
-    public List<Transaction> getTransactions() {
-        return transactions;
+    public synchronized List<Transaction> getTransactions() {
+        if (dailyBalances == null) return transactions.getTransactions();
+        List<Transaction> rolled = new ArrayList<>(transactions.size());
+        visitAll(txn -> rolled.add(Transaction.ofCents(txn.getId(), txn.getDate(), txn.getType(),
+                txn.getAmountCents(), txn.getBalanceCents())));
+        return Collections.unmodifiableList(rolled);
     }
 
 
@@ -307,4 +707,60 @@ public class BankAccount implements StatementPrinter, InterestCalculator {
     public String getAccountId() {
         return accountId;
     }
-}
\ No newline at end of file
+
+    /**
+     * Passes transactions visited in date order on with the running balance from an opening balance.
+     */
+    private static final class RolledBalanceView implements Consumer<TransactionView>, TransactionView {
+        private final Consumer<TransactionView> visitor;
+        private TransactionView txn;
+        private long balance;
+
+        private RolledBalanceView(Consumer<TransactionView> visitor, long openingBalance) {
+            this.visitor = visitor;
+            this.balance = openingBalance;
+        }
+
+        @Override
+        public void accept(TransactionView txn) {
+            this.txn = txn;
+            balance += txn.getType().equals("D") ? txn.getAmountCents() : -txn.getAmountCents();
+            visitor.accept(this);
+        }
+
+        @Override
+        public LocalDate getDate() {
+            return txn.getDate();
+        }
+
+        @Override
+        public long getEpochDay() {
+            return txn.getEpochDay();
+        }
+
+        @Override
+        public String getId() {
+            return txn.getId();
+        }
+
+        @Override
+        public int getSequence() {
+            return txn.getSequence();
+        }
+
+        @Override
+        public String getType() {
+            return txn.getType();
+        }
+
+        @Override
+        public long getAmountCents() {
+            return txn.getAmountCents();
+        }
+
+        @Override
+        public long getBalanceCents() {
+            return balance;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.gic.banking.model;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Compact transaction store keeping each field in a parallel primitive array.
+ * Rows hold the epoch-day, the sequence within the day, the type and the amount and balance in cents,
+ * so a transaction costs about 25 bytes instead of a Transaction, LocalDate and id String per row.
+ * Transaction ids are derived from the date and sequence when read, so ids not in the
+ * "yyyyMMdd-sequence" form are not preserved.
+ */
+public class ColumnarTransactionStore implements TransactionStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte DEPOSIT = 'D';
+    private static final byte WITHDRAWAL = 'W';
+
+    private int size;
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] sequences = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private long[] balances = new long[INITIAL_CAPACITY];
+    // Row indexes in date order, rows of one date in the order added. Kept from the first row added out of date
+    // order; while null the rows themselves are in date order, which allows binary searching a date range
+    private int[] dateOrder;
+
+    @Override
+    public void add(LocalDate date, int sequence, String type, long amount, long balance) {
+        if (size == epochDays.length) grow();
+        int epochDay = (int) date.toEpochDay();
+        if (dateOrder == null && size > 0 && epochDays[size - 1] > epochDay) startDateOrder();
+        if (dateOrder != null) insertInDateOrder(epochDay);
+        epochDays[size] = epochDay;
+        sequences[size] = sequence;
+        types[size] = "D".equals(type) ? DEPOSIT : WITHDRAWAL;
+        amounts[size] = amount;
+        balances[size] = balance;
+        size++;
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        add(transaction.getDate(), transaction.getSequence(), transaction.getType(),
+                transaction.getAmountCents(), transaction.getBalanceCents());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        // Fresh arrays keep earlier snapshots from getTransactions intact
+        size = 0;
+        dateOrder = null;
+        epochDays = new int[INITIAL_CAPACITY];
+        sequences = new int[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        balances = new long[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void forEach(Consumer<TransactionView> visitor) {
+        Row row = new Row(this);
+        for (int i = 0; i < size; i++) {
+            visitor.accept(row.at(i));
+        }
+    }
+
+    @Override
+    public void forEachInRange(LocalDate startDate, LocalDate endDate, Consumer<TransactionView> visitor) {
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+        Row row = new Row(this);
+        if (dateOrder == null) {
+            for (int i = firstIndexOnOrAfter(startDay); i < size && epochDays[i] <= endDay; i++) {
+                visitor.accept(row.at(i));
+            }
+            return;
+        }
+        for (int i = firstPositionAfter(startDay - 1); i < size && epochDays[dateOrder[i]] <= endDay; i++) {
+            visitor.accept(row.at(dateOrder[i]));
+        }
+    }
+
+    /**
+     * Returns a lazy snapshot of the transactions. Rows are only turned into Transaction objects when read.
+     *
+     * @return The transactions.
+     */
+    @Override
+    public List<Transaction> getTransactions() {
+        return new Snapshot(this);
+    }
+
+    private int firstIndexOnOrAfter(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first position in date order whose row is dated after a day.
+     */
+    private int firstPositionAfter(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[dateOrder[mid]] <= epochDay) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private void startDateOrder() {
+        dateOrder = new int[epochDays.length];
+        for (int i = 0; i < size; i++) {
+            dateOrder[i] = i;
+        }
+    }
+
+    /**
+     * Places the row about to be added after the rows of its date and before the later ones. Only the row
+     * indexes move, so adding a back-dated row costs a copy of ints rather than a sort on every range visit.
+     */
+    private void insertInDateOrder(int epochDay) {
+        int position = firstPositionAfter(epochDay);
+        System.arraycopy(dateOrder, position, dateOrder, position + 1, size - position);
+        dateOrder[position] = size;
+    }
+
+    private void grow() {
+        int capacity = epochDays.length + (epochDays.length >> 1);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        types = Arrays.copyOf(types, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        balances = Arrays.copyOf(balances, capacity);
+        if (dateOrder != null) dateOrder = Arrays.copyOf(dateOrder, capacity);
+    }
+
+    /**
+     * Flyweight view over one row of the arrays, repositioned while visiting.
+     */
+    private static class Row implements TransactionView {
+        private final int[] epochDays;
+        private final int[] sequences;
+        private final byte[] types;
+        private final long[] amounts;
+        private final long[] balances;
+        private int index;
+
+        private Row(ColumnarTransactionStore store) {
+            this.epochDays = store.epochDays;
+            this.sequences = store.sequences;
+            this.types = store.types;
+            this.amounts = store.amounts;
+            this.balances = store.balances;
+        }
+
+        private Row(Row row) {
+            this.epochDays = row.epochDays;
+            this.sequences = row.sequences;
+            this.types = row.types;
+            this.amounts = row.amounts;
+            this.balances = row.balances;
+        }
+
+        private Row at(int index) {
+            this.index = index;
+            return this;
+        }
+
+        @Override
+        public LocalDate getDate() {
+            return LocalDate.ofEpochDay(epochDays[index]);
+        }
+
+        @Override
+        public long getEpochDay() {
+            return epochDays[index];
+        }
+
+        @Override
+        public String getId() {
+            return Transaction.formatId(getDate(), sequences[index]);
+        }
+
+        @Override
+        public int getSequence() {
+            return sequences[index];
+        }
+
+        @Override
+        public String getType() {
+            return types[index] == DEPOSIT ? "D" : "W";
+        }
+
+        @Override
+        public long getAmountCents() {
+            return amounts[index];
+        }
+
+        @Override
+        public long getBalanceCents() {
+            return balances[index];
+        }
+
+        private Transaction toTransaction() {
+            return Transaction.ofCents(getId(), getDate(), getType(), getAmountCents(), getBalanceCents());
+        }
+    }
+
+    /**
+     * Read-only list over the rows present when it was created. Rows are never modified once added,
+     * and growing or clearing the store replaces the arrays, so the captured arrays stay valid.
+     */
+    private static class Snapshot extends AbstractList<Transaction> implements RandomAccess {
+        private final Row row;
+        private final int size;
+
+        private Snapshot(ColumnarTransactionStore store) {
+            this.row = new Row(store);
+            this.size = store.size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return new Row(row).at(index).toTransaction();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
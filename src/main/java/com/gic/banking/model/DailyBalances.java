@@ -0,0 +1,116 @@
+package com.gic.banking.model;
+
+/**
+ * Net amount posted on each day of an account, kept in a segment tree over a range of epoch-days. Each node
+ * holds the net amount of its days and the lowest running total within them, so the balance at the end of a
+ * day and the lowest balance after it are both found in O(log days), and a posting only updates one leaf and
+ * its ancestors.
+ * <p>
+ * A posting is applied at the end of its day, after the postings of the same date already applied. The range
+ * of days at least doubles whenever a posting falls outside it.
+ */
+final class DailyBalances {
+    private static final int INITIAL_DAYS = 64;
+
+    private long firstDay; // Epoch-day of the first leaf
+    private int days; // Number of leaves, a power of two, 0 until the first posting
+    // Nodes of the tree, the root at 1 and the leaf of each day at days + (day - firstDay)
+    private long[] sums; // Net amount of the days under each node
+    private long[] lowest; // Lowest running total within the days under each node, at most 0
+
+    /**
+     * Applies a posting at the end of its day.
+     *
+     * @param day    The epoch-day of the posting.
+     * @param amount The amount in cents, negative for a withdrawal.
+     */
+    void add(long day, long amount) {
+        if (days == 0) {
+            firstDay = day;
+            days = INITIAL_DAYS;
+            sums = new long[2 * days];
+            lowest = new long[2 * days];
+        } else if (day < firstDay || day >= firstDay + days) {
+            resize(day);
+        }
+        int node = days + (int) (day - firstDay);
+        sums[node] += amount;
+        lowest[node] = Math.min(lowest[node], sums[node]);
+        for (node >>= 1; node > 0; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    /**
+     * Returns the balance at the end of a day.
+     *
+     * @param day The epoch-day.
+     * @return The net amount of the postings dated on or before the day, in cents.
+     */
+    long balanceThrough(long day) {
+        if (days == 0 || day < firstDay) return 0;
+        if (day >= firstDay + days - 1) return sums[1];
+        long balance = 0;
+        for (int low = days, high = days + (int) (day - firstDay) + 1; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) balance += sums[low++];
+            if ((high & 1) == 1) balance += sums[--high];
+        }
+        return balance;
+    }
+
+    /**
+     * Returns the lowest balance from the end of a day on: at the end of the day and after each later posting.
+     * A withdrawal posted on the day lowers every one of these balances by its amount.
+     *
+     * @param day The epoch-day.
+     * @return The lowest balance in cents.
+     */
+    long lowestBalanceFrom(long day) {
+        long balance = balanceThrough(day);
+        long from = Math.max(day + 1, firstDay);
+        if (days == 0 || from >= firstDay + days) return balance;
+        // The later days run to the last leaf, so the nodes covering them are all collected from the left
+        long sum = 0;
+        long lowestTotal = 0;
+        for (int low = days + (int) (from - firstDay), high = 2 * days; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                lowestTotal = Math.min(lowestTotal, sum + lowest[low]);
+                sum += sums[low++];
+            }
+        }
+        return balance + lowestTotal;
+    }
+
+    private void pull(int node) {
+        int left = 2 * node;
+        sums[node] = sums[left] + sums[left + 1];
+        lowest[node] = Math.min(lowest[left], sums[left] + lowest[left + 1]);
+    }
+
+    /**
+     * Widens the range of days to cover a day. Widening to earlier days keeps the last day of the range, so
+     * that further back-dated days are likely covered too.
+     */
+    private void resize(long day) {
+        long endDay = firstDay + days;
+        long newFirstDay = Math.min(firstDay, day);
+        long newEndDay = Math.max(endDay, day + 1);
+        int newDays = days;
+        while (newDays < newEndDay - newFirstDay) {
+            newDays *= 2;
+        }
+        if (day < firstDay) newFirstDay = newEndDay - newDays;
+        long[] newSums = new long[2 * newDays];
+        long[] newLowest = new long[2 * newDays];
+        int offset = newDays + (int) (firstDay - newFirstDay);
+        System.arraycopy(sums, days, newSums, offset, days);
+        System.arraycopy(lowest, days, newLowest, offset, days);
+        firstDay = newFirstDay;
+        days = newDays;
+        sums = newSums;
+        lowest = newLowest;
+        for (int node = days - 1; node > 0; node--) {
+            pull(node);
+        }
+    }
+}
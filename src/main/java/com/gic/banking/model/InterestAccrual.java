@@ -0,0 +1,100 @@
+package com.gic.banking.model;
+
+import java.util.function.Consumer;
+
+/**
+ * Accumulates the interest of a period while transactions are posted or visited in date order.
+ * <p>
+ * Each transaction or rule change closes the segment started by the previous one, and the last segment
+ * runs to the end date of the period. Transactions on the end date are covered by that closing segment.
+ * The open segment is only closed when the interest is read, so the accrual can keep taking postings.
+ */
+final class InterestAccrual implements Consumer<TransactionView> {
+    private final RuleWindow rules;
+    private final long endDay;
+    private long ruleDay; // First day whose rule change has not started a segment yet
+    private long segmentStart = Long.MIN_VALUE; // No segment is open until the first activity
+    private long lastDay = Long.MIN_VALUE;
+    private long endOfDayBalance;
+    private double totalInterest; // Sum of balance-days in cents multiplied by the rate in percent
+
+    InterestAccrual(RuleWindow rules) {
+        this.rules = rules;
+        this.endDay = rules.getEndDay();
+        this.ruleDay = rules.getStartDay();
+    }
+
+    @Override
+    public void accept(TransactionView txn) {
+        post(txn.getEpochDay(), txn.getBalanceCents());
+    }
+
+    /**
+     * Applies a transaction posted within the period, no earlier than the transactions already applied.
+     *
+     * @param day     The epoch-day of the transaction.
+     * @param balance The balance after the transaction in cents.
+     */
+    void post(long day, long balance) {
+        if (day >= endDay) return;
+        for (long next = rules.nextRuleDay(ruleDay); next < day; next = rules.nextRuleDay(ruleDay)) {
+            startSegment(next);
+            ruleDay = next + 1;
+        }
+        startSegment(day);
+        ruleDay = Math.max(ruleDay, day + 1);
+        // The last transaction of the day determines the end-of-day balance
+        endOfDayBalance = balance;
+        lastDay = day;
+    }
+
+    /**
+     * Checks whether a posting on a day can be applied incrementally.
+     *
+     * @param day The epoch-day of the posting.
+     * @return true if the day is within the period and not before the last applied transaction.
+     */
+    boolean canPost(long day) {
+        return day >= rules.getStartDay() && day >= lastDay;
+    }
+
+    /**
+     * Returns the interest of the period, closing the open segment at the end date without changing the state.
+     *
+     * @return The interest of the period in cents.
+     */
+    long interestCents() {
+        double interest = totalInterest;
+        long start = segmentStart;
+        for (long next = rules.nextRuleDay(ruleDay); next < endDay; next = rules.nextRuleDay(next + 1)) {
+            if (start != Long.MIN_VALUE) interest += segmentInterest(start, next - 1);
+            start = next;
+        }
+        if (start != Long.MIN_VALUE) interest += segmentInterest(start, endDay);
+        // Convert the rate from percent and the balance-days to a yearly amount, rounded to the cent
+        return Math.round(interest / (100 * 365));
+    }
+
+    RuleWindow getRules() {
+        return rules;
+    }
+
+    long getStartDay() {
+        return rules.getStartDay();
+    }
+
+    long getEndDay() {
+        return endDay;
+    }
+
+    private void startSegment(long day) {
+        if (day == segmentStart) return;
+        if (segmentStart != Long.MIN_VALUE) totalInterest += segmentInterest(segmentStart, day - 1);
+        segmentStart = day;
+    }
+
+    private double segmentInterest(long start, long end) {
+        long daysBetween = end - start + 1;
+        return endOfDayBalance * daysBetween * rules.rateOn(end);
+    }
+}
@@ -0,0 +1,70 @@
+package com.gic.banking.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Transaction store keeping a Transaction object per transaction, bucketed by month.
+ */
+public class ListTransactionStore implements TransactionStore {
+    private final List<Transaction> transactions = new ArrayList<>(); // Transactions in the order they were added
+    private final NavigableMap<YearMonth, List<Transaction>> transactionsByMonth = new TreeMap<>(); // Date ordered buckets
+
+    @Override
+    public void add(LocalDate date, int sequence, String type, long amount, long balance) {
+        add(Transaction.ofCents(Transaction.formatId(date, sequence), date, type, amount, balance));
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        transactions.add(transaction);
+        List<Transaction> bucket = transactionsByMonth
+                .computeIfAbsent(YearMonth.from(transaction.getDate()), month -> new ArrayList<>());
+        // Keep the bucket in date order, after any transaction of the same date
+        int index = bucket.size();
+        while (index > 0 && bucket.get(index - 1).getDate().isAfter(transaction.getDate())) {
+            index--;
+        }
+        bucket.add(index, transaction);
+    }
+
+    @Override
+    public int size() {
+        return transactions.size();
+    }
+
+    @Override
+    public void clear() {
+        transactions.clear();
+        transactionsByMonth.clear();
+    }
+
+    @Override
+    public void forEach(Consumer<TransactionView> visitor) {
+        transactions.forEach(visitor);
+    }
+
+    @Override
+    public void forEachInRange(LocalDate startDate, LocalDate endDate, Consumer<TransactionView> visitor) {
+        if (endDate.isBefore(startDate)) return;
+        // Only visit the months overlapping the range
+        for (List<Transaction> bucket : transactionsByMonth
+                .subMap(YearMonth.from(startDate), true, YearMonth.from(endDate), true).values()) {
+            for (Transaction txn : bucket) {
+                if (!txn.getDate().isBefore(startDate) && !txn.getDate().isAfter(endDate)) {
+                    visitor.accept(txn);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Transaction> getTransactions() {
+        return List.copyOf(transactions);
+    }
+}
@@ -0,0 +1,106 @@
+package com.gic.banking.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A block of pre-parsed postings for one account, kept in parallel arrays so that a batch can be refilled and
+ * posted again without allocating. After {@link BankAccount#addTransactions(PostingBatch)} each posting holds
+ * its outcome.
+ */
+public final class PostingBatch {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private LocalDate[] dates;
+    private boolean[] withdrawals;
+    private long[] amounts;
+    private boolean[] accepted;
+
+    public PostingBatch() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public PostingBatch(int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        dates = new LocalDate[initialCapacity];
+        withdrawals = new boolean[initialCapacity];
+        amounts = new long[initialCapacity];
+        accepted = new boolean[initialCapacity];
+    }
+
+    /**
+     * Appends a posting.
+     *
+     * @param date   The date of the transaction.
+     * @param type   The type of transaction ("D" for deposit, "W" for withdrawal).
+     * @param amount The amount of the transaction in cents.
+     * @return This batch.
+     */
+    public PostingBatch add(LocalDate date, String type, long amount) {
+        if (size == dates.length) grow();
+        dates[size] = date;
+        withdrawals[size] = "W".equals(type);
+        amounts[size] = amount;
+        accepted[size] = false;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether a posting was accepted when the batch was last added to an account.
+     *
+     * @param index The index of the posting.
+     * @return false if the posting was rejected for insufficient balance or not posted yet.
+     */
+    public boolean isAccepted(int index) {
+        return accepted[checkIndex(index)];
+    }
+
+    /**
+     * Empties the batch, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(dates, 0, size, null);
+        size = 0;
+    }
+
+    public LocalDate getDate(int index) {
+        return dates[checkIndex(index)];
+    }
+
+    public boolean isWithdrawal(int index) {
+        return withdrawals[checkIndex(index)];
+    }
+
+    /**
+     * Returns the amount of a posting.
+     *
+     * @param index The index of the posting.
+     * @return The amount in cents.
+     */
+    public long getAmount(int index) {
+        return amounts[checkIndex(index)];
+    }
+
+    void setAccepted(int index, boolean accepted) {
+        this.accepted[index] = accepted;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Posting " + index + " of " + size);
+        return index;
+    }
+
+    private void grow() {
+        int capacity = dates.length * 2;
+        dates = Arrays.copyOf(dates, capacity);
+        withdrawals = Arrays.copyOf(withdrawals, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        accepted = Arrays.copyOf(accepted, capacity);
+    }
+}
@@ -0,0 +1,106 @@
+package com.gic.banking.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * The interest rules that affect a period: the rule in force on its first day and the rules that start
+ * within it, held in sorted arrays.
+ * <p>
+ * Windows are immutable. The latest window created is reused when the next one is asked for the same
+ * period and rules, so accounts accruing the same month share one window.
+ */
+final class RuleWindow {
+    private static volatile RuleWindow latest;
+
+    private final long startDay;
+    private final long endDay;
+    private final InterestRule[] rules; // Ordered by date, the first may start before the period
+    private final long[] days;
+
+    private RuleWindow(long startDay, long endDay, InterestRule[] rules) {
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.rules = rules;
+        this.days = new long[rules.length];
+        for (int i = 0; i < rules.length; i++) days[i] = rules[i].getDate().toEpochDay();
+    }
+
+    /**
+     * Returns the window of a period.
+     *
+     * @param rulesByDate The interest rules indexed by their effective date.
+     * @param startDate   The first day of the period.
+     * @param endDate     The last day of the period.
+     * @return The window, shared with the previous caller if the period and rules are the same.
+     */
+    static RuleWindow of(NavigableMap<LocalDate, InterestRule> rulesByDate, LocalDate startDate, LocalDate endDate) {
+        RuleWindow window = latest;
+        if (window != null && window.matches(rulesByDate, startDate, endDate)) return window;
+        window = new RuleWindow(startDate.toEpochDay(), endDate.toEpochDay(),
+                relevantRules(rulesByDate, startDate, endDate).values().toArray(new InterestRule[0]));
+        latest = window;
+        return window;
+    }
+
+    /**
+     * Checks that the rules affecting the period are still the rules of this window.
+     *
+     * @param rulesByDate The current interest rules indexed by their effective date.
+     * @return true if the window reflects the rules, otherwise false.
+     */
+    boolean matches(NavigableMap<LocalDate, InterestRule> rulesByDate) {
+        return matches(rulesByDate, LocalDate.ofEpochDay(startDay), LocalDate.ofEpochDay(endDay));
+    }
+
+    long getStartDay() {
+        return startDay;
+    }
+
+    long getEndDay() {
+        return endDay;
+    }
+
+    /**
+     * Finds the effective interest rate for a given day of the period.
+     *
+     * @param day The epoch-day for which to find the effective rate.
+     * @return The effective interest rate for the day, or 0.0 if no rule is in force.
+     */
+    double rateOn(long day) {
+        int index = Arrays.binarySearch(days, day);
+        if (index < 0) index = -index - 2; // The last rule before the day
+        return index < 0 ? 0.0 : rules[index].getRate();
+    }
+
+    /**
+     * Finds the first rule change of the period on or after a day.
+     *
+     * @param day The epoch-day to search from.
+     * @return The epoch-day of the rule change, or Long.MAX_VALUE if there is none.
+     */
+    long nextRuleDay(long day) {
+        int index = Arrays.binarySearch(days, Math.max(day, startDay));
+        if (index < 0) index = -index - 1; // The first rule after the day
+        return index < days.length ? days[index] : Long.MAX_VALUE;
+    }
+
+    private boolean matches(NavigableMap<LocalDate, InterestRule> rulesByDate, LocalDate startDate, LocalDate endDate) {
+        if (startDate.toEpochDay() != startDay || endDate.toEpochDay() != endDay) return false;
+        Iterator<Map.Entry<LocalDate, InterestRule>> entries =
+                relevantRules(rulesByDate, startDate, endDate).entrySet().iterator();
+        for (InterestRule rule : rules) {
+            if (!entries.hasNext() || !rule.equals(entries.next().getValue())) return false;
+        }
+        return !entries.hasNext();
+    }
+
+    private static NavigableMap<LocalDate, InterestRule> relevantRules(NavigableMap<LocalDate, InterestRule> rulesByDate,
+                                                                      LocalDate startDate, LocalDate endDate) {
+        LocalDate firstDate = rulesByDate.floorKey(startDate);
+        return rulesByDate.subMap(firstDate == null ? startDate : firstDate, true, endDate, true);
+    }
+}
@@ -1,15 +1,22 @@
 package com.gic.banking.model;
 
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.Money;
+
 import java.time.LocalDate;
 
-public class Transaction {
+public class Transaction implements TransactionView {
     private LocalDate date;
     private String id;
     private String type;
-    double amount;
-    double balance;
+    long amount; // Amount in cents
+    long balance; // Balance after the transaction in cents
 
     public Transaction(String id, LocalDate date, String type, double amount, double balance) {
+        this(id, date, type, Money.toCents(amount), Money.toCents(balance));
+    }
+
+    private Transaction(String id, LocalDate date, String type, long amount, long balance) {
         this.id = id;
         this.date = date;
         this.type = type;
@@ -17,15 +24,63 @@ public class Transaction {
         this.balance = balance;
     }
 
+    /**
+     * Creates a transaction from amounts in cents.
+     *
+     * @param id      The transaction id.
+     * @param date    The transaction date.
+     * @param type    The transaction type.
+     * @param amount  The amount in cents.
+     * @param balance The balance after the transaction in cents.
+     * @return The transaction.
+     */
+    public static Transaction ofCents(String id, LocalDate date, String type, long amount, long balance) {
+        return new Transaction(id, date, type, amount, balance);
+    }
+
+    /**
+     * Formats a transaction id from its date and its sequence within the date, e.g. "20230626-2".
+     *
+     * @param date     The transaction date.
+     * @param sequence The number of the transaction within its date.
+     * @return The transaction id.
+     */
+    public static String formatId(LocalDate date, int sequence) {
+        return Dates.appendTo(new StringBuilder(16), date).append('-').append(sequence).toString();
+    }
+
+    /**
+     * Extracts the sequence from an id in the "yyyyMMdd-sequence" form.
+     *
+     * @param id The transaction id.
+     * @return The sequence, or 0 if the id is not in the expected form.
+     */
+    public static int parseSequence(String id) {
+        int separator = id == null ? -1 : id.lastIndexOf('-');
+        if (separator < 0) return 0;
+        try {
+            return Integer.parseInt(id, separator + 1, id.length(), 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
 
+    @Override
     public LocalDate getDate() {
         return date;
     }
 
+    @Override
+    public long getEpochDay() {
+        return date.toEpochDay();
+    }
+
     public void setDate(LocalDate date) {
         this.date = date;
     }
 
+    @Override
     public String getId() {
         return id;
     }
@@ -34,6 +89,17 @@ public class Transaction {
         this.id = id;
     }
 
+    /**
+     * Returns the number of the transaction within its date, taken from the id.
+     *
+     * @return The sequence, or 0 if the id is not in the "yyyyMMdd-sequence" form.
+     */
+    @Override
+    public int getSequence() {
+        return parseSequence(id);
+    }
+
+    @Override
     public String getType() {
         return type;
     }
@@ -43,20 +109,30 @@ public class Transaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toAmount(amount);
     }
 
     public void setAmount(double amount) {
-        this.amount = amount;
+        this.amount = Money.toCents(amount);
+    }
+
+    @Override
+    public long getAmountCents() {
+        return amount;
     }
 
     public double getBalance() {
-        return balance;
+        return Money.toAmount(balance);
     }
 
     public void setBalance(double balance) {
-        this.balance = balance;
+        this.balance = Money.toCents(balance);
+    }
+
+    @Override
+    public long getBalanceCents() {
+        return balance;
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.gic.banking.model;
+
+import java.time.LocalDate;
+
+/**
+ * Notified of every transaction accepted by a bank account.
+ * Called while the account lock is held, so calls for one account arrive in posting order.
+ * {@link #transactionAdded} is called before the transaction is applied; if it throws, the transaction is
+ * not applied.
+ */
+@FunctionalInterface
+public interface TransactionListener {
+
+    TransactionListener NONE = (accountId, date, type, amount) -> {
+    };
+
+    void transactionAdded(String accountId, LocalDate date, String type, long amount);
+
+    /**
+     * Called before the accepted postings of a batch are applied, in place of a {@link #transactionAdded} call
+     * for each of them; if it throws, none of them is applied. None of them is dated before the latest
+     * transaction of the account.
+     *
+     * @param accountId The account id.
+     * @param batch     The batch; only the postings marked accepted are applied.
+     */
+    default void transactionsAdded(String accountId, PostingBatch batch) {
+        for (int index = 0; index < batch.size(); index++) {
+            if (!batch.isAccepted(index)) continue;
+            transactionAdded(accountId, batch.getDate(index), batch.isWithdrawal(index) ? "W" : "D",
+                    batch.getAmount(index));
+        }
+    }
+
+    /**
+     * Called after a transaction dated before the latest transaction of its account was added, which changes
+     * the balances of the transactions dated after it.
+     *
+     * @param accountId The account id.
+     * @param date      The date of the back-dated transaction.
+     */
+    default void balancesChanged(String accountId, LocalDate date) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.gic.banking.model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage for the transactions of a single bank account.
+ * Implementations are not thread-safe; BankAccount guards access with its own lock.
+ */
+public interface TransactionStore {
+
+    /**
+     * Stores a posted transaction.
+     *
+     * @param date     The transaction date.
+     * @param sequence The number of the transaction within its date, starting from 1.
+     * @param type     The transaction type ("D" for deposit, "W" for withdrawal).
+     * @param amount   The amount in cents.
+     * @param balance  The balance after the transaction in cents.
+     */
+    void add(LocalDate date, int sequence, String type, long amount, long balance);
+
+    /**
+     * Stores an existing transaction (used for testing or initialization).
+     *
+     * @param transaction The transaction to store.
+     */
+    void add(Transaction transaction);
+
+    int size();
+
+    void clear();
+
+    /**
+     * Visits all transactions in the order they were added.
+     *
+     * @param visitor The visitor of each transaction.
+     */
+    void forEach(Consumer<TransactionView> visitor);
+
+    /**
+     * Visits the transactions dated within a range in date order.
+     * Transactions on the same date are visited in the order they were added.
+     *
+     * @param startDate The start date of the range.
+     * @param endDate   The end date of the range.
+     * @param visitor   The visitor of each transaction.
+     */
+    void forEachInRange(LocalDate startDate, LocalDate endDate, Consumer<TransactionView> visitor);
+
+    /**
+     * Returns a read-only snapshot of the transactions in the order they were added.
+     *
+     * @return The transactions.
+     */
+    List<Transaction> getTransactions();
+}
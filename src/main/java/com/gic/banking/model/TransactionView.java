@@ -0,0 +1,24 @@
+package com.gic.banking.model;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only access to a stored transaction.
+ * Stores may hand out a reused instance while visiting, so callers must not keep a reference to it.
+ */
+public interface TransactionView {
+
+    LocalDate getDate();
+
+    long getEpochDay();
+
+    String getId();
+
+    int getSequence();
+
+    String getType();
+
+    long getAmountCents();
+
+    long getBalanceCents();
+}
@@ -3,9 +3,14 @@ package com.gic.banking.ops;
 import com.gic.banking.model.InterestRule;
 
 import java.time.LocalDate;
+import java.util.NavigableMap;
 import java.util.Set;
 
 public interface InterestCalculator {
 
     double calculateInterest(LocalDate startDate, LocalDate endDate, Set<InterestRule> interestRules);
+
+    double calculateInterest(LocalDate startDate, LocalDate endDate, NavigableMap<LocalDate, InterestRule> rulesByDate);
+
+    long calculateInterestCents(LocalDate startDate, LocalDate endDate, NavigableMap<LocalDate, InterestRule> rulesByDate);
 }
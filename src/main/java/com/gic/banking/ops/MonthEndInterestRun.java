@@ -0,0 +1,214 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRuleTable;
+import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.Money;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+/**
+ * Calculates the month-end interest of every account in parallel and streams the results to a file.
+ */
+public class MonthEndInterestRun {
+    private static final String HEADER = "Account,Date,Interest,ElapsedMicros";
+
+    private final AccountRepository accountRepository;
+    private final InterestRulesRepository interestRulesRepository;
+    private final ExecutorService executor;
+    private final StatementCache statementCache; // Shares the interest with the statements, null if not cached
+
+    public MonthEndInterestRun(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository) {
+        this(accountRepository, interestRulesRepository, ForkJoinPool.commonPool());
+    }
+
+    public MonthEndInterestRun(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository,
+                               ExecutorService executor) {
+        this(accountRepository, interestRulesRepository, executor, null);
+    }
+
+    /**
+     * Creates a run that reads and fills the interest of a statement cache, so accounts whose statement or
+     * interest of the month is already cached are not calculated again.
+     *
+     * @param accountRepository       The accounts.
+     * @param interestRulesRepository The interest rules.
+     * @param executor                The executor the calculations are fanned out over.
+     * @param statementCache          The cache of monthly interest, or null to always calculate it.
+     */
+    public MonthEndInterestRun(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository,
+                               ExecutorService executor, StatementCache statementCache) {
+        this.accountRepository = accountRepository;
+        this.interestRulesRepository = interestRulesRepository;
+        this.executor = executor;
+        this.statementCache = statementCache;
+    }
+
+    /**
+     * Runs the month-end interest calculation and writes one line per account to a file.
+     *
+     * @param period     The month to calculate interest for.
+     * @param outputFile The file to write the results to.
+     * @return The summary of the run.
+     * @throws IOException if the results cannot be written.
+     */
+    public Summary run(YearMonth period, Path outputFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFile)) {
+            return run(period, writer);
+        }
+    }
+
+    /**
+     * Runs the month-end interest calculation for all accounts. The calculations are fanned out over the
+     * executor and each result is written as soon as it completes, so the output is not in account order.
+     *
+     * @param period The month to calculate interest for.
+     * @param writer The destination of the results.
+     * @return The summary of the run.
+     * @throws IOException if the results cannot be written.
+     */
+    public Summary run(YearMonth period, Writer writer) throws IOException {
+        long startTime = System.nanoTime();
+        LocalDate startDate = period.atDay(1);
+        LocalDate endDate = period.atEndOfMonth();
+        // Resolve the rules once for the whole run rather than once per account
+        InterestRuleTable table = interestRulesRepository.getTable();
+        NavigableMap<LocalDate, InterestRule> rulesByDate = resolveRules(table, startDate, endDate);
+        String date = Dates.format(endDate);
+
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+        int submitted = 0;
+        for (BankAccount account : accountRepository.getAccounts()) {
+            completionService.submit(() -> {
+                long accountStartTime = System.nanoTime();
+                long interest = statementCache == null
+                        ? account.calculateInterestCents(startDate, endDate, rulesByDate)
+                        : statementCache.getInterestCents(account, startDate, table);
+                return new Result(account.getAccountId(), interest, System.nanoTime() - accountStartTime);
+            });
+            submitted++;
+        }
+
+        writer.write(HEADER);
+        writer.write(System.lineSeparator());
+        long totalInterest = 0;
+        long accountNanos = 0;
+        long maxAccountNanos = 0;
+        for (int i = 0; i < submitted; i++) {
+            Result result = takeResult(completionService);
+            writer.write(String.format("%s,%s,%s,%d%n", result.accountId, date, Money.format(result.interest),
+                    TimeUnit.NANOSECONDS.toMicros(result.elapsedNanos)));
+            totalInterest += result.interest;
+            accountNanos += result.elapsedNanos;
+            maxAccountNanos = Math.max(maxAccountNanos, result.elapsedNanos);
+        }
+        writer.flush();
+        return new Summary(submitted, totalInterest, System.nanoTime() - startTime, accountNanos, maxAccountNanos);
+    }
+
+    /**
+     * Copies the rules relevant to a period: the rule in effect on its first day and every change within it.
+     *
+     * @param table     The version of the rules.
+     * @param startDate The start date of the period.
+     * @param endDate   The end date of the period.
+     * @return The interest rules of the period indexed by their effective date.
+     */
+    private static NavigableMap<LocalDate, InterestRule> resolveRules(InterestRuleTable table, LocalDate startDate,
+                                                                     LocalDate endDate) {
+        NavigableMap<LocalDate, InterestRule> rulesByDate = table.getRulesByDate();
+        LocalDate fromDate = rulesByDate.floorKey(startDate);
+        return new TreeMap<>(rulesByDate.subMap(fromDate == null ? startDate : fromDate, true, endDate, true));
+    }
+
+    private static Result takeResult(CompletionService<Result> completionService) throws IOException {
+        try {
+            return completionService.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Month-end interest run was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Interest calculation failed", e.getCause());
+        }
+    }
+
+    private static class Result {
+        private final String accountId;
+        private final long interest; // Interest in cents
+        private final long elapsedNanos;
+
+        private Result(String accountId, long interest, long elapsedNanos) {
+            this.accountId = accountId;
+            this.interest = interest;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    /**
+     * Outcome of a month-end interest run.
+     */
+    public static class Summary {
+        private final int accounts;
+        private final long totalInterest; // Total interest in cents
+        private final long elapsedNanos;
+        private final long accountNanos;
+        private final long maxAccountNanos;
+
+        public Summary(int accounts, long totalInterest, long elapsedNanos, long accountNanos, long maxAccountNanos) {
+            this.accounts = accounts;
+            this.totalInterest = totalInterest;
+            this.elapsedNanos = elapsedNanos;
+            this.accountNanos = accountNanos;
+            this.maxAccountNanos = maxAccountNanos;
+        }
+
+        public int getAccounts() {
+            return accounts;
+        }
+
+        public long getTotalInterestCents() {
+            return totalInterest;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getAccountNanos() {
+            return accountNanos;
+        }
+
+        public long getMaxAccountNanos() {
+            return maxAccountNanos;
+        }
+
+        /**
+         * Prints the summary of the run.
+         */
+        public void print() {
+            System.out.printf(MONTH_END_SUMMARY_MESSAGE, accounts, Money.format(totalInterest),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    accounts == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(accountNanos) / accounts,
+                    TimeUnit.NANOSECONDS.toMicros(maxAccountNanos));
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.model.PostingBatch;
+import com.gic.banking.model.TransactionListener;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRuleListener;
+import com.gic.banking.repository.InterestRuleTable;
+import com.gic.banking.repository.InterestRulesRepository;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Bounded, least-recently-used cache of rendered monthly statements and their interest.
+ * <p>
+ * An entry is dropped when a transaction is posted to its account in its month or, as a back-dated transaction
+ * moves every later balance, in an earlier month, or when an interest rule changes that is in force during its
+ * month: a rule dated in a month affects that month and every later
+ * month up to the month of the next rule. Entries are rendered while holding the account lock, which is
+ * also held when postings are notified, so a posting can never be missed by an entry being stored.
+ * <p>
+ * The cached months of each account are also kept in order, so a back-dated transaction only visits the
+ * entries it drops.
+ * <p>
+ * Each entry records the version of the rule table it was calculated with. An entry is used for a table from
+ * that version up to the last version whose rule changes have been invalidated, so a caller holding an older
+ * table, e.g. a month-end run, is never given interest calculated with newer rules.
+ */
+public class StatementCache implements TransactionListener, InterestRuleListener {
+    private final InterestRulesRepository interestRulesRepository;
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<String, NavigableSet<Integer>> monthsByAccount = new HashMap<>(); // Months of the entries
+    // Version of the rules every entry is valid for: the version of the last rule change invalidated
+    private long rulesVersion;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates a cache and registers it for the changes of the repositories.
+     *
+     * @param accountRepository       The accounts whose postings invalidate statements.
+     * @param interestRulesRepository The rules whose changes invalidate statements.
+     * @param capacity                The maximum number of statements kept.
+     */
+    public StatementCache(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository,
+                          int capacity) {
+        this.interestRulesRepository = interestRulesRepository;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= StatementCache.this.capacity) return false;
+                evictions++;
+                forget(eldest.getKey());
+                return true;
+            }
+        };
+        accountRepository.addTransactionListener(this);
+        interestRulesRepository.addInterestRuleListener(this);
+        // Read after registering, so a change published meanwhile is not missed
+        advanceRulesVersion(interestRulesRepository.getTable());
+    }
+
+    /**
+     * Returns the rendered monthly statement of an account with the current interest rules, rendering it on a
+     * miss.
+     *
+     * @param account The account.
+     * @param period  The period in "yyyyMM" format.
+     * @return The statement, in the layout printed by {@link BankAccount#printMonthlyStatement}.
+     */
+    public String getStatement(BankAccount account, String period) {
+        InterestRuleTable table = interestRulesRepository.getTable();
+        Key key = new Key(account.getAccountId(), Integer.parseInt(period));
+        Entry entry = lookup(key, true, table.getVersion());
+        if (entry != null) return entry.statement;
+
+        synchronized (account) {
+            NavigableMap<LocalDate, InterestRule> rulesByDate = table.getRulesByDate();
+            StringBuilder statement = new StringBuilder(256);
+            StatementWriter writer = new StatementWriter(statement);
+            account.printMonthlyStatement(period, rulesByDate, writer);
+            writer.flush();
+            LocalDate startDate = LocalDate.of(key.month / 100, key.month % 100, 1);
+            long interest = account.calculateInterestCents(startDate,
+                    startDate.withDayOfMonth(startDate.lengthOfMonth()), rulesByDate);
+            entry = new Entry(statement.toString(), interest, table.getVersion());
+            store(key, entry);
+        }
+        return entry.statement;
+    }
+
+    /**
+     * Returns the interest of an account for a calendar month with the current interest rules, calculating it
+     * on a miss.
+     *
+     * @param account   The account.
+     * @param startDate The first day of the month.
+     * @return The interest in cents.
+     */
+    public long getInterestCents(BankAccount account, LocalDate startDate) {
+        return getInterestCents(account, startDate, interestRulesRepository.getTable());
+    }
+
+    /**
+     * Returns the interest of an account for a calendar month with the rules of a given table, calculating it
+     * on a miss. Callers that calculate many accounts resolve the table once, so every account of a run is
+     * calculated with the same rules even while rules are being edited.
+     *
+     * @param account   The account.
+     * @param startDate The first day of the month.
+     * @param table     The version of the rules to calculate with.
+     * @return The interest in cents.
+     */
+    public long getInterestCents(BankAccount account, LocalDate startDate, InterestRuleTable table) {
+        Key key = new Key(account.getAccountId(), monthOf(startDate));
+        Entry entry = lookup(key, false, table.getVersion());
+        if (entry != null) return entry.interest;
+
+        synchronized (account) {
+            long interest = account.calculateInterestCents(startDate,
+                    startDate.withDayOfMonth(startDate.lengthOfMonth()), table.getRulesByDate());
+            store(key, new Entry(null, interest, table.getVersion()));
+            return interest;
+        }
+    }
+
+    @Override
+    public void transactionAdded(String accountId, LocalDate date, String type, long amount) {
+        Key key = new Key(accountId, monthOf(date));
+        synchronized (this) {
+            if (entries.remove(key) != null) {
+                forget(key);
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Invalidates the months of a batch under one hold of the cache lock. The postings are in date order, so
+     * each month is looked up once.
+     */
+    @Override
+    public void transactionsAdded(String accountId, PostingBatch batch) {
+        synchronized (this) {
+            int lastMonth = Integer.MIN_VALUE;
+            for (int index = 0; index < batch.size(); index++) {
+                if (!batch.isAccepted(index)) continue;
+                int month = monthOf(batch.getDate(index));
+                if (month == lastMonth) continue;
+                lastMonth = month;
+                Key key = new Key(accountId, month);
+                if (entries.remove(key) != null) {
+                    forget(key);
+                    invalidations++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void balancesChanged(String accountId, LocalDate date) {
+        int firstMonth = monthOf(date);
+        synchronized (this) {
+            NavigableSet<Integer> months = monthsByAccount.get(accountId);
+            if (months == null) return;
+            Iterator<Integer> laterMonths = months.tailSet(firstMonth, false).iterator();
+            while (laterMonths.hasNext()) {
+                entries.remove(new Key(accountId, laterMonths.next()));
+                laterMonths.remove();
+                invalidations++;
+            }
+            if (months.isEmpty()) monthsByAccount.remove(accountId);
+        }
+    }
+
+    @Override
+    public void ruleAdded(InterestRule rule) {
+        invalidateRule(rule);
+    }
+
+    @Override
+    public void ruleRemoved(InterestRule rule) {
+        invalidateRule(rule);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Looks up an entry and counts the hit or miss.
+     *
+     * @param key             The account and month.
+     * @param statementNeeded Whether an entry holding only the interest is a miss.
+     * @param version         The version of the rules the entry must be valid for.
+     * @return The entry, or null on a miss.
+     */
+    private synchronized Entry lookup(Key key, boolean statementNeeded, long version) {
+        Entry entry = entries.get(key);
+        if (entry == null || (statementNeeded && entry.statement == null)
+                || entry.rulesVersion > version || version > rulesVersion) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    private synchronized void store(Key key, Entry entry) {
+        // Calculated with rules older than the last change invalidated, or newer than it and about to be
+        if (entry.rulesVersion != rulesVersion) return;
+        Entry previous = entries.get(key);
+        if (entry.statement == null && previous != null && previous.statement != null) return;
+        // Indexed before the put, which may evict the eldest entry
+        if (previous == null) monthsByAccount.computeIfAbsent(key.accountId, id -> new TreeSet<>()).add(key.month);
+        entries.put(key, entry);
+    }
+
+    /**
+     * Removes the month of an entry that is dropped from the months of its account.
+     *
+     * @param key The account and month of the dropped entry.
+     */
+    private void forget(Key key) {
+        NavigableSet<Integer> months = monthsByAccount.get(key.accountId);
+        months.remove(key.month);
+        if (months.isEmpty()) monthsByAccount.remove(key.accountId);
+    }
+
+    /**
+     * Drops the statements of the months a rule is in force, from its own month to the month of the next rule.
+     *
+     * @param rule The added or removed rule.
+     */
+    private void invalidateRule(InterestRule rule) {
+        InterestRuleTable table = interestRulesRepository.getTable();
+        LocalDate nextRuleDate = table.findNextRuleDate(rule.getDate());
+        int firstMonth = monthOf(rule.getDate());
+        int lastMonth = nextRuleDate == null ? Integer.MAX_VALUE : monthOf(nextRuleDate);
+        synchronized (this) {
+            advanceRulesVersion(table);
+            for (Iterator<Key> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+                Key key = keys.next();
+                if (key.month >= firstMonth && key.month <= lastMonth) {
+                    keys.remove();
+                    forget(key);
+                    invalidations++;
+                }
+            }
+        }
+    }
+
+    private synchronized void advanceRulesVersion(InterestRuleTable table) {
+        rulesVersion = Math.max(rulesVersion, table.getVersion());
+    }
+
+    private static int monthOf(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * Account and month, the month as a yyyyMM number.
+     */
+    private static final class Key {
+        private final String accountId;
+        private final int month;
+
+        private Key(String accountId, int month) {
+            this.accountId = accountId;
+            this.month = month;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return month == key.month && accountId.equals(key.accountId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, month);
+        }
+    }
+
+    /**
+     * Rendered statement, null if only the interest has been asked for, the interest in cents and the version
+     * of the rules they were calculated with.
+     */
+    private static final class Entry {
+        private final String statement;
+        private final long interest;
+        private final long rulesVersion;
+
+        private Entry(String statement, long interest, long rulesVersion) {
+            this.statement = statement;
+            this.interest = interest;
+            this.rulesVersion = rulesVersion;
+        }
+    }
+}
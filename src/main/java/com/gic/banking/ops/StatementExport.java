@@ -0,0 +1,418 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.Transaction;
+import com.gic.banking.model.TransactionView;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRuleTable;
+import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.Money;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static com.gic.banking.util.MessageConstants.*;
+
+/**
+ * Exports the monthly statement of every account to a CSV or NDJSON file, optionally gzip-compressed.
+ * <p>
+ * Accounts are streamed one at a time: each account's transactions for the month and its interest row are
+ * rendered into a bounded buffer that is written out whenever it fills up, so the memory used does not
+ * grow with the number of accounts or transactions.
+ */
+public class StatementExport {
+    private static final String CSV_HEADER = "Account,Date,TxnId,Type,Amount,Balance";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PROGRESS_INTERVAL = 10_000; // Accounts between progress reports
+
+    /**
+     * Output formats of an export.
+     */
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * Chooses the format from a file name: ".ndjson" or ".jsonl" files, optionally followed by ".gz",
+         * are exported as NDJSON and any other file as CSV.
+         *
+         * @param fileName The name of the output file.
+         * @return The format.
+         */
+        public static Format of(String fileName) {
+            String name = isGzip(fileName) ? fileName.substring(0, fileName.length() - 3) : fileName;
+            return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? NDJSON : CSV;
+        }
+    }
+
+    /**
+     * Receives the progress of an export.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        ProgressListener NONE = (accounts, totalAccounts, rows, bytes, elapsedNanos) -> {
+        };
+
+        /**
+         * Prints a progress line to the standard output.
+         */
+        ProgressListener PRINT = (accounts, totalAccounts, rows, bytes, elapsedNanos) ->
+                System.out.printf(EXPORT_PROGRESS_MESSAGE, accounts, totalAccounts, rows, bytes / 1024,
+                        TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        /**
+         * Called after every few thousand accounts.
+         *
+         * @param accounts      The number of accounts exported so far.
+         * @param totalAccounts The number of accounts to export.
+         * @param rows          The number of rows written so far.
+         * @param bytes         The number of bytes written to the file so far.
+         * @param elapsedNanos  The time since the export started.
+         */
+        void progress(int accounts, int totalAccounts, long rows, long bytes, long elapsedNanos);
+    }
+
+    private final AccountRepository accountRepository;
+    private final InterestRulesRepository interestRulesRepository;
+    private final StatementCache statementCache; // Shares the interest with the statements, null if not cached
+
+    public StatementExport(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository) {
+        this(accountRepository, interestRulesRepository, null);
+    }
+
+    /**
+     * Creates an export that reads and fills the interest of a statement cache.
+     *
+     * @param accountRepository       The accounts.
+     * @param interestRulesRepository The interest rules.
+     * @param statementCache          The cache of monthly interest, or null to always calculate it.
+     */
+    public StatementExport(AccountRepository accountRepository, InterestRulesRepository interestRulesRepository,
+                           StatementCache statementCache) {
+        this.accountRepository = accountRepository;
+        this.interestRulesRepository = interestRulesRepository;
+        this.statementCache = statementCache;
+    }
+
+    /**
+     * Exports the statements of a month to a file. The format is chosen from the file name, and the file is
+     * gzip-compressed if its name ends with ".gz".
+     *
+     * @param period     The month to export.
+     * @param outputFile The file to write the statements to.
+     * @param progress   The receiver of the progress reports.
+     * @return The summary of the export.
+     * @throws IOException if the file cannot be written.
+     */
+    public Summary export(YearMonth period, Path outputFile, ProgressListener progress) throws IOException {
+        String fileName = outputFile.getFileName().toString();
+        return export(period, outputFile, Format.of(fileName), isGzip(fileName), progress);
+    }
+
+    /**
+     * Exports the statements of a month to a file.
+     *
+     * @param period     The month to export.
+     * @param outputFile The file to write the statements to.
+     * @param format     The output format.
+     * @param gzip       Whether to gzip-compress the file.
+     * @param progress   The receiver of the progress reports.
+     * @return The summary of the export.
+     * @throws IOException if the file cannot be written.
+     */
+    public Summary export(YearMonth period, Path outputFile, Format format, boolean gzip, ProgressListener progress)
+            throws IOException {
+        CountingOutputStream file = new CountingOutputStream(Files.newOutputStream(outputFile));
+        Summary summary;
+        try (OutputStream out = gzip ? new GZIPOutputStream(file, BUFFER_SIZE) : file;
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            summary = export(period, writer, format, file, progress);
+        }
+        // The compressor only writes its last block on close
+        return new Summary(summary.accounts, summary.rows, summary.totalInterest, file.count, summary.elapsedNanos);
+    }
+
+    /**
+     * Exports the statements of a month to a writer.
+     *
+     * @param period   The month to export.
+     * @param writer   The destination of the statements; it is flushed but not closed.
+     * @param format   The output format.
+     * @param progress The receiver of the progress reports.
+     * @return The summary of the export.
+     * @throws IOException if the statements cannot be written.
+     */
+    public Summary export(YearMonth period, Writer writer, Format format, ProgressListener progress)
+            throws IOException {
+        return export(period, writer, format, null, progress);
+    }
+
+    private Summary export(YearMonth period, Writer writer, Format format, CountingOutputStream file,
+                           ProgressListener progress) throws IOException {
+        long startTime = System.nanoTime();
+        LocalDate startDate = period.atDay(1);
+        LocalDate endDate = period.atEndOfMonth();
+        // One version of the rules for every account of the export
+        InterestRuleTable table = interestRulesRepository.getTable();
+        Collection<BankAccount> accounts = accountRepository.getAccounts();
+        int totalAccounts = accounts.size();
+
+        Rows rows = new Rows(writer, format, statementCache);
+        if (format == Format.CSV) rows.append(CSV_HEADER).append(LINE_SEPARATOR);
+        int exported = 0;
+        long totalInterest = 0;
+        try {
+            for (BankAccount account : accounts) {
+                totalInterest += rows.writeStatement(account, startDate, endDate, table);
+                if (++exported % PROGRESS_INTERVAL == 0) {
+                    progress.progress(exported, totalAccounts, rows.count,
+                            file == null ? rows.chars : file.count, System.nanoTime() - startTime);
+                }
+            }
+            rows.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        long bytes = file == null ? rows.chars : file.count;
+        long elapsedNanos = System.nanoTime() - startTime;
+        progress.progress(exported, totalAccounts, rows.count, bytes, elapsedNanos);
+        return new Summary(exported, rows.count, totalInterest, bytes, elapsedNanos);
+    }
+
+    private static boolean isGzip(String fileName) {
+        return fileName.endsWith(".gz");
+    }
+
+    /**
+     * Renders rows into the bounded buffer and writes it out when full.
+     */
+    private static class Rows {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+        private final Writer writer;
+        private final Format format;
+        private final StatementCache statementCache;
+        private String accountId;
+        private long count; // Rows written
+        private long chars; // Characters written
+        // Transactions of the account being exported, copied under its lock and reused for the next account
+        private int size;
+        private LocalDate[] dates = new LocalDate[INITIAL_CAPACITY];
+        private int[] sequences = new int[INITIAL_CAPACITY];
+        private String[] types = new String[INITIAL_CAPACITY];
+        private long[] amounts = new long[INITIAL_CAPACITY];
+        private long[] balances = new long[INITIAL_CAPACITY];
+
+        private Rows(Writer writer, Format format, StatementCache statementCache) {
+            this.writer = writer;
+            this.format = format;
+            this.statementCache = statementCache;
+        }
+
+        /**
+         * Writes the transactions of the period and the interest row of an account. The transactions and the
+         * interest are read together under the account lock, so they are consistent, and the rows are then
+         * formatted and written without holding it.
+         *
+         * @return The interest in cents.
+         */
+        private long writeStatement(BankAccount account, LocalDate startDate, LocalDate endDate,
+                                    InterestRuleTable table) {
+            long interest;
+            synchronized (account) {
+                size = 0;
+                account.forEachTransactionInRange(startDate, endDate, this::copyTransaction);
+                interest = statementCache == null
+                        ? account.calculateInterestCents(startDate, endDate, table.getRulesByDate())
+                        : statementCache.getInterestCents(account, startDate, table);
+            }
+            accountId = account.getAccountId();
+            long lastBalance = 0;
+            for (int i = 0; i < size; i++) {
+                writeRow(dates[i], Transaction.formatId(dates[i], sequences[i]), types[i], amounts[i], balances[i]);
+                lastBalance = balances[i];
+            }
+            writeRow(endDate, "", "I", interest, lastBalance + interest);
+            return interest;
+        }
+
+        private void copyTransaction(TransactionView txn) {
+            if (size == dates.length) grow();
+            dates[size] = txn.getDate();
+            sequences[size] = txn.getSequence();
+            types[size] = txn.getType();
+            amounts[size] = txn.getAmountCents();
+            balances[size] = txn.getBalanceCents();
+            size++;
+        }
+
+        private void grow() {
+            int capacity = dates.length * 2;
+            dates = Arrays.copyOf(dates, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+            types = Arrays.copyOf(types, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            balances = Arrays.copyOf(balances, capacity);
+        }
+
+        private void writeRow(LocalDate date, String txnId, String type, long amount, long balance) {
+            if (format == Format.CSV) {
+                appendCsv(accountId).append(',');
+                Dates.appendTo(buffer, date).append(',');
+                appendCsv(txnId).append(',').append(type).append(',');
+                Money.appendTo(buffer, amount).append(',');
+                Money.appendTo(buffer, balance);
+            } else {
+                buffer.append("{\"account\":");
+                appendJson(accountId).append(",\"date\":\"");
+                Dates.appendTo(buffer, date).append("\",\"txnId\":");
+                appendJson(txnId).append(",\"type\":\"").append(type).append("\",\"amount\":");
+                Money.appendTo(buffer, amount).append(",\"balance\":");
+                Money.appendTo(buffer, balance).append('}');
+            }
+            buffer.append(LINE_SEPARATOR);
+            count++;
+            if (buffer.length() >= BUFFER_SIZE) flush();
+        }
+
+        private StringBuilder append(String text) {
+            return buffer.append(text);
+        }
+
+        /**
+         * Appends a CSV field, quoted if it contains a separator, a quote or a line break.
+         */
+        private StringBuilder appendCsv(String value) {
+            boolean quoted = false;
+            for (int i = 0; i < value.length() && !quoted; i++) {
+                char c = value.charAt(i);
+                quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quoted) return buffer.append(value);
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') buffer.append('"');
+                buffer.append(c);
+            }
+            return buffer.append('"');
+        }
+
+        /**
+         * Appends a JSON string literal.
+         */
+        private StringBuilder appendJson(String value) {
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    buffer.append('\\').append(c);
+                } else if (c < 0x20) {
+                    buffer.append(String.format("\\u%04x", (int) c));
+                } else {
+                    buffer.append(c);
+                }
+            }
+            return buffer.append('"');
+        }
+
+        private void flush() {
+            try {
+                writer.append(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chars += buffer.length();
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Counts the bytes written to the file, after compression.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Outcome of a statement export.
+     */
+    public static class Summary {
+        private final int accounts;
+        private final long rows;
+        private final long totalInterest; // Total interest in cents
+        private final long bytes;
+        private final long elapsedNanos;
+
+        public Summary(int accounts, long rows, long totalInterest, long bytes, long elapsedNanos) {
+            this.accounts = accounts;
+            this.rows = rows;
+            this.totalInterest = totalInterest;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getAccounts() {
+            return accounts;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getTotalInterestCents() {
+            return totalInterest;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Prints the summary of the export.
+         */
+        public void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf(EXPORT_SUMMARY_MESSAGE, accounts, rows, bytes / 1024,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    seconds > 0 ? rows / seconds : 0, seconds > 0 ? bytes / 1048576.0 / seconds : 0);
+        }
+    }
+}
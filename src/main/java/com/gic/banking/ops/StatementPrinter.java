@@ -2,6 +2,8 @@ package com.gic.banking.ops;
 
 import com.gic.banking.model.InterestRule;
 
+import java.time.LocalDate;
+import java.util.NavigableMap;
 import java.util.Set;
 
 public interface StatementPrinter {
@@ -10,4 +12,6 @@ public interface StatementPrinter {
 
     void printMonthlyStatement(String period, Set<InterestRule> interestRules);
 
+    void printMonthlyStatement(String period, NavigableMap<LocalDate, InterestRule> rulesByDate);
+
 }
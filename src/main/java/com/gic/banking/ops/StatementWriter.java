@@ -0,0 +1,221 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.model.TransactionView;
+import com.gic.banking.util.Dates;
+import com.gic.banking.util.Money;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Renders statement and interest rule tables into a reusable buffer and writes it out in large chunks.
+ * <p>
+ * Dates and amounts are formatted by hand, producing the same layout as the
+ * {@code "| %s\t | %s\t | %s\t | %6s\t | %6s\t |%n"} rows printed before. Rows are only written to the
+ * output once the buffer is full or on {@link #flush()}. A writer is not thread-safe; use one per thread.
+ */
+public class StatementWriter implements Flushable {
+    private static final String STATEMENT_HEADER = "| Date\t | Txn Id\t | Type\t | Amount\t | Balance\t |";
+    private static final String INTEREST_RULES_HEADER = "| Date\t | RuleId\t | Rate (%)\t |";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int AMOUNT_WIDTH = 6;
+    private static final int BUFFER_SIZE = 1 << 14;
+    private static final ThreadLocal<StatementWriter> STANDARD_OUTPUT = new ThreadLocal<>();
+
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+    private final Appendable appendable;
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes;
+
+    /**
+     * Creates a writer to an Appendable, e.g. a Writer, a PrintStream or a StringBuilder.
+     *
+     * @param appendable The output.
+     */
+    public StatementWriter(Appendable appendable) {
+        this.appendable = appendable;
+        this.channel = null;
+        this.encoder = null;
+        this.bytes = null;
+    }
+
+    /**
+     * Creates a writer that encodes the output as UTF-8 to a channel.
+     *
+     * @param channel The output.
+     */
+    public StatementWriter(WritableByteChannel channel) {
+        this.appendable = null;
+        this.channel = channel;
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.bytes = ByteBuffer.allocate(BUFFER_SIZE * 2);
+    }
+
+    /**
+     * Returns the writer of the calling thread to the current standard output, reset to an empty buffer. The
+     * writer is reused by the following calls of the thread until System.out is replaced, so printing a
+     * statement does not allocate a new buffer each time.
+     *
+     * @return The writer.
+     */
+    public static StatementWriter toStandardOutput() {
+        StatementWriter writer = STANDARD_OUTPUT.get();
+        if (writer == null || writer.appendable != System.out) {
+            writer = new StatementWriter(System.out);
+            STANDARD_OUTPUT.set(writer);
+        }
+        writer.reset();
+        return writer;
+    }
+
+    /**
+     * Writes the title and column headers of a statement.
+     *
+     * @param title     The title, e.g. "Account: ".
+     * @param accountId The account id.
+     * @return This writer.
+     */
+    public StatementWriter writeStatementHeader(String title, String accountId) {
+        buffer.append(title).append(accountId).append(LINE_SEPARATOR);
+        buffer.append(STATEMENT_HEADER).append(LINE_SEPARATOR);
+        return flushIfFull();
+    }
+
+    /**
+     * Writes a transaction row.
+     *
+     * @param txn The transaction.
+     * @return This writer.
+     */
+    public StatementWriter writeTransaction(TransactionView txn) {
+        buffer.append("| ");
+        Dates.appendTo(buffer, txn.getDate()).append("\t | ");
+        buffer.append(txn.getId()).append("\t | ");
+        buffer.append(txn.getType()).append("\t | ");
+        appendAmount(txn.getAmountCents()).append("\t | ");
+        appendAmount(txn.getBalanceCents()).append("\t |").append(LINE_SEPARATOR);
+        return flushIfFull();
+    }
+
+    /**
+     * Writes the interest row that closes a monthly statement.
+     *
+     * @param date     The end date of the period.
+     * @param interest The interest in cents.
+     * @param balance  The balance including the interest in cents.
+     * @return This writer.
+     */
+    public StatementWriter writeInterest(LocalDate date, long interest, long balance) {
+        buffer.append("| ");
+        Dates.appendTo(buffer, date).append("\t | \t\t | I\t | ");
+        appendAmount(interest).append("\t | ");
+        appendAmount(balance).append("\t |").append(LINE_SEPARATOR);
+        return flushIfFull();
+    }
+
+    /**
+     * Writes the table of interest rules.
+     *
+     * @param interestRules The rules in the order to print them.
+     * @return This writer.
+     */
+    public StatementWriter writeInterestRules(Iterable<InterestRule> interestRules) {
+        buffer.append("Interest rules:").append(LINE_SEPARATOR);
+        buffer.append(INTEREST_RULES_HEADER).append(LINE_SEPARATOR);
+        for (InterestRule rule : interestRules) {
+            buffer.append("| ");
+            Dates.appendTo(buffer, rule.getDate()).append("\t | ");
+            buffer.append(rule.getRuleId()).append("\t | ");
+            // Same rounding as "%.2f": half-up on the shortest decimal form of the rate
+            padLeft(BigDecimal.valueOf(rule.getRate()).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            buffer.append("\t |").append(LINE_SEPARATOR);
+            flushIfFull();
+        }
+        return this;
+    }
+
+    /**
+     * Writes the buffered rows to the output.
+     *
+     * @throws UncheckedIOException if the output cannot be written.
+     */
+    @Override
+    public void flush() {
+        if (buffer.length() == 0) return;
+        try {
+            if (channel == null) {
+                appendable.append(buffer);
+                if (appendable instanceof Flushable) ((Flushable) appendable).flush();
+            } else {
+                writeToChannel();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+
+    /**
+     * Discards the buffered rows, e.g. those left by a statement that failed before it was flushed.
+     */
+    public void reset() {
+        buffer.setLength(0);
+    }
+
+    private StatementWriter flushIfFull() {
+        if (buffer.length() >= BUFFER_SIZE) flush();
+        return this;
+    }
+
+    /**
+     * Appends an amount right-aligned to the width of the "%6s" columns.
+     */
+    private StringBuilder appendAmount(long cents) {
+        int start = buffer.length();
+        Money.appendTo(buffer, cents);
+        for (int length = buffer.length() - start; length < AMOUNT_WIDTH; length++) {
+            buffer.insert(start, ' ');
+        }
+        return buffer;
+    }
+
+    private void padLeft(String value) {
+        for (int length = value.length(); length < AMOUNT_WIDTH; length++) {
+            buffer.append(' ');
+        }
+        buffer.append(value);
+    }
+
+    private void writeToChannel() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(buffer);
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, true);
+            if (result.isError()) result.throwException();
+            drainBytes();
+        } while (result.isOverflow());
+        while (encoder.flush(bytes).isOverflow()) {
+            drainBytes();
+        }
+        drainBytes();
+    }
+
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) channel.write(bytes);
+        bytes.clear();
+    }
+}
@@ -0,0 +1,136 @@
+package com.gic.banking.repository;
+
+import com.gic.banking.model.BankAccount;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index of the accounts of a repository. Each account gets a dense int handle, its position in parallel arrays
+ * of ids, hashes and accounts, and ids are found through an open-addressing table of handles with linear
+ * probing, so an account costs a few array slots instead of a hash map node.
+ * <p>
+ * Lookups do not lock. A lookup that misses an account while it is being added is retried under the lock by
+ * {@link #add}. Accounts are never removed.
+ */
+final class AccountIndex {
+    static final int NOT_FOUND = -1;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private volatile int size; // Published after the entries below it are written
+
+    /**
+     * Returns the handle of an account id, without locking.
+     *
+     * @param accountId The account id.
+     * @return The handle, or NOT_FOUND if the id is not indexed yet.
+     */
+    int find(String accountId) {
+        int indexed = size;
+        Table current = table;
+        int hash = hash(accountId);
+        int mask = current.slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = current.slots[slot];
+            if (entry == 0) return NOT_FOUND;
+            int handle = entry - 1;
+            // Entries at or above the published size may still be written by another thread
+            if (handle < indexed && current.hashes[handle] == hash && current.ids[handle].equals(accountId)) {
+                return handle;
+            }
+        }
+    }
+
+    /**
+     * Indexes an account unless its id is indexed already. The account is built by the caller before the index
+     * is locked, so a slow account, e.g. one restored from a snapshot, does not hold up the other accounts.
+     *
+     * @param account The account to index.
+     * @return The handle of the account id, which holds another account if the id was indexed first.
+     */
+    int add(BankAccount account) {
+        String accountId = account.getAccountId();
+        synchronized (this) {
+            int handle = find(accountId);
+            if (handle != NOT_FOUND) return handle;
+            handle = size;
+            Table current = table;
+            if (handle == current.ids.length) {
+                current = current.grow(handle);
+                table = current;
+            }
+            int hash = hash(accountId);
+            current.ids[handle] = accountId;
+            current.hashes[handle] = hash;
+            current.accounts[handle] = account;
+            current.insert(handle, hash);
+            size = handle + 1;
+            return handle;
+        }
+    }
+
+    BankAccount get(int handle) {
+        if (handle < 0 || handle >= size) throw new IndexOutOfBoundsException("Account handle " + handle);
+        return table.accounts[handle];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the accounts indexed so far, in the order they were added. The list does not change afterwards.
+     *
+     * @return The accounts.
+     */
+    List<BankAccount> getAccounts() {
+        int indexed = size;
+        return Collections.unmodifiableList(Arrays.asList(table.accounts).subList(0, indexed));
+    }
+
+    /**
+     * Spreads the hash so that the low bits used for the slot depend on every character.
+     */
+    private static int hash(String accountId) {
+        int hash = accountId.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Arrays of one capacity. The slots are twice as many as the accounts, so probes stay short.
+     */
+    private static final class Table {
+        private final int[] slots; // Handle + 1 of the account in each slot, 0 when free
+        private final String[] ids;
+        private final int[] hashes;
+        private final BankAccount[] accounts;
+
+        private Table(int capacity) {
+            this.slots = new int[capacity * 2];
+            this.ids = new String[capacity];
+            this.hashes = new int[capacity];
+            this.accounts = new BankAccount[capacity];
+        }
+
+        private void insert(int handle, int hash) {
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = handle + 1;
+        }
+
+        /**
+         * Copies the first entries into a table of twice the capacity.
+         */
+        private Table grow(int entries) {
+            Table grown = new Table(ids.length * 2);
+            System.arraycopy(ids, 0, grown.ids, 0, entries);
+            System.arraycopy(hashes, 0, grown.hashes, 0, entries);
+            System.arraycopy(accounts, 0, grown.accounts, 0, entries);
+            for (int handle = 0; handle < entries; handle++) grown.insert(handle, hashes[handle]);
+            return grown;
+        }
+    }
+}
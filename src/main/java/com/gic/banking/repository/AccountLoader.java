@@ -0,0 +1,27 @@
+package com.gic.banking.repository;
+
+import com.gic.banking.model.BankAccount;
+
+import java.util.Collection;
+
+/**
+ * Source of accounts that are brought into the AccountRepository lazily, on first use.
+ */
+public interface AccountLoader {
+
+    /**
+     * Restores the state of an account into a newly created, empty account.
+     *
+     * @param account The account to restore.
+     * @return true if the loader knows the account, otherwise false.
+     */
+    boolean load(BankAccount account);
+
+    /**
+     * Returns the ids of all accounts the loader knows. The repository asks it whether an id is known before
+     * creating an account to load, so its contains should be cheap.
+     *
+     * @return The account ids.
+     */
+    Collection<String> getAccountIds();
+}
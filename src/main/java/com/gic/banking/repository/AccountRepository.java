@@ -1,21 +1,138 @@
 package com.gic.banking.repository;
 
+import com.gic.banking.metrics.Metrics;
 import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.ListTransactionStore;
+import com.gic.banking.model.PostingBatch;
+import com.gic.banking.model.TransactionListener;
+import com.gic.banking.model.TransactionStore;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 public class AccountRepository {
-    //Stores each bank account against unique account-id
-    private final Map<String, BankAccount> accounts = new HashMap<>();
+    private static final LongAdder ACCOUNTS = Metrics.global().counter("accounts_total");
+    //Indexes each bank account by unique account-id and dense handle, safe for concurrent posting threads
+    private final AccountIndex accounts = new AccountIndex();
+    //Creates the transaction store of each new account
+    private final Supplier<TransactionStore> transactionStoreFactory;
+    //Notified of the transactions accepted by any account
+    private final List<TransactionListener> transactionListeners = new CopyOnWriteArrayList<>();
+    //Passes the notifications of every account on to the listeners
+    private final TransactionListener relay = new Relay();
+    //Restores accounts that are not loaded yet, e.g. from a snapshot
+    private volatile AccountLoader accountLoader;
+
+    public AccountRepository() {
+        this(ListTransactionStore::new);
+    }
+
+    public AccountRepository(Supplier<TransactionStore> transactionStoreFactory) {
+        this.transactionStoreFactory = transactionStoreFactory;
+    }
 
     public BankAccount addAccount(String accountId) {
-        BankAccount account = accounts.computeIfAbsent(accountId, BankAccount::new);
-        return account;
+        return accounts.get(handleOf(accountId));
+    }
+
+    /**
+     * Returns the handle of an account, creating the account if required. Handles are dense, from 0 to
+     * {@link #getAccountCount()} - 1, and never change, so a caller posting many transactions to an account
+     * resolves its id once and then reaches the account by handle.
+     *
+     * @param accountId The account id.
+     * @return The handle of the account.
+     */
+    public int handleOf(String accountId) {
+        int handle = accounts.find(accountId);
+        return handle != AccountIndex.NOT_FOUND ? handle : loadAccount(accountId, true);
+    }
+
+    /**
+     * Returns an account by handle.
+     *
+     * @param handle A handle returned by {@link #handleOf(String)}.
+     * @return The account.
+     * @throws IndexOutOfBoundsException if no account has the handle.
+     */
+    public BankAccount get(int handle) {
+        return accounts.get(handle);
     }
 
     public BankAccount findById(String accountId) {
-        return accounts.get(accountId);
+        int handle = accounts.find(accountId);
+        // Bring the account in from the loader on first use
+        if (handle == AccountIndex.NOT_FOUND) handle = loadAccount(accountId, false);
+        return handle == AccountIndex.NOT_FOUND ? null : accounts.get(handle);
+    }
+
+    public int getAccountCount() {
+        return accounts.size();
+    }
+
+    public Collection<BankAccount> getAccounts() {
+        AccountLoader loader = accountLoader;
+        if (loader != null) loader.getAccountIds().forEach(this::findById);
+        return accounts.getAccounts();
+    }
+
+    public void addTransactionListener(TransactionListener transactionListener) {
+        transactionListeners.add(transactionListener);
+    }
+
+    public void removeTransactionListener(TransactionListener transactionListener) {
+        transactionListeners.remove(transactionListener);
+    }
+
+    public void setAccountLoader(AccountLoader accountLoader) {
+        this.accountLoader = accountLoader;
+    }
+
+    /**
+     * Creates an account, restores it from the loader and only then indexes it, so the index is not locked
+     * while the loader runs. When threads race on the same id, the account indexed first is kept.
+     *
+     * @param accountId The account id.
+     * @param create    Whether to index the account even if the loader does not know it.
+     * @return The handle of the indexed account, or NOT_FOUND if it is neither created nor known to the loader.
+     */
+    private int loadAccount(String accountId, boolean create) {
+        AccountLoader loader = accountLoader;
+        // Ask the loader before allocating, so looking up an unknown id allocates nothing
+        boolean known = loader != null && loader.getAccountIds().contains(accountId);
+        if (!known && !create) return AccountIndex.NOT_FOUND;
+        BankAccount newAccount = new BankAccount(accountId, transactionStoreFactory.get(), relay);
+        if (known && !loader.load(newAccount) && !create) return AccountIndex.NOT_FOUND;
+        int handle = accounts.add(newAccount);
+        if (accounts.get(handle) == newAccount) ACCOUNTS.increment();
+        return handle;
+    }
+
+    private final class Relay implements TransactionListener {
+        @Override
+        public void transactionAdded(String accountId, LocalDate date, String type, long amount) {
+            for (TransactionListener transactionListener : transactionListeners) {
+                transactionListener.transactionAdded(accountId, date, type, amount);
+            }
+        }
+
+        @Override
+        public void transactionsAdded(String accountId, PostingBatch batch) {
+            for (TransactionListener transactionListener : transactionListeners) {
+                transactionListener.transactionsAdded(accountId, batch);
+            }
+        }
+
+        @Override
+        public void balancesChanged(String accountId, LocalDate date) {
+            for (TransactionListener transactionListener : transactionListeners) {
+                transactionListener.balancesChanged(accountId, date);
+            }
+        }
     }
 
 
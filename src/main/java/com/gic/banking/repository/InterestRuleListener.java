@@ -0,0 +1,38 @@
+package com.gic.banking.repository;
+
+import com.gic.banking.model.InterestRule;
+
+import java.util.List;
+
+/**
+ * Notified of every change to the interest rules, in the order they are applied.
+ * <p>
+ * Each change set is first offered to {@link #rulesChanging} before it is published, so it can be recorded,
+ * and every rule of it is then notified to {@link #ruleRemoved} and {@link #ruleAdded} once readers see it.
+ */
+public interface InterestRuleListener {
+
+    InterestRuleListener NONE = new InterestRuleListener() {
+        @Override
+        public void ruleAdded(InterestRule rule) {
+        }
+
+        @Override
+        public void ruleRemoved(InterestRule rule) {
+        }
+    };
+
+    void ruleAdded(InterestRule rule);
+
+    void ruleRemoved(InterestRule rule);
+
+    /**
+     * Called with a change set before it is published. If this throws, the change set is rejected as a whole:
+     * the rules are left unchanged and no listener is notified of it.
+     *
+     * @param removed The rules removed, including the rules replaced by an addition.
+     * @param added   The rules added.
+     */
+    default void rulesChanging(List<InterestRule> removed, List<InterestRule> added) {
+    }
+}
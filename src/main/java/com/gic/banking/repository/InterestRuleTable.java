@@ -0,0 +1,150 @@
+package com.gic.banking.repository;
+
+import com.gic.banking.model.InterestRule;
+
+import java.time.LocalDate;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable version of the interest rules, holding at most one rule per effective date.
+ * <p>
+ * Every change to the rules publishes a new table with the next version number, so a reader holding a table
+ * sees a consistent set of rules for as long as it needs them, without locking and without seeing a change
+ * half applied. The size of a table is bounded by the number of distinct dates, however often rules are edited.
+ * <p>
+ * A change copies the date ordered map once, in linear time as it is copied in order; the set of rules is a
+ * read-only view of the same map rather than a second copy.
+ */
+public final class InterestRuleTable {
+    static final InterestRuleTable EMPTY = new InterestRuleTable(0, new TreeMap<>());
+
+    private final long version;
+    //Date ordered index of the rule in effect from each date
+    private final NavigableMap<LocalDate, InterestRule> rulesByDate;
+    //The same rules, in date order
+    private final Set<InterestRule> interestRules;
+
+    private InterestRuleTable(long version, NavigableMap<LocalDate, InterestRule> rulesByDate) {
+        this.version = version;
+        this.rulesByDate = Collections.unmodifiableNavigableMap(rulesByDate);
+        this.interestRules = new RuleSet();
+    }
+
+    /**
+     * Creates the next version of the table with a batch of changes applied, removals first. A removal only
+     * applies if the rule is the one in effect from its date; an addition replaces the rule of its date.
+     *
+     * @param removals  The rules to remove.
+     * @param additions The rules to add.
+     * @param removed   Receives the rules that were actually removed, including the replaced rules.
+     * @param added     Receives the rules that were actually added.
+     * @return The next version, or this table if nothing changed.
+     */
+    InterestRuleTable apply(Collection<InterestRule> removals, Collection<InterestRule> additions,
+                            List<InterestRule> removed, List<InterestRule> added) {
+        NavigableMap<LocalDate, InterestRule> nextRulesByDate = new TreeMap<>(rulesByDate);
+        for (InterestRule rule : removals) {
+            if (nextRulesByDate.remove(rule.getDate(), rule)) removed.add(rule); // Remove the existing rule.
+        }
+        for (InterestRule rule : additions) {
+            if (rule.equals(nextRulesByDate.get(rule.getDate()))) continue; // The rule is already in effect.
+            InterestRule previous = nextRulesByDate.put(rule.getDate(), rule); // Add or replace the rule.
+            if (previous != null) removed.add(previous);
+            added.add(rule);
+        }
+        if (removed.isEmpty() && added.isEmpty()) return this;
+        return new InterestRuleTable(version + 1, nextRulesByDate);
+    }
+
+    /**
+     * Creates the next version of the table without the rule of a date.
+     *
+     * @param date    The effective date of the rule to remove.
+     * @param removed Receives the removed rule.
+     * @return The next version, or this table if there is no rule for the date.
+     */
+    InterestRuleTable remove(LocalDate date, List<InterestRule> removed) {
+        InterestRule rule = rulesByDate.get(date);
+        if (rule == null) return this;
+        return apply(Collections.singletonList(rule), Collections.emptyList(), removed, new ArrayList<>(0));
+    }
+
+    /**
+     * Returns the number of changes published before this table.
+     *
+     * @return The version, 0 for the empty table.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the interest rules in the order of their effective dates.
+     *
+     * @return A read-only set of the rules of this version.
+     */
+    public Set<InterestRule> getInterestRules() {
+        return interestRules;
+    }
+
+    /**
+     * Returns the interest rules indexed by the date they take effect.
+     *
+     * @return A read-only date ordered map of the rules of this version.
+     */
+    public NavigableMap<LocalDate, InterestRule> getRulesByDate() {
+        return rulesByDate;
+    }
+
+    /**
+     * Finds the interest rule in effect on a given date.
+     *
+     * @param date The date to look up.
+     * @return The latest rule effective on or before the date, or null if there is none.
+     */
+    public InterestRule findEffectiveRule(LocalDate date) {
+        Map.Entry<LocalDate, InterestRule> entry = rulesByDate.floorEntry(date);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Finds the effective date of the first rule after a given date.
+     *
+     * @param date The date to look up.
+     * @return The earliest effective date after the date, or null if there is none.
+     */
+    public LocalDate findNextRuleDate(LocalDate date) {
+        return rulesByDate.higherKey(date);
+    }
+
+    /**
+     * Read-only set of the rules of the table, in date order. A rule is found by the date it takes effect.
+     */
+    private final class RuleSet extends AbstractSet<InterestRule> {
+        @Override
+        public Iterator<InterestRule> iterator() {
+            return rulesByDate.values().iterator();
+        }
+
+        @Override
+        public int size() {
+            return rulesByDate.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof InterestRule)) return false;
+            InterestRule rule = (InterestRule) o;
+            return rule.equals(rulesByDate.get(rule.getDate()));
+        }
+    }
+}
@@ -2,27 +2,118 @@ package com.gic.banking.repository;
 
 import com.gic.banking.model.InterestRule;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class InterestRulesRepository {
-    //list of all InterestRules
-    private final Set<InterestRule> interestRules = new LinkedHashSet<>();
+    //Current version of the rules, replaced as a whole on every change
+    private volatile InterestRuleTable table = InterestRuleTable.EMPTY;
+    //Notified of every rule change
+    private final List<InterestRuleListener> interestRuleListeners = new CopyOnWriteArrayList<>();
 
+    /**
+     * Adds a rule, replacing the rule with the same effective date if there is one.
+     *
+     * @param rule The rule to add.
+     * @return true if the rules changed, false if the rule is already in effect from its date.
+     */
     public boolean addInterestRule(InterestRule rule) {
-        return interestRules.add(rule); // Add the new rule.
-
+        return applyBatch(Collections.emptyList(), Collections.singletonList(rule)) > 0;
     }
 
     public boolean removeInterestRule(InterestRule rule) {
-        return interestRules.remove(rule); // Add the new rule.
+        return applyBatch(Collections.singletonList(rule), Collections.emptyList()) > 0;
+    }
+
+    /**
+     * Removes the rule in effect from a date.
+     *
+     * @param date The effective date of the rule.
+     * @return The removed rule, or null if no rule takes effect on the date.
+     */
+    public synchronized InterestRule removeInterestRule(LocalDate date) {
+        List<InterestRule> removed = new ArrayList<>(1);
+        publish(table.remove(date, removed), removed, List.of());
+        return removed.isEmpty() ? null : removed.get(0);
+    }
+
+    /**
+     * Applies a batch of rule changes as a single new version, removals first. Readers see either none or
+     * all of the changes. The change set is recorded by the listeners before the version is published, and
+     * is not published if a listener fails to record it, e.g. a closed journal; listeners are notified of
+     * each change once the version is published.
+     *
+     * @param removals  The rules to remove, rules that are not in effect are ignored.
+     * @param additions The rules to add, each replacing the rule with the same effective date.
+     * @return The number of rules removed, replaced and added.
+     */
+    public synchronized int applyBatch(Collection<InterestRule> removals, Collection<InterestRule> additions) {
+        List<InterestRule> removed = new ArrayList<>();
+        List<InterestRule> added = new ArrayList<>();
+        publish(table.apply(removals, additions, removed, added), removed, added);
+        return removed.size() + added.size();
+    }
+
+    private void publish(InterestRuleTable next, List<InterestRule> removed, List<InterestRule> added) {
+        if (next == table) return;
+        // Record the whole change set before any reader can see it, as postings are journaled before applied
+        for (InterestRuleListener listener : interestRuleListeners) {
+            listener.rulesChanging(removed, added);
+        }
+        table = next;
+        for (InterestRule rule : removed) {
+            interestRuleListeners.forEach(listener -> listener.ruleRemoved(rule));
+        }
+        for (InterestRule rule : added) {
+            interestRuleListeners.forEach(listener -> listener.ruleAdded(rule));
+        }
+    }
 
+    public void addInterestRuleListener(InterestRuleListener interestRuleListener) {
+        interestRuleListeners.add(interestRuleListener);
+    }
+
+    public void removeInterestRuleListener(InterestRuleListener interestRuleListener) {
+        interestRuleListeners.remove(interestRuleListener);
+    }
+
+    /**
+     * Returns the current version of the rules. The table never changes, so a calculation that reads all
+     * its rules from one table is consistent even while rules are being edited.
+     *
+     * @return The current rule table.
+     */
+    public InterestRuleTable getTable() {
+        return table;
     }
 
     public Set<InterestRule> getInterestRules() {
-        return Collections.unmodifiableSet(this.interestRules);
+        return table.getInterestRules();
+    }
+
+    /**
+     * Returns the interest rules indexed by the date they take effect.
+     *
+     * @return A read-only date ordered snapshot of the current interest rules.
+     */
+    public NavigableMap<LocalDate, InterestRule> getRulesByDate() {
+        return table.getRulesByDate();
+    }
 
+    /**
+     * Finds the interest rule in effect on a given date.
+     *
+     * @param date The date to look up.
+     * @return The latest rule effective on or before the date, or null if there is none.
+     */
+    public InterestRule findEffectiveRule(LocalDate date) {
+        return table.findEffectiveRule(date);
     }
 
 
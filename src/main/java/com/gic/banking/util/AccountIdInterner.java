@@ -0,0 +1,106 @@
+package com.gic.banking.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps the UTF-8 bytes of an account id to a dense ordinal and a single String instance, so ids read from a
+ * buffer are only decoded the first time they are seen, and callers can keep per-id state in int-indexed arrays.
+ * <p>
+ * The table uses open addressing with linear probing and doubles when half full. It is not thread-safe.
+ */
+public final class AccountIdInterner {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private int[] ordinals = new int[INITIAL_CAPACITY]; // Ordinal of the id in each slot
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private String[] ids = new String[INITIAL_CAPACITY]; // Interned ids by ordinal
+    private int size;
+
+    /**
+     * Returns the ordinal of the account id held by a range of a buffer, interning the id if it is new.
+     *
+     * @param buffer The buffer holding the id, read with absolute gets.
+     * @param start  The index of the first byte of the id.
+     * @param length The number of bytes of the id.
+     * @return The ordinal of the id, from 0 in the order ids are first seen.
+     */
+    public int intern(ByteBuffer buffer, int start, int length) {
+        int hash = hash(buffer, start, length);
+        int mask = keys.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            byte[] key = keys[slot];
+            if (key == null) return insert(slot, hash, buffer, start, length);
+            if (hashes[slot] == hash && matches(key, buffer, start, length)) return ordinals[slot];
+        }
+    }
+
+    /**
+     * Returns an interned account id.
+     *
+     * @param ordinal The ordinal returned by {@link #intern}.
+     * @return The id.
+     */
+    public String get(int ordinal) {
+        return ids[ordinal];
+    }
+
+    /**
+     * Returns the number of distinct ids interned.
+     *
+     * @return The number of ids.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int insert(int slot, int hash, ByteBuffer buffer, int start, int length) {
+        byte[] key = new byte[length];
+        for (int i = 0; i < length; i++) key[i] = buffer.get(start + i);
+        int ordinal = size;
+        keys[slot] = key;
+        ordinals[slot] = ordinal;
+        hashes[slot] = hash;
+        ids[ordinal] = new String(key, StandardCharsets.UTF_8);
+        if (++size * 2 > keys.length) resize();
+        return ordinal;
+    }
+
+    private void resize() {
+        byte[][] oldKeys = keys;
+        int[] oldOrdinals = ordinals;
+        int[] oldHashes = hashes;
+        keys = new byte[oldKeys.length * 2][];
+        ordinals = new int[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        ids = Arrays.copyOf(ids, keys.length);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int slot = oldHashes[i] & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            ordinals[slot] = oldOrdinals[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int start, int length) {
+        if (key.length != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (key[i] != buffer.get(start + i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the bytes and spreads the result so that the low bits used for the slot depend on every byte.
+     */
+    private static int hash(ByteBuffer buffer, int start, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) hash = 31 * hash + buffer.get(start + i);
+        return hash ^ (hash >>> 16);
+    }
+}
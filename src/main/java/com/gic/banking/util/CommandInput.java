@@ -0,0 +1,127 @@
+package com.gic.banking.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Line-oriented source of the commands of the application, shared by the main menu and every handler so that
+ * lines buffered ahead by one of them are never lost to another.
+ * <p>
+ * An interactive input prints the prompts. A scripted input, read from a file, a pipe or a socket, skips them,
+ * and standard output is only flushed when the next command is not buffered yet, so pipelined commands are
+ * processed back to back.
+ */
+public final class CommandInput implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final BufferedReader reader;
+    private final boolean interactive;
+    private final Closeable source; // Closed with the input, or null to leave the stream open
+
+    /**
+     * Creates an input reading a stream that stays open when the input is closed, such as System.in.
+     *
+     * @param in          The stream of commands.
+     * @param interactive Whether to print the prompts.
+     */
+    public CommandInput(InputStream in, boolean interactive) {
+        this(in, interactive, null);
+    }
+
+    private CommandInput(InputStream in, boolean interactive, Closeable source) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.interactive = interactive;
+        this.source = source;
+    }
+
+    /**
+     * Creates an interactive input reading the current standard input.
+     *
+     * @return The input.
+     */
+    public static CommandInput systemIn() {
+        return new CommandInput(System.in, true);
+    }
+
+    /**
+     * Opens a scripted input reading a file or a named pipe.
+     *
+     * @param file The file of commands.
+     * @return The input.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static CommandInput open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return new CommandInput(in, false, in);
+    }
+
+    /**
+     * Waits for one connection on a port and opens a scripted input reading the commands it sends.
+     *
+     * @param port The port to listen on.
+     * @return The input.
+     * @throws IOException if the port cannot be listened on.
+     */
+    public static CommandInput accept(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port)) {
+            Socket socket = serverSocket.accept();
+            return new CommandInput(socket.getInputStream(), false, socket);
+        }
+    }
+
+    public boolean isInteractive() {
+        return interactive;
+    }
+
+    /**
+     * Prints a line of a prompt if the input is interactive.
+     *
+     * @param line The line to print.
+     */
+    public void prompt(String line) {
+        if (interactive) System.out.println(line);
+    }
+
+    /**
+     * Reads the next command line.
+     *
+     * @return The trimmed line, or null at the end of the input.
+     * @throws UncheckedIOException if the input cannot be read.
+     */
+    public String readLine() {
+        return readLine("");
+    }
+
+    /**
+     * Prints a prompt if the input is interactive and reads the next command line. Standard output is flushed
+     * first unless the line is already buffered.
+     *
+     * @param prompt The prompt printed before the line is entered, e.g. "> ".
+     * @return The trimmed line, or null at the end of the input.
+     * @throws UncheckedIOException if the input cannot be read.
+     */
+    public String readLine(String prompt) {
+        if (interactive) System.out.print(prompt);
+        try {
+            if (!reader.ready()) System.out.flush(); // About to block, show the results so far
+            String line = reader.readLine();
+            return line == null ? null : line.trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (source != null) source.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.gic.banking.util;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Helpers for "yyyyMMdd" dates that avoid DateTimeFormatter on hot paths.
+ */
+public class Dates {
+    // Formatters are immutable and thread-safe, so one instance of each serves the whole process
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    public static final DateTimeFormatter PERIOD_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private Dates() {
+    }
+
+    /**
+     * Formats a date as "yyyyMMdd".
+     *
+     * @param date The date to format.
+     * @return The formatted date.
+     */
+    public static String format(LocalDate date) {
+        return appendTo(new StringBuilder(8), date).toString();
+    }
+
+    /**
+     * Appends a date in "yyyyMMdd" format.
+     *
+     * @param builder The builder to append to.
+     * @param date    The date to append.
+     * @return The builder.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, LocalDate date) {
+        appendDigits(builder, date.getYear(), 4);
+        appendDigits(builder, date.getMonthValue(), 2);
+        return appendDigits(builder, date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * Parses a date in "yyyyMMdd" format without exceptions.
+     *
+     * @param dateStr The date to parse.
+     * @return The parsed date, or null if the text is not an existing date in "yyyyMMdd" format.
+     */
+    public static LocalDate parse(CharSequence dateStr) {
+        if (dateStr == null || dateStr.length() != 8) return null;
+        int year = parseDigits(dateStr, 0, 4);
+        int month = parseDigits(dateStr, 4, 2);
+        int day = parseDigits(dateStr, 6, 2);
+        if (year < 0 || month < 0 || day < 0 || !isValid(year, month, day)) return null;
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Parses a run of decimal digits.
+     *
+     * @param text  The text to parse.
+     * @param start The index of the first digit.
+     * @param count The number of digits.
+     * @return The parsed value, or -1 if any character is not a digit.
+     */
+    static int parseDigits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int index = start; index < start + count; index++) {
+            int digit = text.charAt(index) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Checks that a day exists in the ISO calendar, for years 1 to 9999.
+     *
+     * @param year  The year.
+     * @param month The month, from 1.
+     * @param day   The day of the month, from 1.
+     * @return true if the date exists, otherwise false.
+     */
+    static boolean isValid(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1) return false;
+        return day <= lengthOfMonth(year, month);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> Year.isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static StringBuilder appendDigits(StringBuilder builder, int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + value / divisor % 10));
+        }
+        return builder;
+    }
+}
@@ -1,25 +1,12 @@
 package com.gic.banking.util;
 
-import java.math.BigDecimal;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-
+/**
+ * Validations of the input fields. The fields are scanned character by character, without exceptions or
+ * allocation, and hold no shared state, so they are safe to call from many threads.
+ */
 public class InputValidations {
-
-    // Reuse SimpleDateFormat objects to avoid repeated instantiation
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyyMMdd");
-    private static final SimpleDateFormat PERIOD_FORMAT = new SimpleDateFormat("yyyyMM");
-
-    static {
-        DATE_FORMAT.setLenient(false); // Strict parsing for dates
-        PERIOD_FORMAT.setLenient(false); // Strict parsing for periods
-    }
-
-    // Reuse DateTimeFormatter for modern date validation
-    private static final DateTimeFormatter YEAR_MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+    // Longest account or rule id, in characters; the journal and snapshot store ids with a two-byte length
+    public static final int MAX_ID_LENGTH = 256;
 
     /**
      * Validates if the input string is a valid date in the format "yyyyMMdd".
@@ -28,15 +15,7 @@ public class InputValidations {
      * @return true if the date is valid, false otherwise.
      */
     public static boolean isValidDate(String dateStr) {
-        if (dateStr == null || dateStr.length() != 8) {
-            return false; // Ensure it is exactly 8 digits
-        }
-        try {
-            DATE_FORMAT.parse(dateStr); // Attempt to parse the date
-            return true;
-        } catch (ParseException e) {
-            return false; // Invalid date format
-        }
+        return validateDate(dateStr) == null;
     }
 
     /**
@@ -46,15 +25,7 @@ public class InputValidations {
      * @return true if the period is valid, false otherwise.
      */
     public static boolean isValidPeriod(String periodStr) {
-        if (periodStr == null || periodStr.length() != 6) {
-            return false; // Ensure it is exactly 6 digits
-        }
-        try {
-            YearMonth.parse(periodStr, YEAR_MONTH_FORMATTER); // Use java.time for validation
-            return true;
-        } catch (DateTimeParseException e) {
-            return false; // Invalid period format
-        }
+        return validatePeriod(periodStr) == null;
     }
 
     /**
@@ -64,11 +35,61 @@ public class InputValidations {
      * @return true if the amount is valid, false otherwise.
      */
     public static boolean isValidAmount(String amountStr) {
-        if (amountStr == null || !amountStr.matches("^\\d+(\\.\\d{1,2})?$")) {
-            return false; // Ensure numeric format with up to 2 decimal places
+        return validateAmount(amountStr) == null;
+    }
+
+    /**
+     * Validates a date in the format "yyyyMMdd".
+     *
+     * @param dateStr The date to validate.
+     * @return null if the date is valid, otherwise the reason it is rejected.
+     */
+    public static ValidationError validateDate(CharSequence dateStr) {
+        if (dateStr == null || dateStr.length() != 8) {
+            return ValidationError.INVALID_DATE_FORMAT; // Ensure it is exactly 8 digits
         }
-        BigDecimal amount = new BigDecimal(amountStr);
-        return amount.compareTo(BigDecimal.ZERO) > 0; // Ensure amount > 0
+        int year = Dates.parseDigits(dateStr, 0, 4);
+        int month = Dates.parseDigits(dateStr, 4, 2);
+        int day = Dates.parseDigits(dateStr, 6, 2);
+        if (year < 0 || month < 0 || day < 0) return ValidationError.INVALID_DATE_FORMAT;
+        return Dates.isValid(year, month, day) ? null : ValidationError.INVALID_DATE;
+    }
+
+    /**
+     * Validates a period in the format "yyyyMM".
+     *
+     * @param periodStr The period to validate.
+     * @return null if the period is valid, otherwise the reason it is rejected.
+     */
+    public static ValidationError validatePeriod(CharSequence periodStr) {
+        if (periodStr == null || periodStr.length() != 6) {
+            return ValidationError.INVALID_PERIOD_FORMAT; // Ensure it is exactly 6 digits
+        }
+        int year = Dates.parseDigits(periodStr, 0, 4);
+        int month = Dates.parseDigits(periodStr, 4, 2);
+        if (year < 0 || month < 0) return ValidationError.INVALID_PERIOD_FORMAT;
+        return Dates.isValid(year, month, 1) ? null : ValidationError.INVALID_PERIOD;
+    }
 
+    /**
+     * Validates the length of an account or rule id.
+     *
+     * @param id The id to validate.
+     * @return null if the id is valid, otherwise the reason it is rejected.
+     */
+    public static ValidationError validateId(CharSequence id) {
+        return id.length() > MAX_ID_LENGTH ? ValidationError.ID_TOO_LONG : null;
+    }
+
+    /**
+     * Validates a positive amount with up to 2 decimal places.
+     *
+     * @param amountStr The amount to validate.
+     * @return null if the amount is valid, otherwise the reason it is rejected.
+     */
+    public static ValidationError validateAmount(CharSequence amountStr) {
+        long cents = Money.parseCents(amountStr);
+        if (cents == Money.INVALID_AMOUNT) return ValidationError.INVALID_AMOUNT_FORMAT;
+        return cents > 0 ? null : ValidationError.NON_POSITIVE_AMOUNT;
     }
-}
\ No newline at end of file
+}
@@ -10,21 +10,45 @@ public class MessageConstants {
     public static final String INVALID_RATE_ERROR = "Rate should be between 0 and 100.";
     public static final String INVALID_INPUT_FORMAT_ERROR = "Invalid input format. Try again.";
     public static final String INVALID_CHOICE_ERROR = "Invalid choice. Please try again.";
+    public static final String ID_TOO_LONG_ERROR =
+            "Id should be at most " + InputValidations.MAX_ID_LENGTH + " characters.";
     public static final String INSUFFICIENT_BALANCE_ERROR = "Transaction failed due to insufficient balance.";
     public static final String ACCOUNT_NOT_FOUND_ERROR = "Account not found.";
     public static final String INVALID_DATE_FORMAT_ERROR = "Invalid date format:";
+    public static final String OUTPUT_FILE_ERROR = "Unable to write the output file:";
+    public static final String INVALID_PATH_ERROR = "Invalid output file path.";
+    public static final String REQUEST_TOO_LARGE_ERROR = "Request body too large.";
 
     public static final String WELCOME_PROMPT = "Welcome to AwesomeGIC Bank! What would you like to do?\n" +
             "[T] Input transactions \n" +
             "[I] Define interest rules\n" +
             "[P] Print statement\n" +
+            "[M] Month-end interest run\n" +
+            "[E] Export statements\n" +
+            "[S] Show metrics\n" +
             "[Q] Quit\n" +
             "> ";
     public static final String GO_BACK_PROMPT = "or enter blank to go back to main menu):";
     public static final String DEFINE_RULE_PROMPT = "Please enter interest rules details in <Date> <RuleId> <Rate in %> format";
     public static final String PRINT_STATEMENT_PROMPT = "Please enter account and month to generate the statement <Account> <Year><Month>";
+    public static final String MONTH_END_PROMPT = "Please enter month and output file for the month-end interest run <Year><Month> <File>";
+    public static final String EXPORT_PROMPT = "Please enter month and output file (.csv or .ndjson, add .gz to compress) for the statement export <Year><Month> <File>";
     public static final String INPUT_TRANSACTIONS_PROMPT = "Please enter transaction details in <Date> <Account> <Type> <Amount> format";
 
+    public static final String BANKING_USAGE_MESSAGE = "Usage: BankingSystem [--input <commands-file> | --port <port>] [<journal-file>]";
+    public static final String SERVER_USAGE_MESSAGE = "Usage: BankingServer [--port <port>] [--threads <count>] [<journal-file>]";
+    public static final String SERVER_STARTED_MESSAGE = "Banking service listening on http://localhost:%d%n";
+    public static final String BATCH_USAGE_MESSAGE = "Usage: BatchIngestion [--compact] [--mapped | --threads <count>] [--metrics] [--journal <journal-file>] <transactions-file>";
+    public static final String MONTH_END_SUMMARY_MESSAGE = "Month-end interest run completed: %d accounts, total interest %s in %d ms (avg %d us, max %d us per account)%n";
+    public static final String EXPORT_PROGRESS_MESSAGE = "Exported %d of %d accounts, %d rows, %d KB in %d ms%n";
+    public static final String EXPORT_SUMMARY_MESSAGE = "Statement export completed: %d accounts, %d rows, %d KB in %d ms (%.0f rows/s, %.1f MB/s)%n";
+    public static final String BATCH_SUMMARY_MESSAGE = "Batch ingestion completed: %d accepted, %d rejected in %d ms (%.0f transactions/s)%n";
+    public static final String PIPELINE_STAGE_MESSAGE = "  %-5s stage: %d items (%.0f items/s per busy thread), input queue depth avg %.1f, max %d%n";
+
+    public static final String SNAPSHOT_RESTORE_MESSAGE = "Opened snapshot of %d accounts and %d interest rules in %d ms%n";
+    public static final String SNAPSHOT_WRITE_MESSAGE = "Wrote snapshot of %d accounts and %d transactions in %d ms (longest account pause %d us)%n";
+    public static final String JOURNAL_RECOVERY_MESSAGE = "Recovered %d transactions and %d interest rule changes from the journal in %d ms (%.0f records/s)%n";
+
     public static final String THANK_YOU_MESSAGE = "Thank you for banking with AwesomeGIC Bank.\nHave a nice day!";
 
 }
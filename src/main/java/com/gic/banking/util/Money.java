@@ -0,0 +1,99 @@
+package com.gic.banking.util;
+
+/**
+ * Helpers for monetary amounts held as a long number of cents.
+ */
+public class Money {
+
+    // Returned by parseCents when the text is not a valid amount
+    public static final long INVALID_AMOUNT = -1;
+
+    // Keeps the parsed amount within the range of a long number of cents
+    private static final int MAX_INTEGER_DIGITS = 16;
+
+    private Money() {
+    }
+
+    /**
+     * Parses an amount with up to 2 decimal places into cents without allocating.
+     *
+     * @param amountStr The amount to parse, e.g. "100", "100.5" or "100.50".
+     * @return The amount in cents, or INVALID_AMOUNT if the text is not a non-negative amount with up to
+     * 2 decimal places and at most 16 integer digits.
+     */
+    public static long parseCents(CharSequence amountStr) {
+        if (amountStr == null) return INVALID_AMOUNT;
+        int length = amountStr.length();
+
+        long units = 0;
+        int index = 0;
+        while (index < length && isDigit(amountStr.charAt(index))) {
+            if (index == MAX_INTEGER_DIGITS) return INVALID_AMOUNT;
+            units = units * 10 + (amountStr.charAt(index++) - '0');
+        }
+        if (index == 0) return INVALID_AMOUNT; // At least one integer digit is required
+
+        long fraction = 0;
+        if (index < length) {
+            if (amountStr.charAt(index++) != '.') return INVALID_AMOUNT;
+            int fractionStart = index;
+            while (index < length && isDigit(amountStr.charAt(index))) {
+                fraction = fraction * 10 + (amountStr.charAt(index++) - '0');
+            }
+            int fractionDigits = index - fractionStart;
+            if (index != length || fractionDigits == 0 || fractionDigits > 2) return INVALID_AMOUNT;
+            if (fractionDigits == 1) fraction *= 10;
+        }
+        return units * 100 + fraction;
+    }
+
+    /**
+     * Converts an amount to cents, rounding to the nearest cent.
+     *
+     * @param amount The amount to convert.
+     * @return The amount in cents.
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Converts cents to an amount.
+     *
+     * @param cents The amount in cents.
+     * @return The amount.
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Formats cents as an amount with 2 decimal places, e.g. 12345 as "123.45".
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount.
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+
+    /**
+     * Appends cents as an amount with 2 decimal places.
+     *
+     * @param builder The builder to append to.
+     * @param cents   The amount in cents.
+     * @return The builder.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long cents) {
+        if (cents < 0) builder.append('-');
+        long units = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        builder.append(units).append('.');
+        if (fraction < 10) builder.append('0');
+        return builder.append(fraction);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
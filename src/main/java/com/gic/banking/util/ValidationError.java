@@ -0,0 +1,24 @@
+package com.gic.banking.util;
+
+/**
+ * Reasons an input field is rejected by {@link InputValidations}, or by a handler for an output path.
+ * Handlers map them to the messages in {@link MessageConstants}.
+ */
+public enum ValidationError {
+    // The date is not 8 digits in "yyyyMMdd" format
+    INVALID_DATE_FORMAT,
+    // The date has the right format but does not exist, e.g. "20230230"
+    INVALID_DATE,
+    // The period is not 6 digits in "yyyyMM" format
+    INVALID_PERIOD_FORMAT,
+    // The period has the right format but the month does not exist, e.g. "202313"
+    INVALID_PERIOD,
+    // The amount is not a number with up to 2 decimal places
+    INVALID_AMOUNT_FORMAT,
+    // The amount is zero
+    NON_POSITIVE_AMOUNT,
+    // The account or rule id is longer than InputValidations.MAX_ID_LENGTH characters
+    ID_TOO_LONG,
+    // The output file is not a valid path on this system, e.g. it contains a NUL character
+    INVALID_PATH
+}
@@ -0,0 +1,147 @@
+package com.gic.banking;
+
+import com.gic.banking.journal.Journal;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.MessageConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankingServerTest {
+    @TempDir
+    Path tempDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private AccountRepository accountRepository;
+    private BankingServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        accountRepository = new AccountRepository();
+        server = new BankingServer(0, 8, accountRepository, new InterestRulesRepository());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testPostRulesAndTransactionsThenFetchStatement() throws Exception {
+        HttpResponse<String> rules = send("PUT", "/rules", "20230101 RULE01 1.95\n20230520 RULE02 1.90\n");
+        HttpResponse<String> transactions = send("POST", "/transactions",
+                "20230505 AC001 D 100.00\n20230601 AC001 D 150.00\n20230626 AC001 W 20.00\n");
+        HttpResponse<String> statement = send("GET", "/statements/AC001/202306", null);
+
+        assertEquals(200, rules.statusCode());
+        assertEquals("OK\nOK\n", rules.body());
+        assertEquals(200, transactions.statusCode());
+        assertEquals("OK\nOK\nOK\n", transactions.body());
+        assertEquals(200, statement.statusCode());
+        assertTrue(statement.body().contains("| 20230630\t | \t\t | I\t |   0.39\t | 230.39\t |"));
+    }
+
+    @Test
+    void testRejectionsReportTheValidationError() throws Exception {
+        HttpResponse<String> transactions = send("POST", "/transactions",
+                "20230505 AC001 D 100.00\n20230601 AC001 W 150.00\n");
+        HttpResponse<String> rules = send("PUT", "/rules", "20230101 RULE01 100\n");
+        HttpResponse<String> missing = send("GET", "/statements/AC999/202306", null);
+        HttpResponse<String> wrongMethod = send("GET", "/transactions", null);
+
+        assertEquals(400, transactions.statusCode());
+        assertEquals("OK\n" + MessageConstants.INSUFFICIENT_BALANCE_ERROR + "\n", transactions.body());
+        assertEquals(400, rules.statusCode());
+        assertEquals(MessageConstants.INVALID_RATE_ERROR + "\n", rules.body());
+        assertEquals(404, missing.statusCode());
+        assertEquals(405, wrongMethod.statusCode());
+    }
+
+    @Test
+    void testOversizedBodiesAreRefused() throws Exception {
+        String body = "20230505 AC001 D 1.00\n".repeat(50_000);
+        HttpResponse<String> sized = send("POST", "/transactions", body);
+        HttpResponse<String> chunked = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort() + "/rules"))
+                .PUT(HttpRequest.BodyPublishers.ofInputStream(
+                        () -> new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(413, sized.statusCode());
+        assertEquals(MessageConstants.REQUEST_TOO_LARGE_ERROR + "\n", sized.body());
+        assertEquals(413, chunked.statusCode());
+        assertNull(accountRepository.findById("AC001"));
+    }
+
+    @Test
+    void testConcurrentClientsPostToSharedAccounts() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int request = 0; request < 500; request++) {
+            String body = "20230505 AC00" + (request % 5) + " D 1.00\n";
+            responses.add(client.sendAsync(request("POST", "/transactions", body),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+        for (int account = 0; account < 5; account++) {
+            assertEquals(100_00, accountRepository.findById("AC00" + account).getBalanceCents());
+        }
+        assertTrue(send("GET", "/metrics", null).body().contains("operation=\"server_post_transactions\""));
+    }
+
+    @Test
+    void testJournaledPostingsAreOnDiskWhenAcknowledged() throws Exception {
+        server.close();
+        AccountRepository journaledAccounts = new AccountRepository();
+        InterestRulesRepository journaledRules = new InterestRulesRepository();
+        Path file = tempDir.resolve("bank.journal");
+        try (Journal journal = Journal.open(file, journaledAccounts, journaledRules)) {
+            server = new BankingServer(0, 8, journaledAccounts, journaledRules, journal);
+            server.start();
+
+            HttpResponse<String> transactions = send("POST", "/transactions", "20230505 AC001 D 100.00\n");
+            HttpResponse<String> rules = send("PUT", "/rules", "20230101 RULE01 1.95\n");
+            // Recover a copy while the journal is still open: only what was forced to disk is in it
+            Path copy = Files.copy(file, tempDir.resolve("copy.journal"));
+            AccountRepository recoveredAccounts = new AccountRepository();
+            InterestRulesRepository recoveredRules = new InterestRulesRepository();
+            Journal.open(copy, recoveredAccounts, recoveredRules).close();
+
+            assertEquals(200, transactions.statusCode());
+            assertEquals(200, rules.statusCode());
+            assertEquals(100_00, recoveredAccounts.findById("AC001").getBalanceCents());
+            assertEquals(1, recoveredRules.getInterestRules().size());
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
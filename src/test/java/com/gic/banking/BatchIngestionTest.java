@@ -0,0 +1,80 @@
+package com.gic.banking;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.util.MessageConstants;
+import com.github.stefanbirkner.systemlambda.SystemLambda;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchIngestionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIngestCountsAcceptedAndRejectedLines() throws Exception {
+        String input = "20230505 AC001 D 100.00\n" +
+                "20230601 AC001 W 150.00\n" +   // insufficient balance
+                "\n" +
+                "20230626 AC001 W\n" +          // invalid format
+                "20230626 AC002 D 20.00\n";
+
+        AccountRepository repository = new AccountRepository();
+        BatchIngestion batchIngestion = new BatchIngestion(new TransactionHandler(repository));
+
+        BatchIngestion.Summary summary = batchIngestion.ingest(new BufferedReader(new StringReader(input)));
+
+        assertEquals(2, summary.getAccepted());
+        assertEquals(2, summary.getRejected());
+        assertEquals(100.0, repository.findById("AC001").getBalance());
+        assertEquals(20.0, repository.findById("AC002").getBalance());
+    }
+
+    @Test
+    void testIngestDoesNotPrintStatements() throws Exception {
+        Path file = tempDir.resolve("transactions.txt");
+        Files.writeString(file, "20230505 AC001 D 100.00\n20230506 AC001 W 10.00\n");
+
+        AccountRepository repository = new AccountRepository();
+        BatchIngestion batchIngestion = new BatchIngestion(new TransactionHandler(repository));
+
+        String output = SystemLambda.tapSystemOutNormalized(() -> batchIngestion.ingest(file));
+
+        assertTrue(output.isEmpty(), "Statements should not be printed in batch mode");
+        BankAccount account = repository.findById("AC001");
+        assertEquals(2, account.getTransactions().size());
+        assertEquals(90.0, account.getBalance());
+    }
+
+    @Test
+    void testSummaryOutput() throws Exception {
+        BatchIngestion.Summary summary = new BatchIngestion.Summary(3, 1, 2_000_000_000L);
+
+        String output = SystemLambda.tapSystemOutNormalized(summary::print);
+
+        assertEquals(2.0, summary.getThroughput());
+        assertTrue(output.contains("3 accepted, 1 rejected in 2000 ms"), "Output Message is incorrect");
+    }
+
+    @Test
+    void testMappedWithThreadsIsRejected() throws Exception {
+        Path file = tempDir.resolve("transactions.txt");
+        Files.writeString(file, "20230505 AC001 D 100.00\n");
+
+        String output = SystemLambda.tapSystemOutNormalized(() ->
+                BatchIngestion.main(new String[]{"--mapped", "--threads", "4", file.toString()}));
+
+        assertTrue(output.contains(MessageConstants.BATCH_USAGE_MESSAGE), "Output Message is incorrect");
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchIngestion(new TransactionHandler(new AccountRepository()), 4, true));
+    }
+}
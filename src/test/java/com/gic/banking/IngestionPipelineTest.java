@@ -0,0 +1,78 @@
+package com.gic.banking;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.ops.StatementWriter;
+import com.gic.banking.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionPipelineTest {
+
+    @Test
+    void testPipelineMatchesSequentialIngestion() throws Exception {
+        String input = randomTransactions(20_000);
+        AccountRepository sequentialRepository = new AccountRepository();
+        AccountRepository pipelinedRepository = new AccountRepository();
+
+        BatchIngestion.Summary expected = new BatchIngestion(new TransactionHandler(sequentialRepository))
+                .ingest(new BufferedReader(new StringReader(input)));
+        IngestionPipeline.Summary summary = new IngestionPipeline(new TransactionHandler(pipelinedRepository), 3, 4, 1)
+                .ingest(new BufferedReader(new StringReader(input)));
+
+        assertEquals(expected.getAccepted(), summary.getAccepted());
+        assertEquals(expected.getRejected(), summary.getRejected());
+        assertEquals(sequentialRepository.getAccounts().size(), pipelinedRepository.getAccounts().size());
+        for (BankAccount account : sequentialRepository.getAccounts()) {
+            BankAccount pipelined = pipelinedRepository.findById(account.getAccountId());
+            assertEquals(statementOf(account), statementOf(pipelined));
+            assertEquals(account.getBalanceCents(), pipelined.getBalanceCents());
+        }
+    }
+
+    @Test
+    void testStageMetrics() throws Exception {
+        String input = "20230505 AC001 D 100.00\n" +
+                "20230601 AC001 W 150.00\n" +   // insufficient balance
+                "\n" +
+                "20230626 AC001 W\n" +          // invalid format
+                "20230626 AC002 D 20.00\n";
+
+        IngestionPipeline.Summary summary = new IngestionPipeline(new TransactionHandler(new AccountRepository()), 2, 2, 4)
+                .ingest(new BufferedReader(new StringReader(input)));
+
+        assertEquals(2, summary.getAccepted());
+        assertEquals(2, summary.getRejected());
+        assertEquals(3, summary.getStages().size());
+        assertEquals(5, summary.getStages().get(0).getItems()); // Lines read
+        assertEquals(5, summary.getStages().get(1).getItems()); // Lines parsed
+        assertEquals(3, summary.getStages().get(2).getItems()); // Transactions posted
+        assertTrue(summary.getStages().get(2).getMaxQueueDepth() <= 4);
+    }
+
+    private static String statementOf(BankAccount account) {
+        StringBuilder statement = new StringBuilder();
+        StatementWriter writer = new StatementWriter(statement);
+        account.printStatement(writer);
+        writer.flush();
+        return statement.toString();
+    }
+
+    private static String randomTransactions(int count) {
+        Random random = new Random(42);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int day = 1 + i * 28 / count;
+            String account = "AC" + random.nextInt(50);
+            String type = random.nextInt(3) == 0 ? "W" : "D";
+            String amount = random.nextInt(20) == 0 ? "abc" : (1 + random.nextInt(500)) + "." + random.nextInt(10) + "0";
+            input.append(String.format("202306%02d %s %s %s%n", day, account, type, amount));
+        }
+        return input.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.gic.banking;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.handler.TransactionHandler.ParsedTransaction;
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.ops.StatementWriter;
+import com.gic.banking.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTransactionReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIngestMatchesLineReader() throws Exception {
+        StringBuilder input = new StringBuilder("  20230505 AC001 D 100.00\r\n" +
+                "20230601 AC001 W 150.00\n" +   // insufficient balance
+                "\n" +
+                "20230626 AC001 W\n" +          // invalid format
+                "20230626  AC001 W 1.00\n" +    // empty field
+                "20230230 AC001 D 1.00\n" +     // invalid date
+                "20230626 AC001 d 1.00\n" +     // invalid type
+                "20230626 AC001 D 0.00\n" +     // zero amount
+                "20230626 AC001 D 1.005\n" +    // invalid amount
+                "20230626 ÄC002 D 20.00\n");
+        for (int i = 0; i < 3000; i++) {
+            input.append(String.format("202307%02d AC%d D %d.%02d%n", 1 + i % 28, i, i, i % 100));
+        }
+        input.append("20230701 AC001 W 50"); // no final line break
+        Path file = tempDir.resolve("transactions.txt");
+        Files.writeString(file, input);
+        AccountRepository lineRepository = new AccountRepository();
+        AccountRepository mappedRepository = new AccountRepository();
+
+        BatchIngestion.Summary expected = new BatchIngestion(new TransactionHandler(lineRepository)).ingest(file);
+        BatchIngestion.Summary summary = new BatchIngestion(new TransactionHandler(mappedRepository), 1, true)
+                .ingest(file);
+
+        assertEquals(expected.getAccepted(), summary.getAccepted());
+        assertEquals(expected.getRejected(), summary.getRejected());
+        assertEquals(8, summary.getRejected()); // Including "AC0 D 0.00"
+        assertEquals(lineRepository.getAccounts().size(), mappedRepository.getAccounts().size());
+        for (BankAccount account : lineRepository.getAccounts()) {
+            assertEquals(statementOf(account), statementOf(mappedRepository.findById(account.getAccountId())));
+        }
+    }
+
+    @Test
+    void testAccountIdsAreInterned() throws Exception {
+        Path file = tempDir.resolve("transactions.txt");
+        Files.writeString(file, "20230505 AC001 D 100.00\n20230506 AC002 D 10.00\n20230507 AC001 W 10.00\n");
+        MappedTransactionReader reader = new MappedTransactionReader(file);
+        List<ParsedTransaction> transactions = new ArrayList<>();
+
+        reader.forEach(transactions::add);
+
+        assertEquals(3, transactions.size());
+        assertSame(transactions.get(0).getAccountId(), transactions.get(2).getAccountId());
+        assertEquals("AC002", transactions.get(1).getAccountId());
+        assertEquals(1000, transactions.get(1).getAmount());
+        assertEquals(2, reader.getAccountCount());
+    }
+
+    private static String statementOf(BankAccount account) {
+        StringBuilder statement = new StringBuilder();
+        StatementWriter writer = new StatementWriter(statement);
+        account.printStatement(writer);
+        writer.flush();
+        return statement.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.gic.banking.handler;
+
+import com.gic.banking.ops.MonthEndInterestRun;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.MessageConstants;
+import com.github.stefanbirkner.systemlambda.SystemLambda;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonthEndHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMonthEndRunWritesOutputFile() throws Exception {
+        Path outputFile = tempDir.resolve("interest.csv");
+        String input = "202306 " + outputFile + "\n";
+
+        String output = SystemLambda.tapSystemOutNormalized(() ->
+                SystemLambda.withTextFromSystemIn(input).execute(() -> {
+                            MonthEndHandler handler = new MonthEndHandler(
+                                    new MonthEndInterestRun(new AccountRepository(), new InterestRulesRepository()));
+                            handler.handle();
+                        }
+                )
+        );
+        assertTrue(output.contains("Month-end interest run completed: 0 accounts"), "Output Message is incorrect");
+        assertTrue(Files.exists(outputFile));
+    }
+
+    @Test
+    void testInvalidMonthEndPeriod() throws Exception {
+        String input = "2023061 interest.csv\n";
+
+        String output = SystemLambda.tapSystemOutNormalized(() ->
+                SystemLambda.withTextFromSystemIn(input).execute(() -> {
+                            MonthEndHandler handler = new MonthEndHandler(
+                                    new MonthEndInterestRun(new AccountRepository(), new InterestRulesRepository()));
+                            handler.handle();
+                        }
+                )
+        );
+        assertTrue(output.contains(MessageConstants.INVALID_PERIOD_FORMAT_ERROR), "Output Message is incorrect");
+    }
+
+    @Test
+    void testInvalidMonthEndInputFormat() throws Exception {
+        String input = "202306\n";
+
+        String output = SystemLambda.tapSystemOutNormalized(() ->
+                SystemLambda.withTextFromSystemIn(input).execute(() -> {
+                            MonthEndHandler handler = new MonthEndHandler(
+                                    new MonthEndInterestRun(new AccountRepository(), new InterestRulesRepository()));
+                            handler.handle();
+                        }
+                )
+        );
+        assertTrue(output.contains(MessageConstants.INVALID_INPUT_FORMAT_ERROR), "Output Message is incorrect");
+    }
+
+    @Test
+    void testInvalidMonthEndOutputPath() throws Exception {
+        String input = "202306 interest\0.csv\n";
+
+        String output = SystemLambda.tapSystemOutNormalized(() ->
+                SystemLambda.withTextFromSystemIn(input).execute(() -> {
+                            MonthEndHandler handler = new MonthEndHandler(
+                                    new MonthEndInterestRun(new AccountRepository(), new InterestRulesRepository()));
+                            handler.handle();
+                        }
+                )
+        );
+        assertTrue(output.contains(MessageConstants.INVALID_PATH_ERROR), "Output Message is incorrect");
+    }
+}
@@ -1,10 +1,12 @@
 package com.gic.banking.handler;
 
 import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.util.InputValidations;
 import com.gic.banking.util.MessageConstants;
 import com.github.stefanbirkner.systemlambda.SystemLambda;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TransactionHandlerTest {
@@ -71,6 +73,22 @@ class TransactionHandlerTest {
         assertTrue(output.contains(MessageConstants.INVALID_TRANSACTION_TYPE_ERROR), "Output Message is incorrect");
     }
 
+    @Test
+    void testAccountIdTooLong() throws Exception {
+        String input = "20230505 " + "A".repeat(InputValidations.MAX_ID_LENGTH + 1) + " D 100.00\n";
+
+        String output = SystemLambda.tapSystemOutNormalized(() ->
+                SystemLambda.withTextFromSystemIn(input).execute(() -> {
+                            AccountRepository repository = new AccountRepository();
+                            TransactionHandler handler = new TransactionHandler(repository);
+                            handler.handle();
+                            assertEquals(0, repository.getAccountCount());
+                        }
+                )
+        );
+        assertTrue(output.contains(MessageConstants.ID_TOO_LONG_ERROR), "Output Message is incorrect");
+    }
+
     @Test
     void testInvalidTransactionAmount() throws Exception {
         String input = "20230505 AC001 D 100.11651\n";
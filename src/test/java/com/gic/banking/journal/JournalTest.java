@@ -0,0 +1,218 @@
+package com.gic.banking.journal;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.model.PostingBatch;
+import com.gic.banking.model.Transaction;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRuleTable;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void append_shouldLeaveStateUnchangedWhenTheRecordIsRejected() throws Exception {
+        // Arrange
+        AccountRepository accountRepository = new AccountRepository();
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        String longId = "A".repeat(40_000);
+        try (Journal journal = Journal.open(tempDir.resolve("bank.journal"), accountRepository,
+                interestRulesRepository)) {
+            BankAccount account = accountRepository.addAccount(longId);
+            InterestRule rule = new InterestRule(LocalDate.of(2023, 1, 1), longId, 1.95);
+
+            // Act
+            assertThrows(IllegalArgumentException.class, () -> account.addTransaction("20230505", "D", 100.0));
+            assertThrows(IllegalArgumentException.class, () -> interestRulesRepository.addInterestRule(rule));
+
+            // Assert
+            assertEquals(0, account.getBalanceCents());
+            assertEquals(0, account.getTransactionCount());
+            assertTrue(interestRulesRepository.getInterestRules().isEmpty());
+            assertEquals(0, journal.getRecordCount());
+        }
+    }
+
+    @Test
+    void applyBatch_shouldNotJournalOrPublishAnyRuleOfARejectedBatch() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal");
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        InterestRule validRule = new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95);
+        InterestRule invalidRule = new InterestRule(LocalDate.of(2023, 6, 1), "A".repeat(40_000), 2.20);
+        try (Journal journal = Journal.open(file, new AccountRepository(), interestRulesRepository)) {
+            InterestRuleTable table = interestRulesRepository.getTable();
+
+            // Act
+            assertThrows(IllegalArgumentException.class,
+                    () -> interestRulesRepository.applyBatch(List.of(), List.of(validRule, invalidRule)));
+
+            // Assert
+            assertSame(table, interestRulesRepository.getTable());
+            assertEquals(0, journal.getRecordCount());
+        }
+        InterestRulesRepository recoveredRules = new InterestRulesRepository();
+        try (Journal journal = Journal.open(file, new AccountRepository(), recoveredRules)) {
+            assertEquals(0, journal.getRecovery().getRuleChanges());
+        }
+        assertTrue(recoveredRules.getInterestRules().isEmpty());
+    }
+
+    @Test
+    void open_shouldReplayTheAcceptedPostingsOfABatch() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal");
+        LocalDate date = LocalDate.of(2023, 5, 5);
+        PostingBatch batch = new PostingBatch()
+                .add(date, "D", 100_00)
+                .add(date, "W", 150_00)
+                .add(date.plusDays(1), "W", 40_00);
+        AccountRepository accountRepository = new AccountRepository();
+        try (Journal journal = Journal.open(file, accountRepository, new InterestRulesRepository())) {
+            // Act
+            accountRepository.addAccount("AC001").addTransactions(batch);
+
+            // Assert
+            assertEquals(2, journal.getRecordCount());
+        }
+        AccountRepository recoveredAccounts = new AccountRepository();
+        try (Journal journal = Journal.open(file, recoveredAccounts, new InterestRulesRepository())) {
+            assertEquals(2, journal.getRecovery().getTransactions());
+        }
+        assertEquals(60_00, recoveredAccounts.findById("AC001").getBalanceCents());
+    }
+
+    @Test
+    void open_shouldReplayTransactionsAndRuleChanges() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal");
+        InterestRule rule1 = new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95);
+        InterestRule rule2 = new InterestRule(LocalDate.of(2023, 6, 15), "RULE03", 2.20);
+        try (Journal journal = Journal.open(file, new AccountRepository(), new InterestRulesRepository())) {
+            assertEquals(0, journal.getRecovery().getTransactions());
+        }
+        AccountRepository accountRepository = new AccountRepository();
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        try (Journal journal = Journal.open(file, accountRepository, interestRulesRepository)) {
+            accountRepository.addAccount("AC001").addTransaction("20230505", "D", 100.0);
+            accountRepository.addAccount("AC001").addTransaction("20230601", "W", 150.0); // Rejected
+            accountRepository.addAccount("AC001").addTransaction("20230626", "W", 20.5);
+            accountRepository.addAccount("AC002").addTransaction("20230626", "D", 1.0);
+            interestRulesRepository.addInterestRule(rule1);
+            interestRulesRepository.addInterestRule(rule2);
+            interestRulesRepository.removeInterestRule(rule1);
+            journal.awaitDurable();
+        }
+
+        // Act
+        AccountRepository recoveredAccounts = new AccountRepository();
+        InterestRulesRepository recoveredRules = new InterestRulesRepository();
+        Journal.Recovery recovery;
+        try (Journal journal = Journal.open(file, recoveredAccounts, recoveredRules)) {
+            recovery = journal.getRecovery();
+        }
+
+        // Assert
+        assertEquals(3, recovery.getTransactions());
+        assertEquals(3, recovery.getRuleChanges());
+        BankAccount account = recoveredAccounts.findById("AC001");
+        assertEquals(7950, account.getBalanceCents());
+        List<Transaction> transactions = account.getTransactions();
+        assertEquals(2, transactions.size());
+        assertEquals("20230626-1", transactions.get(1).getId());
+        assertEquals(100, recoveredAccounts.findById("AC002").getBalanceCents());
+        assertEquals(1, recoveredRules.getInterestRules().size());
+        assertTrue(recoveredRules.getInterestRules().contains(rule2));
+    }
+
+    @Test
+    void open_shouldDropTornRecordAtEndOfJournal() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal");
+        AccountRepository accountRepository = new AccountRepository();
+        try (Journal journal = Journal.open(file, accountRepository, new InterestRulesRepository())) {
+            accountRepository.addAccount("AC001").addTransaction("20230505", "D", 100.0);
+        }
+        long validLength = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 20, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        AccountRepository recoveredAccounts = new AccountRepository();
+        try (Journal journal = Journal.open(file, recoveredAccounts, new InterestRulesRepository())) {
+            recoveredAccounts.addAccount("AC001").addTransaction("20230506", "D", 1.0);
+        }
+        AccountRepository reopenedAccounts = new AccountRepository();
+        try (Journal journal = Journal.open(file, reopenedAccounts, new InterestRulesRepository())) {
+            assertEquals(2, journal.getRecovery().getTransactions());
+        }
+
+        // Assert
+        assertTrue(Files.size(file) > validLength);
+        assertEquals(10100, reopenedAccounts.findById("AC001").getBalanceCents());
+    }
+
+    @Test
+    void open_shouldRejectFileThatIsNotAJournal() throws Exception {
+        Path file = tempDir.resolve("transactions.txt");
+        Files.writeString(file, "20230505 AC001 D 100.00\n");
+
+        assertThrows(IOException.class,
+                () -> Journal.open(file, new AccountRepository(), new InterestRulesRepository()));
+    }
+
+    @Test
+    void awaitDurable_shouldGroupConcurrentPostings() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal");
+        AccountRepository accountRepository = new AccountRepository();
+        int threads = 8;
+        int postingsPerThread = 200;
+        try (Journal journal = Journal.open(file, accountRepository, new InterestRulesRepository())) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String accountId = "AC" + t;
+                tasks.add(() -> {
+                    for (int i = 0; i < postingsPerThread; i++) {
+                        accountRepository.addAccount(accountId).addTransaction("20230601", "D", 1.0);
+                        journal.awaitDurable();
+                    }
+                    return null;
+                });
+            }
+
+            // Act
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            executor.shutdown();
+
+            // Assert
+            assertTrue(journal.getForces() <= threads * postingsPerThread);
+        }
+        AccountRepository recoveredAccounts = new AccountRepository();
+        try (Journal journal = Journal.open(file, recoveredAccounts, new InterestRulesRepository())) {
+            assertEquals(threads * postingsPerThread, journal.getRecovery().getTransactions());
+        }
+        assertEquals(postingsPerThread * 100L, recoveredAccounts.findById("AC3").getBalanceCents());
+    }
+}
@@ -0,0 +1,126 @@
+package com.gic.banking.journal;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.model.Transaction;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void open_shouldRestoreSnapshotAndReplayOnlyTheJournalTail() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal");
+        InterestRule rule = new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95);
+        AccountRepository accountRepository = new AccountRepository();
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        try (Journal journal = Journal.open(file, accountRepository, interestRulesRepository)) {
+            accountRepository.addAccount("AC001").addTransaction("20230505", "D", 100.0);
+            accountRepository.addAccount("AC001").addTransaction("20230505", "W", 20.5);
+            accountRepository.addAccount("AC002").addTransaction("20230601", "D", 1.0);
+            interestRulesRepository.addInterestRule(rule);
+            Snapshot.Capture capture = journal.checkpoint();
+            assertEquals(2, capture.getAccounts());
+            assertEquals(3, capture.getTransactions());
+            accountRepository.addAccount("AC001").addTransaction("20230505", "D", 5.0);
+            accountRepository.addAccount("AC003").addTransaction("20230701", "D", 2.0);
+        }
+
+        // Act
+        AccountRepository recoveredAccounts = new AccountRepository();
+        InterestRulesRepository recoveredRules = new InterestRulesRepository();
+        Journal.Recovery recovery;
+        try (Journal journal = Journal.open(file, recoveredAccounts, recoveredRules)) {
+            recovery = journal.getRecovery();
+        }
+
+        // Assert
+        assertNotNull(recovery.getSnapshot());
+        assertEquals(2, recovery.getTransactions());
+        assertEquals(0, recovery.getRuleChanges());
+        BankAccount account = recoveredAccounts.findById("AC001");
+        assertEquals(8450, account.getBalanceCents());
+        List<Transaction> transactions = account.getTransactions();
+        assertEquals(3, transactions.size());
+        assertEquals("20230505-2", transactions.get(1).getId());
+        assertEquals(7950, transactions.get(1).getBalanceCents());
+        assertEquals("20230505-3", transactions.get(2).getId());
+        assertEquals(100, recoveredAccounts.findById("AC002").getBalanceCents());
+        assertEquals(200, recoveredAccounts.findById("AC003").getBalanceCents());
+        assertNull(recoveredAccounts.findById("AC004"));
+        assertEquals(3, recoveredAccounts.getAccounts().size());
+        assertTrue(recoveredRules.getInterestRules().contains(rule));
+    }
+
+    @Test
+    void checkpoint_shouldCaptureConsistentStateWhileAccountsArePosted() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal");
+        AccountRepository accountRepository = new AccountRepository();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (Journal journal = Journal.open(file, accountRepository, new InterestRulesRepository())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                String accountId = "AC00" + t;
+                futures.add(executor.submit(() -> {
+                    int day = 1;
+                    while (running.get()) {
+                        accountRepository.addAccount(accountId)
+                                .addTransaction(String.format("202301%02d", day % 28 + 1), "D", 1.0);
+                        day++;
+                    }
+                }));
+            }
+
+            // Act
+            for (int i = 0; i < 5; i++) {
+                journal.checkpoint();
+            }
+            running.set(false);
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        AccountRepository recoveredAccounts = new AccountRepository();
+        try (Journal journal = Journal.open(file, recoveredAccounts, new InterestRulesRepository())) {
+            assertNotNull(journal.getRecovery().getSnapshot());
+        }
+
+        // Assert
+        for (BankAccount account : accountRepository.getAccounts()) {
+            BankAccount recovered = recoveredAccounts.findById(account.getAccountId());
+            assertEquals(account.getBalanceCents(), recovered.getBalanceCents());
+            assertEquals(account.getTransactions().size(), recovered.getTransactions().size());
+        }
+    }
+
+    @Test
+    void open_shouldRejectFileThatIsNotSnapshot() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("bank.journal.snapshot");
+        Files.write(file, new byte[64]);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> Snapshot.open(file));
+    }
+}
@@ -0,0 +1,80 @@
+package com.gic.banking.metrics;
+
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+
+    @Test
+    void getValueAtQuantile_shouldBeWithinBucketPrecision() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) histogram.record(value * 1_000);
+
+        // Act
+        long median = histogram.getValueAtQuantile(0.5);
+        long p99 = histogram.getValueAtQuantile(0.99);
+
+        // Assert
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMaxNanos());
+        assertTrue(Math.abs(median - 50_000_000) <= 50_000_000 / 62, "median " + median);
+        assertTrue(Math.abs(p99 - 99_000_000) <= 99_000_000 / 62, "p99 " + p99);
+        assertEquals(100_000_000, histogram.getValueAtQuantile(1.0));
+    }
+
+    @Test
+    void indexOf_shouldMapEveryValueIntoTheBucketEndingAtOrAfterIt() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 255, 256, 1_000, 123_456_789, (1L << 40) - 1}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value, "value " + value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value, "value " + value);
+        }
+    }
+
+    @Test
+    void writeText_shouldExposeCountersAndLatencySummaries() {
+        // Arrange
+        Metrics metrics = new Metrics();
+        metrics.counter("transactions_rejected_total", "reason", "insufficient_balance").add(2);
+        metrics.counter("accounts_total").increment();
+        metrics.latency("bank_account_add_transaction").record(1_500);
+        StringBuilder text = new StringBuilder();
+
+        // Act
+        metrics.writeText(text);
+
+        // Assert
+        String output = text.toString();
+        assertTrue(output.contains("# TYPE gic_accounts_total counter\ngic_accounts_total 1\n"));
+        assertTrue(output.contains("gic_transactions_rejected_total{reason=\"insufficient_balance\"} 2\n"));
+        assertTrue(output.contains("# TYPE gic_operation_latency_seconds summary\n"));
+        assertTrue(output.contains(
+                "gic_operation_latency_seconds{operation=\"bank_account_add_transaction\",quantile=\"0.99\"} 0.0000015"));
+        assertTrue(output.contains(
+                "gic_operation_latency_seconds_count{operation=\"bank_account_add_transaction\"} 1\n"));
+    }
+
+    @Test
+    void postTransaction_shouldCountRejectionsByReason() {
+        // Arrange
+        TransactionHandler transactionHandler = new TransactionHandler(new AccountRepository());
+        long invalidDates = Metrics.global().counter("transactions_rejected_total", "reason", "invalid_date_format").sum();
+        long insufficientBalance =
+                Metrics.global().counter("transactions_rejected_total", "reason", "insufficient_balance").sum();
+
+        // Act
+        transactionHandler.postTransaction("2023-06-01 AC001 D 100.00".split(" "));
+        transactionHandler.postTransaction("20230601 AC001 W 100.00".split(" "));
+
+        // Assert
+        assertEquals(invalidDates + 1,
+                Metrics.global().counter("transactions_rejected_total", "reason", "invalid_date_format").sum());
+        assertEquals(insufficientBalance + 1,
+                Metrics.global().counter("transactions_rejected_total", "reason", "insufficient_balance").sum());
+    }
+}
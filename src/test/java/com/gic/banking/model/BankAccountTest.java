@@ -1,5 +1,6 @@
 package com.gic.banking.model;
 
+import com.gic.banking.util.Dates;
 import com.github.stefanbirkner.systemlambda.SystemLambda;
 import org.junit.jupiter.api.Test;
 
@@ -7,7 +8,10 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -86,4 +90,299 @@ class BankAccountTest {
         account.setTransactions(transactions);
         assertEquals(1, account.getTransactions().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCalculateInterest() {
+        BankAccount account = new BankAccount("AC001");
+        account.addTransaction("20230505", "D", 100.0);
+        account.addTransaction("20230601", "D", 150.0);
+        account.addTransaction("20230626", "W", 20.0);
+        account.addTransaction("20230626", "W", 100.0);
+
+        NavigableMap<LocalDate, InterestRule> rulesByDate = new TreeMap<>();
+        rulesByDate.put(LocalDate.of(2023, 1, 1), new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        rulesByDate.put(LocalDate.of(2023, 5, 20), new InterestRule(LocalDate.of(2023, 5, 20), "RULE02", 1.90));
+        rulesByDate.put(LocalDate.of(2023, 6, 15), new InterestRule(LocalDate.of(2023, 6, 15), "RULE03", 2.20));
+
+        assertEquals(0.39, account.calculateInterest(LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30), rulesByDate));
+        assertEquals(0.39, account.calculateInterest(LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30),
+                new HashSet<>(rulesByDate.values())));
+    }
+
+    @Test
+    void testPrintMonthlyStatementOnlyPrintsTransactionsOfPeriod() throws Exception {
+        String output = SystemLambda.tapSystemOutNormalized(() -> {
+            BankAccount account = new BankAccount("A1");
+            account.addTransaction("20230930", "D", 100.0);
+            account.addTransaction("20231001", "D", 10.0);
+            account.addTransaction("20231101", "W", 20.0);
+
+            account.printMonthlyStatement("202310", new HashSet<>());
+        });
+        assertFalse(output.contains("20230930-1"), "Output Message is incorrect");
+        assertTrue(output.contains("| 20231001\t | 20231001-1\t | D\t |  10.00\t | 110.00\t |"), "Output Message is incorrect");
+        assertFalse(output.contains("20231101-1"), "Output Message is incorrect");
+    }
+
+    @Test
+    void testSetTransactionsIndexesByMonth() throws Exception {
+        BankAccount account = new BankAccount("A1");
+        List<Transaction> transactions = new ArrayList<>();
+        transactions.add(new Transaction("20231005-1", LocalDate.of(2023, 10, 5), "D", 100.0, 100.0));
+        account.setTransactions(transactions);
+
+        String output = SystemLambda.tapSystemOutNormalized(() ->
+                account.printMonthlyStatement("202310", new HashSet<>()));
+
+        assertTrue(output.contains("20231005-1"), "Output Message is incorrect");
+    }
+
+    @Test
+    void calculateInterestCents_shouldKeepMonthlyAccrualUpToDateWithPostingsAndRuleChanges() {
+        // Arrange
+        Random random = new Random(7);
+        BankAccount account = new BankAccount("AC001");
+        NavigableMap<LocalDate, InterestRule> rulesByDate = new TreeMap<>();
+        rulesByDate.put(LocalDate.of(2023, 1, 1), new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        LocalDate date = LocalDate.of(2023, 1, 1);
+
+        for (int i = 0; i < 2000; i++) {
+            // Act
+            date = date.plusDays(random.nextInt(3) == 0 ? 1 : 0);
+            LocalDate postingDate = random.nextInt(50) == 0 ? date.minusDays(random.nextInt(40)) : date;
+            account.addTransaction(Dates.format(postingDate), random.nextInt(3) == 0 ? "W" : "D",
+                    1 + random.nextInt(100000) / 100.0);
+            if (random.nextInt(40) == 0) {
+                LocalDate ruleDate = date.plusDays(random.nextInt(20) - 10);
+                rulesByDate.put(ruleDate, new InterestRule(ruleDate, "RULE" + i, 1 + random.nextInt(300) / 100.0));
+            }
+            LocalDate startDate = date.minusMonths(random.nextInt(2)).withDayOfMonth(1);
+            LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+
+            // Assert
+            BankAccount reference = new BankAccount("AC001");
+            reference.setTransactions(account.getTransactions());
+            assertEquals(reference.calculateInterestCents(startDate, endDate, rulesByDate),
+                    account.calculateInterestCents(startDate, endDate, rulesByDate), "Interest for " + startDate);
+        }
+    }
+
+    @Test
+    void addTransactions_shouldMatchPostingOneByOne() {
+        // Arrange
+        Random random = new Random(11);
+        BankAccount sequential = new BankAccount("AC001");
+        BankAccount batched = new BankAccount("AC001");
+        batched.addTransaction("20230101", "D", 10.00); // Numbering continues from single postings
+        sequential.addTransaction("20230101", "D", 10.00);
+        PostingBatch batch = new PostingBatch(4);
+        LocalDate date = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < 500; i++) {
+            date = date.plusDays(random.nextInt(4) == 0 ? 1 : 0);
+            LocalDate postingDate = random.nextInt(30) == 0 ? date.minusDays(random.nextInt(10)) : date;
+            batch.add(postingDate, random.nextInt(3) == 0 ? "W" : "D", 1 + random.nextInt(100_000));
+        }
+        boolean[] expected = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            expected[i] = sequential.addTransactionCents(batch.getDate(i), batch.isWithdrawal(i) ? "W" : "D",
+                    batch.getAmount(i));
+        }
+
+        // Act
+        int accepted = batched.addTransactions(batch);
+
+        // Assert
+        int expectedAccepted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(expected[i], batch.isAccepted(i), "Posting " + i);
+            if (expected[i]) expectedAccepted++;
+        }
+        assertEquals(expectedAccepted, accepted);
+        assertTrue(accepted < batch.size(), "Some withdrawals should be rejected");
+        assertEquals(sequential.getBalanceCents(), batched.getBalanceCents());
+        List<Transaction> expectedTransactions = sequential.getTransactions();
+        List<Transaction> actualTransactions = batched.getTransactions();
+        assertEquals(expectedTransactions.size(), actualTransactions.size());
+        for (int i = 0; i < expectedTransactions.size(); i++) {
+            assertEquals(expectedTransactions.get(i).getId(), actualTransactions.get(i).getId());
+            assertEquals(expectedTransactions.get(i).getBalanceCents(), actualTransactions.get(i).getBalanceCents());
+        }
+    }
+
+    @Test
+    void addTransactions_shouldValidateAndNotifyADateOrderedBatchOnce() {
+        // Arrange
+        NavigableMap<LocalDate, InterestRule> rulesByDate = new TreeMap<>();
+        rulesByDate.put(LocalDate.of(2023, 1, 1), new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        rulesByDate.put(LocalDate.of(2023, 2, 10), new InterestRule(LocalDate.of(2023, 2, 10), "RULE02", 2.20));
+        List<Integer> notifiedBatches = new ArrayList<>();
+        TransactionListener listener = new TransactionListener() {
+            @Override
+            public void transactionAdded(String accountId, LocalDate date, String type, long amount) {
+                notifiedBatches.add(1);
+            }
+
+            @Override
+            public void transactionsAdded(String accountId, PostingBatch batch) {
+                notifiedBatches.add(batch.size());
+            }
+        };
+        BankAccount sequential = new BankAccount("AC001");
+        BankAccount batched = new BankAccount("AC001", new ListTransactionStore(), listener);
+        Random random = new Random(23);
+        PostingBatch batch = new PostingBatch();
+        LocalDate date = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < 300; i++) {
+            date = date.plusDays(random.nextInt(3) == 0 ? 1 : 0);
+            batch.add(date, random.nextInt(3) == 0 ? "W" : "D", 1 + random.nextInt(100_000));
+        }
+        LocalDate january = LocalDate.of(2023, 1, 1);
+        // Keep an accrual of the first month, so the batch has to carry it forward
+        sequential.calculateInterestCents(january, january.plusMonths(1).minusDays(1), rulesByDate);
+        batched.calculateInterestCents(january, january.plusMonths(1).minusDays(1), rulesByDate);
+        for (int i = 0; i < batch.size(); i++) {
+            sequential.addTransactionCents(batch.getDate(i), batch.isWithdrawal(i) ? "W" : "D", batch.getAmount(i));
+        }
+
+        // Act
+        int accepted = batched.addTransactions(batch);
+
+        // Assert
+        assertEquals(List.of(batch.size()), notifiedBatches);
+        assertEquals(sequential.getTransactionCount(), accepted);
+        assertTrue(accepted < batch.size(), "Some withdrawals should be rejected");
+        assertEquals(sequential.getBalanceCents(), batched.getBalanceCents());
+        List<Transaction> expectedTransactions = sequential.getTransactions();
+        List<Transaction> actualTransactions = batched.getTransactions();
+        for (int i = 0; i < expectedTransactions.size(); i++) {
+            assertEquals(expectedTransactions.get(i).getId(), actualTransactions.get(i).getId());
+            assertEquals(expectedTransactions.get(i).getBalanceCents(), actualTransactions.get(i).getBalanceCents());
+        }
+        for (LocalDate startDate = january; !startDate.isAfter(date); startDate = startDate.plusMonths(1)) {
+            LocalDate endDate = startDate.plusMonths(1).minusDays(1);
+            assertEquals(sequential.calculateInterestCents(startDate, endDate, rulesByDate),
+                    batched.calculateInterestCents(startDate, endDate, rulesByDate), "Interest for " + startDate);
+        }
+    }
+
+    @Test
+    void addTransactions_shouldContinueNumberingOfRestoredDate() {
+        // Arrange
+        BankAccount account = new BankAccount("AC001");
+        LocalDate date = LocalDate.of(2023, 6, 1);
+        account.restoreTransaction(date, 3, "D", 100_00, 100_00);
+        PostingBatch batch = new PostingBatch()
+                .add(date, "W", 150_00)
+                .add(date, "W", 40_00);
+
+        // Act
+        int accepted = account.addTransactions(batch);
+        account.addTransactionCents(date, "D", 5_00);
+
+        // Assert
+        assertEquals(1, accepted);
+        assertFalse(batch.isAccepted(0));
+        assertTrue(batch.isAccepted(1));
+        assertEquals("20230601-4", account.getTransactions().get(1).getId());
+        assertEquals("20230601-5", account.getTransactions().get(2).getId());
+        assertEquals(65_00, account.getBalanceCents());
+    }
+
+    @Test
+    void addTransaction_shouldInsertBackDatedTransactionInDateOrderAndRerollLaterBalances() {
+        for (BankAccount account : List.of(new BankAccount("AC001"),
+                new BankAccount("AC001", new ColumnarTransactionStore()))) {
+            // Arrange
+            account.addTransaction("20230505", "D", 100.00);
+            account.addTransaction("20230601", "D", 150.00);
+            account.addTransaction("20230626", "W", 20.00);
+
+            // Act
+            assertTrue(account.addTransaction("20230520", "D", 30.00));
+            assertTrue(account.addTransaction("20230601", "W", 10.00));
+
+            // Assert
+            List<Transaction> transactions = account.getTransactions();
+            assertEquals(List.of("20230505-1", "20230520-1", "20230601-1", "20230601-2", "20230626-1"),
+                    transactions.stream().map(Transaction::getId).toList());
+            assertEquals(List.of(100_00L, 130_00L, 280_00L, 270_00L, 250_00L),
+                    transactions.stream().map(Transaction::getBalanceCents).toList());
+            assertEquals(250_00, account.getBalanceCents());
+            List<Long> juneBalances = new ArrayList<>();
+            account.forEachTransactionInRange(LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30),
+                    txn -> juneBalances.add(txn.getBalanceCents()));
+            assertEquals(List.of(280_00L, 270_00L, 250_00L), juneBalances);
+        }
+    }
+
+    @Test
+    void addTransaction_shouldRejectBackDatedWithdrawalThatOverdrawsALaterBalance() {
+        // Arrange
+        BankAccount account = new BankAccount("AC001");
+        account.addTransaction("20230601", "D", 100.00);
+        account.addTransaction("20230610", "W", 80.00);
+        account.addTransaction("20230620", "D", 200.00);
+
+        // Act
+        boolean overdrawing = account.addTransaction("20230605", "W", 50.00);
+        boolean covered = account.addTransaction("20230605", "W", 20.00);
+
+        // Assert
+        assertFalse(overdrawing); // The balance after 20230610 would be -30.00
+        assertTrue(covered);
+        assertEquals(List.of(100_00L, 80_00L, 0L, 200_00L),
+                account.getTransactions().stream().map(Transaction::getBalanceCents).toList());
+    }
+
+    @Test
+    void addTransaction_shouldMatchReplayingTransactionsInDateOrder() {
+        // Arrange
+        Random random = new Random(23);
+        BankAccount account = new BankAccount("AC001", new ColumnarTransactionStore());
+        NavigableMap<LocalDate, InterestRule> rulesByDate = new TreeMap<>();
+        rulesByDate.put(LocalDate.of(2023, 1, 1), new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        List<Transaction> accepted = new ArrayList<>();
+        LocalDate date = LocalDate.of(2023, 1, 1);
+
+        for (int i = 0; i < 1000; i++) {
+            date = date.plusDays(random.nextInt(2));
+            LocalDate postingDate = random.nextInt(5) == 0 ? date.minusDays(random.nextInt(120)) : date;
+            String type = random.nextInt(3) == 0 ? "W" : "D";
+            long amount = 1 + random.nextInt(100_000);
+            // The posting is valid if no balance from its place in date order on becomes negative
+            List<Transaction> candidate = new ArrayList<>(accepted);
+            int index = 0;
+            while (index < candidate.size() && !candidate.get(index).getDate().isAfter(postingDate)) index++;
+            candidate.add(index, Transaction.ofCents("", postingDate, type, amount, 0));
+            long balance = 0;
+            boolean valid = true;
+            for (Transaction txn : candidate) {
+                balance += txn.getType().equals("D") ? txn.getAmountCents() : -txn.getAmountCents();
+                valid &= balance >= 0;
+            }
+
+            // Act
+            boolean added = account.addTransactionCents(postingDate, type, amount);
+
+            // Assert
+            assertEquals(valid, added, "Posting " + i);
+            if (added) accepted = candidate;
+        }
+        List<Transaction> transactions = account.getTransactions();
+        long balance = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            Transaction txn = accepted.get(i);
+            balance += txn.getType().equals("D") ? txn.getAmountCents() : -txn.getAmountCents();
+            assertEquals(txn.getDate(), transactions.get(i).getDate());
+            assertEquals(balance, transactions.get(i).getBalanceCents());
+        }
+        assertEquals(balance, account.getBalanceCents());
+        BankAccount reference = new BankAccount("AC001");
+        transactions.forEach(txn -> reference.addTransactionCents(txn.getDate(), txn.getType(), txn.getAmountCents()));
+        for (LocalDate month = LocalDate.of(2023, 1, 1); month.isBefore(date); month = month.plusMonths(1)) {
+            LocalDate endDate = month.withDayOfMonth(month.lengthOfMonth());
+            assertEquals(reference.calculateInterestCents(month, endDate, rulesByDate),
+                    account.calculateInterestCents(month, endDate, rulesByDate), "Interest for " + month);
+        }
+    }
+}
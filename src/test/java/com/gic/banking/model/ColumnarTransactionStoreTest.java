@@ -0,0 +1,117 @@
+package com.gic.banking.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionStoreTest {
+
+    @Test
+    void testAddAndGetTransactions() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        store.add(LocalDate.of(2023, 6, 26), 2, "W", 2000, 13000);
+
+        List<Transaction> transactions = store.getTransactions();
+
+        assertEquals(1, transactions.size());
+        Transaction transaction = transactions.get(0);
+        assertEquals("20230626-2", transaction.getId());
+        assertEquals(LocalDate.of(2023, 6, 26), transaction.getDate());
+        assertEquals("W", transaction.getType());
+        assertEquals(2000, transaction.getAmountCents());
+        assertEquals(13000, transaction.getBalanceCents());
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterChanges() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        store.add(LocalDate.of(2023, 6, 1), 1, "D", 100, 100);
+        List<Transaction> snapshot = store.getTransactions();
+
+        for (int i = 0; i < 100; i++) {
+            store.add(LocalDate.of(2023, 6, 2), i + 1, "D", 100, 200 + i * 100L);
+        }
+        store.clear();
+
+        assertEquals(1, snapshot.size());
+        assertEquals("20230601-1", snapshot.get(0).getId());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testForEachInRangeVisitsInDateOrder() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        store.add(LocalDate.of(2023, 6, 10), 1, "D", 100, 100);
+        store.add(LocalDate.of(2023, 7, 1), 1, "D", 100, 200);
+        store.add(LocalDate.of(2023, 6, 5), 1, "D", 100, 300); // Added out of date order
+        store.add(LocalDate.of(2023, 6, 10), 2, "D", 100, 400);
+
+        List<String> ids = new ArrayList<>();
+        store.forEachInRange(LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30), txn -> ids.add(txn.getId()));
+
+        assertEquals(List.of("20230605-1", "20230610-1", "20230610-2"), ids);
+    }
+
+    @Test
+    void testForEachInRangeOnDateOrderedRows() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        for (int day = 1; day <= 30; day++) {
+            store.add(LocalDate.of(2023, 6, day), 1, "D", 100, day * 100L);
+        }
+
+        List<Long> balances = new ArrayList<>();
+        store.forEachInRange(LocalDate.of(2023, 6, 10), LocalDate.of(2023, 6, 12),
+                txn -> balances.add(txn.getBalanceCents()));
+
+        assertEquals(List.of(1000L, 1100L, 1200L), balances);
+    }
+
+    @Test
+    void testForEachInRangeMatchesListStoreWithRowsOutOfDateOrder() {
+        Random random = new Random(5);
+        ColumnarTransactionStore columnar = new ColumnarTransactionStore();
+        ListTransactionStore list = new ListTransactionStore();
+        for (int i = 0; i < 2000; i++) {
+            int backDays = random.nextInt(4) == 0 ? random.nextInt(90) : 0;
+            LocalDate date = LocalDate.of(2023, 1, 1).plusDays(i / 5 - backDays);
+            columnar.add(date, i + 1, "D", 100, i);
+            list.add(date, i + 1, "D", 100, i);
+        }
+
+        for (int month = 1; month <= 12; month++) {
+            LocalDate startDate = LocalDate.of(2023, month, 1);
+            LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+            List<String> expected = new ArrayList<>();
+            List<String> actual = new ArrayList<>();
+            list.forEachInRange(startDate, endDate, txn -> expected.add(txn.getId()));
+            columnar.forEachInRange(startDate, endDate, txn -> actual.add(txn.getId()));
+            assertEquals(expected, actual, "Month " + month);
+        }
+    }
+
+    @Test
+    void testStatementMatchesListStore() {
+        BankAccount listAccount = new BankAccount("A1");
+        BankAccount columnarAccount = new BankAccount("A1", new ColumnarTransactionStore());
+        for (BankAccount account : List.of(listAccount, columnarAccount)) {
+            account.addTransaction("20230505", "D", 100.0);
+            account.addTransaction("20230601", "D", 150.0);
+            account.addTransaction("20230626", "W", 20.0);
+            account.addTransaction("20230626", "W", 100.0);
+        }
+
+        assertEquals(listAccount.getBalanceCents(), columnarAccount.getBalanceCents());
+        List<Transaction> expected = listAccount.getTransactions();
+        List<Transaction> actual = columnarAccount.getTransactions();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getBalanceCents(), actual.get(i).getBalanceCents());
+        }
+    }
+}
@@ -38,4 +38,14 @@ class TransactionTest {
         assertEquals(150.0, transaction.getBalance());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testCentsConstructorAndGetters() {
+        LocalDate date = LocalDate.now();
+        Transaction transaction = Transaction.ofCents("T1", date, "W", 1999, 10001);
+
+        assertEquals(1999, transaction.getAmountCents());
+        assertEquals(10001, transaction.getBalanceCents());
+        assertEquals(19.99, transaction.getAmount());
+        assertEquals(100.01, transaction.getBalance());
+    }
+}
@@ -0,0 +1,90 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonthEndInterestRunTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccountRepository accountRepository;
+    private InterestRulesRepository interestRulesRepository;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new AccountRepository();
+        interestRulesRepository = new InterestRulesRepository();
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 5, 20), "RULE02", 1.90));
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 6, 15), "RULE03", 2.20));
+    }
+
+    @Test
+    void run_shouldWriteInterestOfEveryAccount() throws Exception {
+        // Arrange
+        accountRepository.addAccount("AC001").addTransaction("20230505", "D", 100.0);
+        accountRepository.addAccount("AC001").addTransaction("20230601", "D", 150.0);
+        accountRepository.addAccount("AC001").addTransaction("20230626", "W", 20.0);
+        accountRepository.addAccount("AC001").addTransaction("20230626", "W", 100.0);
+        accountRepository.addAccount("AC002").addTransaction("20230701", "D", 100.0);
+        Path outputFile = tempDir.resolve("interest.csv");
+
+        // Act
+        MonthEndInterestRun.Summary summary = new MonthEndInterestRun(accountRepository, interestRulesRepository)
+                .run(YearMonth.of(2023, 6), outputFile);
+
+        // Assert
+        List<String> lines = Files.readAllLines(outputFile);
+        assertEquals(3, lines.size());
+        assertEquals("Account,Date,Interest,ElapsedMicros", lines.get(0));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("AC001,20230630,0.39,")));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("AC002,20230630,0.00,")));
+        assertEquals(2, summary.getAccounts());
+        assertEquals(39, summary.getTotalInterestCents());
+    }
+
+    @Test
+    void run_shouldReuseInterestCachedByTheStatementCache() throws Exception {
+        // Arrange
+        accountRepository.addAccount("AC001").addTransaction("20230505", "D", 100.0);
+        accountRepository.addAccount("AC001").addTransaction("20230601", "D", 150.0);
+        StatementCache statementCache = new StatementCache(accountRepository, interestRulesRepository, 10);
+        long cachedInterest = statementCache.getInterestCents(accountRepository.findById("AC001"),
+                LocalDate.of(2023, 6, 1));
+        MonthEndInterestRun run = new MonthEndInterestRun(accountRepository, interestRulesRepository,
+                ForkJoinPool.commonPool(), statementCache);
+
+        // Act
+        MonthEndInterestRun.Summary summary = run.run(YearMonth.of(2023, 6), tempDir.resolve("interest.csv"));
+
+        // Assert
+        assertEquals(cachedInterest, summary.getTotalInterestCents());
+        assertEquals(1, statementCache.getMisses());
+        assertEquals(1, statementCache.getHits());
+    }
+
+    @Test
+    void run_shouldHandleNoAccounts() throws Exception {
+        // Act
+        MonthEndInterestRun.Summary summary = new MonthEndInterestRun(accountRepository, interestRulesRepository)
+                .run(YearMonth.of(2023, 6), tempDir.resolve("interest.csv"));
+
+        // Assert
+        assertEquals(0, summary.getAccounts());
+        assertEquals(0, summary.getTotalInterestCents());
+    }
+}
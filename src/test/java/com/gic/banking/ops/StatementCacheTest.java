@@ -0,0 +1,192 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRuleTable;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+    private AccountRepository accountRepository;
+    private InterestRulesRepository interestRulesRepository;
+    private StatementCache statementCache;
+    private BankAccount account;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new AccountRepository();
+        interestRulesRepository = new InterestRulesRepository();
+        statementCache = new StatementCache(accountRepository, interestRulesRepository, 2);
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        accountRepository.addAccount("AC001");
+        account = accountRepository.findById("AC001");
+        account.addTransaction("20230505", "D", 100.00);
+        account.addTransaction("20230601", "D", 150.00);
+    }
+
+    @Test
+    void getStatement_shouldMatchPrintedStatementAndHitOnRepeat() throws Exception {
+        // Arrange
+        String printed = tapSystemOutNormalized(() ->
+                account.printMonthlyStatement("202306", interestRulesRepository.getRulesByDate()));
+
+        // Act
+        String first = statementCache.getStatement(account, "202306");
+        String second = statementCache.getStatement(account, "202306");
+
+        // Assert
+        assertEquals(printed, first.replace(System.lineSeparator(), "\n"));
+        assertSame(first, second);
+        assertEquals(1, statementCache.getMisses());
+        assertEquals(1, statementCache.getHits());
+    }
+
+    @Test
+    void transactionAdded_shouldOnlyInvalidateItsAccountMonth() {
+        // Arrange
+        String may = statementCache.getStatement(account, "202305");
+        String june = statementCache.getStatement(account, "202306");
+
+        // Act
+        account.addTransaction("20230620", "W", 20.00);
+
+        // Assert
+        assertSame(may, statementCache.getStatement(account, "202305"));
+        assertNotSame(june, statementCache.getStatement(account, "202306"));
+        assertEquals(1, statementCache.getInvalidations());
+    }
+
+    @Test
+    void balancesChanged_shouldInvalidateLaterMonthsOfItsAccount() {
+        // Arrange
+        BankAccount other = accountRepository.addAccount("AC002");
+        other.addTransaction("20230601", "D", 10.00);
+        String june = statementCache.getStatement(account, "202306");
+        String otherJune = statementCache.getStatement(other, "202306");
+
+        // Act
+        account.addTransaction("20230510", "D", 50.00);
+
+        // Assert
+        String updatedJune = statementCache.getStatement(account, "202306");
+        assertNotSame(june, updatedJune);
+        assertTrue(updatedJune.contains("300.00"));
+        assertSame(otherJune, statementCache.getStatement(other, "202306"));
+        assertEquals(1, statementCache.getInvalidations());
+    }
+
+    @Test
+    void getStatement_shouldNotStoreStatementRenderedWithRulesChangedDuringTheRead() {
+        // Arrange
+        InterestRule laterRule = new InterestRule(LocalDate.of(2023, 6, 1), "RULE02", 3.00);
+        boolean[] interleave = {false};
+        InterestRulesRepository racingRules = new InterestRulesRepository() {
+            @Override
+            public InterestRuleTable getTable() {
+                InterestRuleTable table = super.getTable();
+                if (interleave[0]) {
+                    // Another thread publishes a rule right after this read
+                    interleave[0] = false;
+                    addInterestRule(laterRule);
+                }
+                return table;
+            }
+        };
+        racingRules.addInterestRule(new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        StatementCache racingCache = new StatementCache(accountRepository, racingRules, 2);
+        interleave[0] = true;
+
+        // Act
+        String stale = racingCache.getStatement(account, "202306");
+        String current = racingCache.getStatement(account, "202306");
+
+        // Assert
+        assertNotEquals(stale, current);
+        assertEquals(0, racingCache.getHits());
+        assertEquals(2, racingCache.getMisses());
+        assertSame(current, racingCache.getStatement(account, "202306"));
+    }
+
+    @Test
+    void getInterestCents_shouldCalculateWithTheGivenTableRatherThanANewerEntry() {
+        // Arrange
+        LocalDate june = LocalDate.of(2023, 6, 1);
+        InterestRuleTable runTable = interestRulesRepository.getTable();
+        interestRulesRepository.addInterestRule(new InterestRule(june, "RULE02", 3.00));
+        long currentInterest = statementCache.getInterestCents(account, june);
+
+        // Act
+        long runInterest = statementCache.getInterestCents(account, june, runTable);
+
+        // Assert
+        assertEquals(account.calculateInterestCents(june, LocalDate.of(2023, 6, 30), runTable.getRulesByDate()),
+                runInterest);
+        assertNotEquals(currentInterest, runInterest);
+        assertEquals(currentInterest, statementCache.getInterestCents(account, june));
+        assertEquals(1, statementCache.getHits());
+    }
+
+    @Test
+    void ruleAdded_shouldInvalidateMonthsUntilTheNextRule() {
+        // Arrange
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 7, 1), "RULE02", 2.20));
+        long juneInterest = statementCache.getInterestCents(account, LocalDate.of(2023, 6, 1));
+        statementCache.getInterestCents(account, LocalDate.of(2023, 5, 1));
+
+        // Act
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 6, 15), "RULE03", 2.50));
+
+        // Assert
+        assertEquals(1, statementCache.getInvalidations());
+        long updatedInterest = statementCache.getInterestCents(account, LocalDate.of(2023, 6, 1));
+        assertEquals(account.calculateInterestCents(LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30),
+                interestRulesRepository.getRulesByDate()), updatedInterest);
+        assertTrue(updatedInterest > juneInterest);
+    }
+
+    @Test
+    void balancesChanged_shouldNotCountEvictedMonths() {
+        // Arrange
+        statementCache.getStatement(account, "202306");
+        String july = statementCache.getStatement(account, "202307");
+        statementCache.getStatement(account, "202305"); // Evicts 202306
+
+        // Act
+        account.addTransaction("20230510", "D", 50.00);
+
+        // Assert
+        assertEquals(1, statementCache.getEvictions());
+        assertEquals(2, statementCache.getInvalidations());
+        assertEquals(0, statementCache.size());
+        assertNotSame(july, statementCache.getStatement(account, "202307"));
+    }
+
+    @Test
+    void getStatement_shouldEvictLeastRecentlyUsed() {
+        // Arrange
+        statementCache.getStatement(account, "202304");
+        statementCache.getStatement(account, "202305");
+        statementCache.getStatement(account, "202304");
+
+        // Act
+        statementCache.getStatement(account, "202306");
+        statementCache.getStatement(account, "202304");
+
+        // Assert
+        assertEquals(1, statementCache.getEvictions());
+        assertEquals(2, statementCache.size());
+        assertEquals(2, statementCache.getHits());
+        assertEquals(3, statementCache.getMisses());
+    }
+}
@@ -0,0 +1,129 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementExportTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccountRepository accountRepository;
+    private InterestRulesRepository interestRulesRepository;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new AccountRepository();
+        interestRulesRepository = new InterestRulesRepository();
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95));
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 5, 20), "RULE02", 1.90));
+        interestRulesRepository.addInterestRule(new InterestRule(LocalDate.of(2023, 6, 15), "RULE03", 2.20));
+        accountRepository.addAccount("AC001").addTransaction("20230505", "D", 100.0);
+        accountRepository.addAccount("AC001").addTransaction("20230601", "D", 150.0);
+        accountRepository.addAccount("AC001").addTransaction("20230626", "W", 20.0);
+        accountRepository.addAccount("AC001").addTransaction("20230626", "W", 100.0);
+        accountRepository.addAccount("AC002").addTransaction("20230701", "D", 100.0);
+    }
+
+    @Test
+    void export_shouldWriteStatementOfEveryAccountAsCsv() throws Exception {
+        // Arrange
+        Path outputFile = tempDir.resolve("statements.csv");
+
+        // Act
+        StatementExport.Summary summary = new StatementExport(accountRepository, interestRulesRepository)
+                .export(YearMonth.of(2023, 6), outputFile, StatementExport.ProgressListener.NONE);
+
+        // Assert
+        List<String> lines = Files.readAllLines(outputFile);
+        assertEquals("Account,Date,TxnId,Type,Amount,Balance", lines.get(0));
+        assertTrue(lines.contains("AC001,20230601,20230601-1,D,150.00,250.00"));
+        assertTrue(lines.contains("AC001,20230626,20230626-2,W,100.00,130.00"));
+        assertTrue(lines.contains("AC001,20230630,,I,0.39,130.39"));
+        assertTrue(lines.contains("AC002,20230630,,I,0.00,0.00"));
+        assertEquals(6, lines.size());
+        assertEquals(2, summary.getAccounts());
+        assertEquals(5, summary.getRows());
+        assertEquals(39, summary.getTotalInterestCents());
+        assertEquals(Files.size(outputFile), summary.getBytes());
+    }
+
+    @Test
+    void export_shouldWriteGzipNdjsonFromFileName() throws Exception {
+        // Arrange
+        Path outputFile = tempDir.resolve("statements.ndjson.gz");
+
+        // Act
+        StatementExport.Summary summary = new StatementExport(accountRepository, interestRulesRepository)
+                .export(YearMonth.of(2023, 6), outputFile, StatementExport.ProgressListener.NONE);
+
+        // Assert
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(outputFile)), StandardCharsets.UTF_8))) {
+            lines = reader.lines().collect(Collectors.toList());
+        }
+        assertEquals(5, lines.size());
+        assertTrue(lines.contains("{\"account\":\"AC001\",\"date\":\"20230601\",\"txnId\":\"20230601-1\","
+                + "\"type\":\"D\",\"amount\":150.00,\"balance\":250.00}"));
+        assertTrue(lines.contains("{\"account\":\"AC001\",\"date\":\"20230630\",\"txnId\":\"\","
+                + "\"type\":\"I\",\"amount\":0.39,\"balance\":130.39}"));
+        assertEquals(Files.size(outputFile), summary.getBytes());
+    }
+
+    @Test
+    void export_shouldNotHoldTheAccountLockWhileWriting() throws Exception {
+        // Arrange
+        BankAccount account = accountRepository.addAccount("AC003");
+        for (int i = 0; i < 3000; i++) {
+            account.addTransactionCents(LocalDate.of(2023, 6, 1 + i % 30), "D", 100);
+        }
+        boolean[] lockHeld = {false};
+        StringWriter output = new StringWriter() {
+            @Override
+            public StringWriter append(CharSequence text) {
+                lockHeld[0] |= Thread.holdsLock(account);
+                return super.append(text);
+            }
+        };
+
+        // Act
+        StatementExport.Summary summary = new StatementExport(accountRepository, interestRulesRepository)
+                .export(YearMonth.of(2023, 6), output, StatementExport.Format.CSV,
+                        StatementExport.ProgressListener.NONE);
+
+        // Assert
+        assertFalse(lockHeld[0]);
+        assertTrue(output.toString().length() > 1 << 16, "The rows of AC003 should fill the buffer");
+        assertTrue(output.toString().contains("AC003,20230630,20230630-100,D,1.00,3000.00\n"));
+        assertEquals(5 + 3001, summary.getRows());
+    }
+
+    @Test
+    void formatOf_shouldChooseFormatFromFileName() {
+        // Act & Assert
+        assertEquals(StatementExport.Format.NDJSON, StatementExport.Format.of("out.ndjson"));
+        assertEquals(StatementExport.Format.NDJSON, StatementExport.Format.of("out.jsonl.gz"));
+        assertEquals(StatementExport.Format.CSV, StatementExport.Format.of("out.csv.gz"));
+        assertEquals(StatementExport.Format.CSV, StatementExport.Format.of("out.txt"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.gic.banking.ops;
+
+import com.gic.banking.model.InterestRule;
+import com.gic.banking.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StatementWriterTest {
+
+    @Test
+    void writeTransaction_shouldMatchPrintfLayout() {
+        // Arrange
+        StringBuilder output = new StringBuilder();
+        StatementWriter writer = new StatementWriter(output);
+        Transaction deposit = new Transaction("20230601-1", LocalDate.of(2023, 6, 1), "D", 1.5, 1.5);
+        Transaction withdrawal = new Transaction("20230626-2", LocalDate.of(2023, 6, 26), "W", 1234567.89, 250.0);
+
+        // Act
+        writer.writeStatementHeader("Account: ", "AC001")
+                .writeTransaction(deposit)
+                .writeTransaction(withdrawal)
+                .writeInterest(LocalDate.of(2023, 6, 30), 39, 25039)
+                .flush();
+
+        // Assert
+        String expected = String.format("Account: AC001%n")
+                + String.format("| Date\t | Txn Id\t | Type\t | Amount\t | Balance\t |%n")
+                + String.format("| %s\t | %s\t | %s\t | %6s\t | %6s\t |%n", "20230601", "20230601-1", "D", "1.50", "1.50")
+                + String.format("| %s\t | %s\t | %s\t | %6s\t | %6s\t |%n", "20230626", "20230626-2", "W", "1234567.89", "250.00")
+                + String.format("| %s\t | %s\t | %s\t | %6s\t | %6s\t |%n", "20230630", "\t", "I", "0.39", "250.39");
+        assertEquals(expected, output.toString());
+    }
+
+    @Test
+    void writeInterestRules_shouldMatchPrintfLayout() {
+        // Arrange
+        StringBuilder output = new StringBuilder();
+        List<InterestRule> rules = List.of(new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95),
+                new InterestRule(LocalDate.of(2023, 6, 15), "RULE03", 2.005));
+
+        // Act
+        new StatementWriter(output).writeInterestRules(rules).flush();
+
+        // Assert
+        StringBuilder expected = new StringBuilder(String.format("Interest rules:%n| Date\t | RuleId\t | Rate (%%)\t |%n"));
+        rules.forEach(rule -> expected.append(String.format("| %s\t | %s\t | %6.2f\t |%n",
+                rule.getDate().toString().replace("-", ""), rule.getRuleId(), rule.getRate())));
+        assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    void flush_shouldEncodeLargeOutputToChannel() {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        StatementWriter writer = new StatementWriter(Channels.newChannel(output));
+        StatementWriter reference = new StatementWriter(expected);
+
+        // Act
+        for (int i = 1; i <= 5000; i++) {
+            Transaction txn = new Transaction("20230601-" + i, LocalDate.of(2023, 6, 1), "D", i, i * 2);
+            writer.writeTransaction(txn);
+            reference.writeTransaction(txn);
+        }
+        writer.flush();
+        reference.flush();
+
+        // Assert
+        assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void toStandardOutput_shouldReuseAResetWriterUntilSystemOutIsReplaced() {
+        // Arrange
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+            StatementWriter first = StatementWriter.toStandardOutput();
+            first.writeStatementHeader("Account: ", "LEFTOVER"); // Never flushed
+
+            // Act
+            StatementWriter second = StatementWriter.toStandardOutput();
+            second.writeStatementHeader("Account: ", "AC001").flush();
+            System.setOut(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+            StatementWriter third = StatementWriter.toStandardOutput();
+
+            // Assert
+            assertSame(first, second);
+            assertNotSame(second, third);
+            assertEquals(String.format("Account: AC001%n| Date\t | Txn Id\t | Type\t | Amount\t | Balance\t |%n"),
+                    output.toString(StandardCharsets.UTF_8));
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+}
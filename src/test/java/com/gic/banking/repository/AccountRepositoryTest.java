@@ -2,9 +2,21 @@ package com.gic.banking.repository;
 
 
 import com.gic.banking.model.BankAccount;
+import com.gic.banking.model.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountRepositoryTest {
@@ -92,4 +104,203 @@ class AccountRepositoryTest {
         BankAccount account = accountRepository.findById(TEST_ACCOUNT_ID);
         assertEquals(initialSize, account.getAccountId().length());
     }
-}
\ No newline at end of file
+
+    @Test
+    void concurrentPosting_shouldKeepAccountsConsistent() throws Exception {
+        // Arrange
+        int threads = 8;
+        int postingsPerThread = 500;
+        String[] accountIds = {"ACC001", "ACC002", "ACC003"};
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < postingsPerThread; i++) {
+                    for (String accountId : accountIds) {
+                        accountRepository.addAccount(accountId).addTransaction("20230601", "D", 1.0);
+                    }
+                }
+                return null;
+            });
+        }
+
+        // Act
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        for (String accountId : accountIds) {
+            BankAccount account = accountRepository.findById(accountId);
+            List<Transaction> transactions = account.getTransactions();
+            assertEquals(threads * postingsPerThread, account.getBalance());
+            assertEquals(threads * postingsPerThread, transactions.size());
+            assertEquals(transactions.size(), transactions.stream().map(Transaction::getId).distinct().count());
+        }
+    }
+
+    @Test
+    void concurrentWithdrawals_shouldNeverOverdrawAccount() throws Exception {
+        // Arrange
+        BankAccount account = accountRepository.addAccount(TEST_ACCOUNT_ID);
+        account.addTransaction("20230601", "D", 100.0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tasks.add(() -> {
+                int accepted = 0;
+                for (int i = 0; i < 50; i++) {
+                    if (accountRepository.findById(TEST_ACCOUNT_ID).addTransaction("20230602", "W", 1.0)) accepted++;
+                }
+                return accepted;
+            });
+        }
+
+        // Act
+        int accepted = 0;
+        for (Future<Integer> future : executor.invokeAll(tasks)) {
+            accepted += future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(100, accepted);
+        assertEquals(0.0, account.getBalance());
+    }
+
+    @Test
+    void addAccount_shouldIndexAccountsPastInitialCapacity() {
+        // Arrange
+        int count = 5000;
+
+        // Act
+        List<BankAccount> added = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            added.add(accountRepository.addAccount("ACC" + i));
+        }
+
+        // Assert
+        assertEquals(count, accountRepository.getAccountCount());
+        assertEquals(added, new ArrayList<>(accountRepository.getAccounts()));
+        for (int i = 0; i < count; i++) {
+            assertEquals("ACC" + i, added.get(i).getAccountId());
+            assertSame(added.get(i), accountRepository.findById("ACC" + i));
+            assertSame(added.get(i), accountRepository.addAccount("ACC" + i));
+        }
+    }
+
+    @Test
+    void concurrentAddAccount_shouldCreateEachAccountOnce() throws Exception {
+        // Arrange
+        int threads = 8;
+        int accounts = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<BankAccount[]>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                BankAccount[] added = new BankAccount[accounts];
+                for (int i = 0; i < accounts; i++) {
+                    added[i] = accountRepository.addAccount("ACC" + i);
+                }
+                return added;
+            });
+        }
+
+        // Act
+        List<BankAccount[]> results = new ArrayList<>();
+        for (Future<BankAccount[]> future : executor.invokeAll(tasks)) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(accounts, accountRepository.getAccountCount());
+        for (BankAccount[] added : results) {
+            for (int i = 0; i < accounts; i++) {
+                assertSame(results.get(0)[i], added[i]);
+            }
+        }
+        for (int i = 0; i < accounts; i++) {
+            assertEquals("ACC" + i, results.get(0)[i].getAccountId());
+        }
+    }
+
+    @Test
+    void addAccount_shouldNotWaitForAnotherAccountBeingLoaded() throws Exception {
+        // Arrange
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        accountRepository.setAccountLoader(new AccountLoader() {
+            @Override
+            public boolean load(BankAccount account) {
+                if (!"SLOW".equals(account.getAccountId())) return false;
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+
+            @Override
+            public Collection<String> getAccountIds() {
+                return List.of("SLOW");
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<BankAccount> slow = executor.submit(() -> accountRepository.findById("SLOW"));
+        loading.await();
+
+        // Act
+        Future<BankAccount> other = CompletableFuture.supplyAsync(() -> accountRepository.addAccount("OTHER"));
+
+        // Assert
+        assertEquals("OTHER", other.get(5, TimeUnit.SECONDS).getAccountId());
+        release.countDown();
+        assertEquals("SLOW", slow.get(5, TimeUnit.SECONDS).getAccountId());
+        executor.shutdown();
+    }
+
+    @Test
+    void handleOf_shouldReturnDenseStableHandlesOfTheAccounts() {
+        // Act
+        int first = accountRepository.handleOf("ACC001");
+        int second = accountRepository.handleOf("ACC002");
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(first, accountRepository.handleOf("ACC001"));
+        assertSame(accountRepository.findById("ACC002"), accountRepository.get(second));
+    }
+
+    @Test
+    void findById_shouldNotLoadAnAccountUnknownToTheLoader() {
+        // Arrange
+        List<String> loaded = new ArrayList<>();
+        accountRepository.setAccountLoader(new AccountLoader() {
+            @Override
+            public boolean load(BankAccount account) {
+                loaded.add(account.getAccountId());
+                return true;
+            }
+
+            @Override
+            public Collection<String> getAccountIds() {
+                return List.of("KNOWN");
+            }
+        });
+
+        // Act
+        BankAccount unknown = accountRepository.findById("UNKNOWN");
+        BankAccount known = accountRepository.findById("KNOWN");
+
+        // Assert
+        assertNull(unknown);
+        assertEquals("KNOWN", known.getAccountId());
+        assertEquals(List.of("KNOWN"), loaded);
+        assertEquals(1, accountRepository.getAccountCount());
+    }
+}
@@ -5,7 +5,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -115,4 +120,143 @@ class InterestRulesRepositoryTest {
         assertFalse(repository.removeInterestRule(rule1));
         assertEquals(1, repository.getInterestRules().size());
     }
+
+    @Test
+    void findEffectiveRule_shouldReturnLatestRuleOnOrBeforeDate() {
+        // Arrange
+        repository.addInterestRule(rule2);
+        repository.addInterestRule(rule1);
+
+        // Act & Assert
+        assertNull(repository.findEffectiveRule(LocalDate.of(2022, 12, 31)));
+        assertSame(rule1, repository.findEffectiveRule(LocalDate.of(2023, 1, 1)));
+        assertSame(rule1, repository.findEffectiveRule(LocalDate.of(2023, 1, 31)));
+        assertSame(rule2, repository.findEffectiveRule(LocalDate.of(2023, 6, 1)));
+    }
+
+    @Test
+    void getRulesByDate_shouldKeepReplacementForSameDate() {
+        // Arrange
+        InterestRule replacement = new InterestRule(rule1.getDate(), "RULE01", 1.75);
+        repository.addInterestRule(rule1);
+        repository.addInterestRule(replacement);
+
+        // Act
+        boolean result = repository.removeInterestRule(rule1);
+
+        // Assert
+        assertFalse(result);
+        assertEquals(1, repository.getRulesByDate().size());
+        assertSame(replacement, repository.getRulesByDate().get(rule1.getDate()));
+    }
+
+    @Test
+    void applyBatch_shouldPublishAllChangesAsOneVersion() {
+        // Arrange
+        repository.addInterestRule(rule1);
+        long version = repository.getTable().getVersion();
+        InterestRule replacement = new InterestRule(rule1.getDate(), "RULE01", 1.75);
+
+        // Act
+        int changes = repository.applyBatch(List.of(rule1), List.of(replacement, rule2));
+
+        // Assert
+        assertEquals(3, changes);
+        assertEquals(version + 1, repository.getTable().getVersion());
+        assertSame(replacement, repository.findEffectiveRule(rule1.getDate()));
+        assertSame(rule2, repository.findEffectiveRule(rule2.getDate()));
+    }
+
+    @Test
+    void getTable_shouldNotChangeWhileRulesAreEdited() {
+        // Arrange
+        repository.addInterestRule(rule1);
+        repository.addInterestRule(rule2);
+        InterestRuleTable table = repository.getTable();
+
+        // Act
+        for (InterestRule rule : table.getInterestRules()) {
+            repository.removeInterestRule(rule);
+        }
+
+        // Assert
+        assertEquals(2, table.getInterestRules().size());
+        assertEquals(2, table.getRulesByDate().size());
+        assertTrue(repository.getInterestRules().isEmpty());
+        assertEquals(table.getVersion() + 2, repository.getTable().getVersion());
+    }
+
+    @Test
+    void addInterestRule_shouldReplaceRuleOfSameDate() {
+        // Arrange
+        InterestRule replacement = new InterestRule(rule1.getDate(), "RULE03", 1.75);
+        repository.addInterestRule(rule1);
+
+        // Act
+        for (int edit = 0; edit < 10; edit++) {
+            repository.addInterestRule(new InterestRule(rule1.getDate(), "RULE01", 1.0 + edit));
+        }
+        boolean result = repository.addInterestRule(replacement);
+
+        // Assert
+        assertTrue(result);
+        assertEquals(1, repository.getInterestRules().size());
+        assertSame(replacement, repository.findEffectiveRule(rule1.getDate()));
+        assertFalse(repository.addInterestRule(replacement));
+    }
+
+    @Test
+    void removeInterestRule_shouldRemoveRuleOfDate() {
+        // Arrange
+        repository.addInterestRule(rule1);
+        repository.addInterestRule(rule2);
+
+        // Act
+        InterestRule result = repository.removeInterestRule(rule1.getDate());
+
+        // Assert
+        assertSame(rule1, result);
+        assertNull(repository.removeInterestRule(rule1.getDate()));
+        assertEquals(1, repository.getInterestRules().size());
+        assertTrue(repository.getInterestRules().contains(rule2));
+    }
+
+    @Test
+    void getTable_shouldMatchTreeMapThroughRandomEditsAndKeepEarlierVersions() {
+        // Arrange
+        Random random = new Random(7);
+        LocalDate firstDate = LocalDate.of(2023, 1, 1);
+        TreeMap<LocalDate, InterestRule> expected = new TreeMap<>();
+        List<InterestRuleTable> tables = new ArrayList<>();
+        List<Map<LocalDate, InterestRule>> expectedTables = new ArrayList<>();
+
+        // Act
+        for (int edit = 0; edit < 3000; edit++) {
+            LocalDate date = firstDate.plusDays(random.nextInt(500));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(date), repository.removeInterestRule(date));
+            } else {
+                InterestRule rule = new InterestRule(date, "RULE" + edit, 1 + random.nextInt(5));
+                repository.addInterestRule(rule);
+                expected.put(date, rule);
+            }
+            if (edit % 100 == 0) {
+                tables.add(repository.getTable());
+                expectedTables.add(new TreeMap<>(expected));
+            }
+        }
+
+        // Assert
+        assertEquals(expected, repository.getRulesByDate());
+        assertEquals(List.copyOf(expected.values()), List.copyOf(repository.getInterestRules()));
+        for (int day = -1; day <= 500; day++) {
+            LocalDate date = firstDate.plusDays(day);
+            Map.Entry<LocalDate, InterestRule> floor = expected.floorEntry(date);
+            assertEquals(floor == null ? null : floor.getValue(), repository.findEffectiveRule(date));
+            assertEquals(expected.higherKey(date), repository.getTable().findNextRuleDate(date));
+        }
+        for (int version = 0; version < tables.size(); version++) {
+            assertEquals(expectedTables.get(version), tables.get(version).getRulesByDate());
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.gic.banking.utils;
+
+import com.gic.banking.handler.InterestRuleHandler;
+import com.gic.banking.handler.TransactionHandler;
+import com.gic.banking.repository.AccountRepository;
+import com.gic.banking.repository.InterestRulesRepository;
+import com.gic.banking.util.CommandInput;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandInputTest {
+
+    @Test
+    void handlers_shouldShareBufferedLines() throws Exception {
+        // Arrange
+        CommandInput commandInput = input("20230505 AC001 D 100.00\n\n20230101 RULE01 1.95\n\nleft over\n", false);
+        AccountRepository accountRepository = new AccountRepository();
+        InterestRulesRepository interestRulesRepository = new InterestRulesRepository();
+        TransactionHandler transactionHandler = new TransactionHandler(accountRepository, commandInput);
+        InterestRuleHandler interestRuleHandler = new InterestRuleHandler(interestRulesRepository, commandInput);
+
+        // Act
+        String output = tapSystemOutNormalized(() -> {
+            transactionHandler.handle();
+            interestRuleHandler.handle();
+        });
+
+        // Assert
+        assertEquals(10_000, accountRepository.findById("AC001").getBalanceCents());
+        assertEquals(1, interestRulesRepository.getInterestRules().size());
+        assertEquals("left over", commandInput.readLine());
+        assertFalse(output.contains("> "), "Scripted input should not prompt");
+    }
+
+    @Test
+    void readLine_shouldPromptOnlyWhenInteractive() throws Exception {
+        // Arrange
+        CommandInput interactive = input("  first  \n", true);
+        CommandInput scripted = input("second\n", false);
+
+        // Act
+        String output = tapSystemOutNormalized(() -> {
+            assertEquals("first", interactive.readLine("> "));
+            assertEquals("second", scripted.readLine("$ "));
+        });
+
+        // Assert
+        assertEquals("> ", output);
+        assertNull(interactive.readLine());
+        assertTrue(interactive.isInteractive());
+    }
+
+    private static CommandInput input(String text, boolean interactive) {
+        return new CommandInput(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), interactive);
+    }
+}
@@ -1,9 +1,12 @@
 package com.gic.banking.utils;
 
 import com.gic.banking.util.InputValidations;
+import com.gic.banking.util.ValidationError;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InputValidationsTest {
@@ -76,4 +79,28 @@ class InputValidationsTest {
     void testIsValidAmount2() {
         assertFalse(InputValidations.isValidAmount(".01654"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testValidateDate() {
+        assertNull(InputValidations.validateDate("20240229"));
+        assertEquals(ValidationError.INVALID_DATE, InputValidations.validateDate("20230229"));
+        assertEquals(ValidationError.INVALID_DATE, InputValidations.validateDate("20230431"));
+        assertEquals(ValidationError.INVALID_DATE, InputValidations.validateDate("00000101"));
+        assertEquals(ValidationError.INVALID_DATE_FORMAT, InputValidations.validateDate("2023101a"));
+        assertEquals(ValidationError.INVALID_DATE_FORMAT, InputValidations.validateDate("+2023101"));
+    }
+
+    @Test
+    void testValidatePeriod() {
+        assertNull(InputValidations.validatePeriod("202312"));
+        assertEquals(ValidationError.INVALID_PERIOD, InputValidations.validatePeriod("202300"));
+        assertEquals(ValidationError.INVALID_PERIOD_FORMAT, InputValidations.validatePeriod("2023 1"));
+    }
+
+    @Test
+    void testValidateAmount() {
+        assertNull(InputValidations.validateAmount("0.01"));
+        assertEquals(ValidationError.NON_POSITIVE_AMOUNT, InputValidations.validateAmount("0.00"));
+        assertEquals(ValidationError.INVALID_AMOUNT_FORMAT, InputValidations.validateAmount("1,000"));
+    }
+}
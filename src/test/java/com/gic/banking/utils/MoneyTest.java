@@ -0,0 +1,46 @@
+package com.gic.banking.utils;
+
+import com.gic.banking.util.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+    @Test
+    void testParseCents() {
+        assertEquals(10000, Money.parseCents("100"));
+        assertEquals(10050, Money.parseCents("100.5"));
+        assertEquals(10055, Money.parseCents("100.55"));
+        assertEquals(1, Money.parseCents("0.01"));
+        assertEquals(0, Money.parseCents("0.00"));
+        assertEquals(999999999999999999L, Money.parseCents("9999999999999999.99"));
+    }
+
+    @Test
+    void testParseCentsInvalid() {
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents(null));
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents(""));
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents("-100"));
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents("100."));
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents(".50"));
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents("100.555"));
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents("1e5"));
+        assertEquals(Money.INVALID_AMOUNT, Money.parseCents("10000000000000000"));
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("123.40", Money.format(12340));
+        assertEquals("-1.50", Money.format(-150));
+    }
+
+    @Test
+    void testToCents() {
+        assertEquals(29, Money.toCents(0.29));
+        assertEquals(10000, Money.toCents(100.0));
+        assertEquals(1.5, Money.toAmount(150));
+    }
+}